@@ -0,0 +1,21 @@
+package com.core.benchmarks;
+
+import com.core.model.impl.adjustable.adjuster.api.AdjusterType;
+import com.core.model.impl.adjustable.adjuster.api.RangeAdjuster;
+
+/**
+ * The Range Adjuster implementations a benchmark can be parametrized with.
+ *<p></p>
+ * FAIL stands for a Fail Adjuster which delegates start side "resolutions" to a Dynamic Adjuster, that is the way the library itself uses it.
+ */
+public enum AdjusterKind {
+    STATIC,DYNAMIC,FAIL;
+
+    /**
+     * Creates a new Range Adjuster instance of this kind.
+     * @return the Range Adjuster implementation.
+     */
+    public RangeAdjuster newAdjuster(){
+        return AdjusterType.valueOf(name()).newAdjuster();
+    }
+}
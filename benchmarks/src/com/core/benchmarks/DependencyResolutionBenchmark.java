@@ -0,0 +1,68 @@
+package com.core.benchmarks;
+
+import com.core.model.impl.adjustable.dependent.exc.StateException;
+import com.core.tasks.ActivityTask;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of adding dependencies : loop validation, "constraint range" resolution, "resolution" process and observers subscription.
+ *<p></p>
+ * The chain shape grows the upstream graph walked by the loop validation at each insertion,
+ * the fan-in shape grows the "dependency set" the milestone start side Constraint has to evaluate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput,Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5,time = 1)
+@Measurement(iterations = 5,time = 1)
+@Fork(1)
+public class DependencyResolutionBenchmark {
+
+    @Param({"10","100","1000"})
+    public int size;
+
+    @Param({"STATIC","DYNAMIC","FAIL"})
+    public AdjusterKind kind;
+
+    private ActivityTask milestone;
+
+    private ActivityTask probe;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws StateException {
+        ActivityTask[] fanIn = GraphShapes.fanIn(size,kind);
+        milestone = fanIn[size];
+        probe = ActivityTask.getActivity(0,GraphShapes.DURATION,kind.newAdjuster());
+    }
+
+    /**
+     * Builds a whole chain, each insertion validates the full upstream chain against loops.
+     */
+    @Benchmark
+    public ActivityTask[] buildChain() throws StateException {
+        return GraphShapes.chain(size,kind);
+    }
+
+    /**
+     * Adds a single dependency to a milestone already depending on "size" activities, then removes it to keep the shape unchanged.
+     */
+    @Benchmark
+    public boolean addAndRemoveFanInDependency() throws StateException {
+        boolean added = milestone.progressIfCompleted(probe);
+        milestone.removeDependency(probe);
+        return added;
+    }
+}
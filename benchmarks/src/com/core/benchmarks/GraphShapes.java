@@ -0,0 +1,141 @@
+package com.core.benchmarks;
+
+import com.core.model.impl.adjustable.dependent.exc.StateException;
+import com.core.tasks.ActivityTask;
+import com.core.tasks.ParentActivityTask;
+import com.core.tasks.ParentTask;
+import com.core.tasks.Task;
+
+/**
+ * Builds the graph shapes the benchmarks run against.
+ *<p></p>
+ * Every shape is created with ranges that are already "consistent" with the dependencies added,
+ * so that building a shape does not depend on the "resolution" character of the Range Adjuster in use.
+ */
+public class GraphShapes {
+
+    /**
+     * Distance between the start sides of two consecutive activities.
+     */
+    public static final long SLOT = 10;
+
+    /**
+     * Duration of each activity created.
+     */
+    public static final long DURATION = 5;
+
+    private GraphShapes(){
+    }
+
+    /**
+     * Creates a chain of activities where each element "progress if completed" its predecessor.
+     * @param size number of activities in the chain.
+     * @param kind Range Adjuster used by every activity.
+     * @return the activities in chain order, the head is the first element.
+     * @throws StateException if a dependency can not be added.
+     */
+    public static ActivityTask[] chain(int size,AdjusterKind kind) throws StateException {
+        ActivityTask[] chain = new ActivityTask[size];
+        for(int i = 0; i < size; i++){
+            chain[i] = ActivityTask.getActivity(i * SLOT,i * SLOT + DURATION,kind.newAdjuster());
+            if(i > 0){
+                chain[i].progressIfCompleted(chain[i - 1]);
+            }
+        }
+        return chain;
+    }
+
+    /**
+     * Creates a set of independent activities, all of them becoming dependencies of a single milestone activity.
+     * @param size number of activities the milestone depends on.
+     * @param kind Range Adjuster used by every activity.
+     * @return the activities, the milestone is the last element.
+     * @throws StateException if a dependency can not be added.
+     */
+    public static ActivityTask[] fanIn(int size,AdjusterKind kind) throws StateException {
+        ActivityTask[] sources = new ActivityTask[size + 1];
+        long milestoneStart = size * SLOT;
+        sources[size] = ActivityTask.getActivity(milestoneStart,milestoneStart + DURATION,kind.newAdjuster());
+        for(int i = 0; i < size; i++){
+            sources[i] = ActivityTask.getActivity(i * SLOT,i * SLOT + DURATION,kind.newAdjuster());
+            sources[size].progressIfCompleted(sources[i]);
+        }
+        return sources;
+    }
+
+    /**
+     * Creates a fan-in whose milestone is followed by a chain of successors, so that every variation reaching the milestone goes through the whole chain.
+     * @param size number of activities the milestone depends on, and number of its successors.
+     * @param kind Range Adjuster used by every activity.
+     * @return the activities the milestone depends on, then the milestone, then its successors in chain order.
+     * @throws StateException if a dependency can not be added.
+     */
+    public static ActivityTask[] fanInChain(int size,AdjusterKind kind) throws StateException {
+        ActivityTask[] activities = new ActivityTask[2 * size + 1];
+        System.arraycopy(fanIn(size,kind),0,activities,0,size + 1);
+        for(int i = size + 1; i < activities.length; i++){
+            activities[i] = ActivityTask.getActivity(i * SLOT,i * SLOT + DURATION,kind.newAdjuster());
+            activities[i].progressIfCompleted(activities[i - 1]);
+        }
+        return activities;
+    }
+
+    /**
+     * Creates a tree of Parent Activity Task(s) with the given depth and number of children for each parent,
+     * the leaves are plain activities.
+     * @param depth number of parent levels.
+     * @param breadth number of children for each parent.
+     * @param kind Range Adjuster used by the leaves.
+     * @param leaves array filled with the leaves created, it has to be sized breadth^depth.
+     * @return the root of the tree.
+     * @throws StateException if a sub activity can not be added.
+     */
+    public static ParentActivityTask parentTree(int depth,int breadth,AdjusterKind kind,ActivityTask[] leaves) throws StateException {
+        return parentTree(depth,breadth,kind,leaves,new int[1]);
+    }
+
+    private static ParentActivityTask parentTree(int depth,int breadth,AdjusterKind kind,ActivityTask[] leaves,int[] leafIndex) throws StateException {
+        ParentActivityTask parent = ActivityTask.getParentActivityTask();
+        for(int i = 0; i < breadth; i++){
+            if(depth > 1){
+                parent.addSubActivityTask(parentTree(depth - 1,breadth,kind,leaves,leafIndex));
+            }else {
+                int index = leafIndex[0]++;
+                ActivityTask leaf = ActivityTask.getActivity(index * SLOT + 1,index * SLOT + 1 + DURATION,kind.newAdjuster());
+                leaves[index] = leaf;
+                parent.addSubActivityTask(leaf);
+            }
+        }
+        return parent;
+    }
+
+    /**
+     * Creates a Parent Task having the given number of Sub Task(s).
+     * @param size number of Sub Task(s).
+     * @param subTasks array filled with the Sub Task(s) created, it has to be sized as the size parameter.
+     * @return the Parent Task.
+     * @throws StateException if a Sub Task can not be added.
+     */
+    public static ParentTask parentTask(int size,Task[] subTasks) throws StateException {
+        ParentTask parent = new ParentTask(size + 1);
+        for(int i = 0; i < size; i++){
+            subTasks[i] = new Task(i + 1);
+            parent.addSubTask(subTasks[i]);
+        }
+        return parent;
+    }
+
+    /**
+     * Returns the number of leaves of a tree created with the given parameters.
+     * @param depth number of parent levels.
+     * @param breadth number of children for each parent.
+     * @return breadth^depth.
+     */
+    public static int leafCount(int depth,int breadth){
+        int count = 1;
+        for(int i = 0; i < depth; i++){
+            count *= breadth;
+        }
+        return count;
+    }
+}
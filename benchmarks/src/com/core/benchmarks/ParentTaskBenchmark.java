@@ -0,0 +1,62 @@
+package com.core.benchmarks;
+
+import com.core.model.impl.adjustable.dependent.exc.StateException;
+import com.core.tasks.ParentTask;
+import com.core.tasks.Task;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a Parent Task with a large number of Sub Task(s) : building it, and completing every Sub Task and then the parent.
+ *<p></p>
+ * Both operations are measured as a whole (single shot), since each one of them can take seconds on large sizes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ParentTaskBenchmark {
+
+    @Param({"1000","10000"})
+    public int size;
+
+    private ParentTask parent;
+
+    private Task[] subTasks;
+
+    @Setup(Level.Invocation)
+    public void setUp() throws StateException {
+        subTasks = new Task[size];
+        parent = GraphShapes.parentTask(size,subTasks);
+    }
+
+    @Benchmark
+    public ParentTask buildParentTask() throws StateException {
+        return GraphShapes.parentTask(size,new Task[size]);
+    }
+
+    /**
+     * Completes every Sub Task, each completion re-evaluates the parent "constraint condition", then completes the parent.
+     */
+    @Benchmark
+    public boolean completeAll(){
+        for(Task task : subTasks){
+            task.setCompleted();
+        }
+        return parent.setCompleted();
+    }
+}
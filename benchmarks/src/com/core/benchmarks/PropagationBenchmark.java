@@ -0,0 +1,110 @@
+package com.core.benchmarks;
+
+import com.core.model.impl.adjustable.dependent.exc.StateException;
+import com.core.model.impl.adjustable.dependent.states.PropagationEngine;
+import com.core.tasks.ActivityTask;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a range variation propagated through the observers cascade.
+ *<p></p>
+ * Every invocation moves the source activity past the whole shape, so that each dependent has to perform its "resolution".
+ * The "reschedule" benchmarks move every source of the shape (the first activity of a chain, the activities the milestone of a fan-in depends on),
+ * one propagation per source against a single batch.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput,Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5,time = 1)
+@Measurement(iterations = 5,time = 1)
+@Fork(1)
+public class PropagationBenchmark {
+
+    public enum Shape {
+        CHAIN,FAN_IN,FAN_IN_CHAIN
+    }
+
+    @Param({"CHAIN","FAN_IN","FAN_IN_CHAIN"})
+    public Shape shape;
+
+    @Param({"10","100","1000"})
+    public int size;
+
+    @Param({"STATIC","DYNAMIC","FAIL"})
+    public AdjusterKind kind;
+
+    private ActivityTask source;
+
+    private ActivityTask[] sources;
+
+    private long offset;
+
+    private long step;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws StateException {
+        switch (shape){
+            case CHAIN:
+                sources = new ActivityTask[]{GraphShapes.chain(size,kind)[0]};
+                break;
+            case FAN_IN:
+                sources = Arrays.copyOf(GraphShapes.fanIn(size,kind),size);
+                break;
+            case FAN_IN_CHAIN:
+                sources = Arrays.copyOf(GraphShapes.fanInChain(size,kind),size);
+                break;
+        }
+        source = sources[0];
+        step = (2 * size + 1) * GraphShapes.SLOT;
+        offset = step;
+    }
+
+    /**
+     * Moves the source activity forward, the variation reaches every dependent of the shape.
+     */
+    @Benchmark
+    public boolean moveSource(){
+        offset += step;
+        return source.setTime(offset,offset + GraphShapes.DURATION);
+    }
+
+    /**
+     * Moves every source forward, each variation is propagated on its own.
+     */
+    @Benchmark
+    public boolean reschedule(){
+        offset += step;
+        boolean result = true;
+        for(ActivityTask task : sources){
+            result &= task.setTime(offset,offset + GraphShapes.DURATION);
+        }
+        return result;
+    }
+
+    /**
+     * Moves every source forward within a batch, the dependents perform a single "resolution" on commit.
+     */
+    @Benchmark
+    public boolean rescheduleInBatch(){
+        offset += step;
+        PropagationEngine.beginBatch();
+        for(ActivityTask task : sources){
+            task.setTime(offset,offset + GraphShapes.DURATION);
+        }
+        return PropagationEngine.commit();
+    }
+}
@@ -0,0 +1,53 @@
+package com.core.benchmarks;
+
+import com.core.model.impl.adjustable.adjuster.api.AdjusterType;
+import com.core.model.impl.adjustable.dependent.states.DependencyState;
+import com.core.model.impl.adjustable.dependent.states.impl.RangeState;
+import com.core.model.impl.table.StateTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the creation of a large number of states : as rows of a State Table against as Range State(s).
+ *<p></p>
+ * Run it with the GC profiler to compare the bytes allocated by state.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StateTableBenchmark {
+
+    @Param({"100000","1000000"})
+    public int size;
+
+    @Benchmark
+    public StateTable fillTable(){
+        StateTable table = new StateTable(size);
+        for(int i = 0; i < size; i++){
+            table.add(i * GraphShapes.SLOT,i * GraphShapes.SLOT + GraphShapes.DURATION,false);
+        }
+        return table;
+    }
+
+    @Benchmark
+    public DependencyState[] fillRangeStates(){
+        DependencyState[] states = new DependencyState[size];
+        for(int i = 0; i < size; i++){
+            states[i] = RangeState.getDefinedRange(i * GraphShapes.SLOT,i * GraphShapes.SLOT + GraphShapes.DURATION,AdjusterType.DYNAMIC.newAdjuster());
+        }
+        return states;
+    }
+}
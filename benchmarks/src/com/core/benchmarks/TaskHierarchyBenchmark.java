@@ -0,0 +1,79 @@
+package com.core.benchmarks;
+
+import com.core.model.impl.adjustable.dependent.exc.StateException;
+import com.core.tasks.ActivityTask;
+import com.core.tasks.ParentActivityTask;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Parent Activity Task hierarchies : building a tree through addSubActivityTask,
+ * and a leaf range variation bubbling up to the root through the Exact Side Constraint(s) of each level.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput,Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5,time = 1)
+@Measurement(iterations = 5,time = 1)
+@Fork(1)
+public class TaskHierarchyBenchmark {
+
+    @Param({"2","4","6"})
+    public int depth;
+
+    @Param({"4"})
+    public int breadth;
+
+    @Param({"STATIC","DYNAMIC","FAIL"})
+    public AdjusterKind kind;
+
+    private ActivityTask[] leaves;
+
+    private ActivityTask leaf;
+
+    private long farStart;
+
+    private boolean moved;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws StateException {
+        leaves = new ActivityTask[GraphShapes.leafCount(depth,breadth)];
+        GraphShapes.parentTree(depth,breadth,kind,leaves);
+        leaf = leaves[0];
+        farStart = (leaves.length + 1) * GraphShapes.SLOT;
+        moved = false;
+    }
+
+    /**
+     * Builds a whole tree.
+     */
+    @Benchmark
+    public ParentActivityTask buildTree() throws StateException {
+        return GraphShapes.parentTree(depth,breadth,kind,new ActivityTask[leaves.length]);
+    }
+
+    /**
+     * Moves the first leaf between its original slot and one past all the other leaves,
+     * so each move changes both the start and the end of every ancestor.
+     */
+    @Benchmark
+    public boolean moveLeaf(){
+        moved = !moved;
+        if(moved){
+            return leaf.setTime(farStart,farStart + GraphShapes.DURATION);
+        }
+        return leaf.setTime(1,1 + GraphShapes.DURATION);
+    }
+}
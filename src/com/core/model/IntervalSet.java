@@ -0,0 +1,347 @@
+package com.core.model;
+
+import com.core.model.impl.Side;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * IntervalSet abstracts a union of one dimensional time intervals, kept ordered by their start-time and "normalized",
+ * overlapping or contiguous intervals (range 1.end >= range 2.start) are merged into a single one.
+ *<p></p>
+ * The intervals are packed into a single array of parameters (start ; end ; start ; end ...),
+ * so a membership test costs a logarithmic time and the set operations a linear time on the number of intervals.
+ *<p></p>
+ * IntervalSet is an immutable object, as its elements {@link TimeRange}.
+ */
+public final class IntervalSet implements Serializable {
+
+    private long[] bounds;
+
+    public static final IntervalSet EMPTY = new IntervalSet(new long[0]);
+
+    public static final IntervalSet UNDEF_INTERVAL_SET = of(TimeRange.UNDEF_TIME_RANGE);
+
+    private IntervalSet(){
+    }
+
+    private IntervalSet(long[] bounds){
+        this.bounds = bounds;
+    }
+
+
+    /**
+     * Creates a new set made of a single interval.
+     * @param start start parameter.
+     * @param end end parameter.
+     * @return the interval set.
+     * @throws IllegalArgumentException if end < start;
+     */
+    public static IntervalSet of(long start,long end){
+        if(end < start){
+            throw new IllegalArgumentException();
+        }
+        return new IntervalSet(new long[]{start,end});
+    }
+
+    /**
+     * Creates a new set made of a single interval.
+     * @param range the interval.
+     * @return the interval set.
+     */
+    public static IntervalSet of(TimeRange range){
+        return new IntervalSet(new long[]{range.getStart(),range.getEnd()});
+    }
+
+    /**
+     * Creates a new set containing the union of the given intervals, in any order.
+     * @param ranges the intervals, it is not modified.
+     * @return the interval set.
+     */
+    public static IntervalSet of(TimeRange... ranges){
+        if(ranges.length == 0){
+            return EMPTY;
+        }
+        if(ranges.length == 1){
+            return of(ranges[0]);
+        }
+        TimeRange[] sorted = ranges.clone();
+        Arrays.sort(sorted,(TimeRange x,TimeRange y) -> Long.compare(x.getStart(),y.getStart()));
+        long[] merged = new long[sorted.length * 2];
+        int size = 0;
+        for(TimeRange range : sorted){
+            size = append(merged,size,range.getStart(),range.getEnd());
+        }
+        return new IntervalSet(trim(merged,size));
+    }
+
+
+    /**
+     * Returns the number of intervals of this set.
+     * @return the number of intervals.
+     */
+    public int size(){
+        return bounds.length / 2;
+    }
+
+    /**
+     * Test whether this set does not contain any interval.
+     * @return true if empty ; false if not.
+     */
+    public boolean isEmpty(){
+        return bounds.length == 0;
+    }
+
+    /**
+     * Get the start-time parameter of the interval at the given position.
+     * @param index position of the interval, intervals are ordered by their start-time.
+     * @return the start-time.
+     */
+    public long getStart(int index){
+        return bounds[checkIndex(index) * 2];
+    }
+
+    /**
+     * Get the end-time parameter of the interval at the given position.
+     * @param index position of the interval, intervals are ordered by their start-time.
+     * @return the end-time.
+     */
+    public long getEnd(int index){
+        return bounds[checkIndex(index) * 2 + 1];
+    }
+
+    /**
+     * Returns a side parameter of the interval at the given position.
+     * @param index position of the interval, intervals are ordered by their start-time.
+     * @param side Side enum (START : END).
+     * @return value of the given side.
+     */
+    public long getSide(int index,Side side){
+        return side == Side.START ? getStart(index) : getEnd(index);
+    }
+
+    /**
+     * Get the lowest parameter contained in this set.
+     * @return the start-time of the first interval.
+     * @throws NoSuchElementException if the set is empty.
+     */
+    public long getStart(){
+        checkNotEmpty();
+        return bounds[0];
+    }
+
+    /**
+     * Get the greatest parameter contained in this set.
+     * @return the end-time of the last interval.
+     * @throws NoSuchElementException if the set is empty.
+     */
+    public long getEnd(){
+        checkNotEmpty();
+        return bounds[bounds.length - 1];
+    }
+
+    /**
+     * Returns the interval at the given position.
+     * @param index position of the interval, intervals are ordered by their start-time.
+     * @return the interval.
+     */
+    public TimeRange getRange(int index){
+        return new TimeRange(getStart(index),getEnd(index));
+    }
+
+    /**
+     * Returns the intervals of this set.
+     * @return array of intervals ordered by their start-time.
+     */
+    public TimeRange[] toRanges(){
+        TimeRange[] ranges = new TimeRange[size()];
+        for(int i = 0; i < ranges.length; i++){
+            ranges[i] = new TimeRange(bounds[i * 2],bounds[i * 2 + 1]);
+        }
+        return ranges;
+    }
+
+
+    /**
+     * Tests whether the given parameter is contained in one of the intervals of this set, sides included.
+     * @param n the parameter to test.
+     * @return true if contained ; false if not.
+     */
+    public boolean contains(long n){
+        int index = floorIndex(n);
+        return index >= 0 && n <= bounds[index * 2 + 1];
+    }
+
+    /**
+     * Returns the position of the interval containing the given parameter.
+     * @param n the parameter.
+     * @return the position of the interval ; -1 if no interval contains it.
+     */
+    public int indexOf(long n){
+        int index = floorIndex(n);
+        if(index >= 0 && n <= bounds[index * 2 + 1]){
+            return index;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the nearest parameter contained in this set equal or greater than the given one.
+     * @param n the parameter.
+     * @return n if it is contained ; the start of the first interval after it otherwise.
+     * @throws NoSuchElementException if no interval contains or follows the given parameter.
+     */
+    public long ceiling(long n){
+        int index = floorIndex(n);
+        if(index >= 0 && n <= bounds[index * 2 + 1]){
+            return n;
+        }
+        if(index + 1 >= size()){
+            throw new NoSuchElementException();
+        }
+        return bounds[(index + 1) * 2];
+    }
+
+    /**
+     * Returns the nearest parameter contained in this set equal or lower than the given one.
+     * @param n the parameter.
+     * @return n if it is contained ; the end of the last interval before it otherwise.
+     * @throws NoSuchElementException if no interval contains or precedes the given parameter.
+     */
+    public long floor(long n){
+        int index = floorIndex(n);
+        if(index < 0){
+            throw new NoSuchElementException();
+        }
+        return Math.min(n,bounds[index * 2 + 1]);
+    }
+
+
+    /**
+     * Returns the union of this set and the given one.
+     * @param other the other set.
+     * @return a set containing the parameters contained in at least one of the two sets.
+     */
+    public IntervalSet union(IntervalSet other){
+        if(other.isEmpty()){
+            return this;
+        }
+        if(isEmpty()){
+            return other;
+        }
+        long[] merged = new long[bounds.length + other.bounds.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while(i < bounds.length || j < other.bounds.length){
+            if(j >= other.bounds.length || (i < bounds.length && bounds[i] <= other.bounds[j])){
+                size = append(merged,size,bounds[i],bounds[i + 1]);
+                i += 2;
+            }else {
+                size = append(merged,size,other.bounds[j],other.bounds[j + 1]);
+                j += 2;
+            }
+        }
+        return new IntervalSet(trim(merged,size));
+    }
+
+    /**
+     * Returns the intersection of this set and the given one.
+     * @param other the other set.
+     * @return a set containing the parameters contained in both sets.
+     */
+    public IntervalSet intersection(IntervalSet other){
+        if(isEmpty() || other.isEmpty()){
+            return EMPTY;
+        }
+        long[] result = new long[bounds.length + other.bounds.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while(i < bounds.length && j < other.bounds.length){
+            long start = Math.max(bounds[i],other.bounds[j]);
+            long end = Math.min(bounds[i + 1],other.bounds[j + 1]);
+            if(start <= end){
+                result[size++] = start;
+                result[size++] = end;
+            }
+            if(bounds[i + 1] < other.bounds[j + 1]){
+                i += 2;
+            }else {
+                j += 2;
+            }
+        }
+        return new IntervalSet(trim(result,size));
+    }
+
+
+    /**
+     * Returns the position of the last interval whose start-time is equal or lower than the given parameter.
+     * @param n the parameter.
+     * @return the position of the interval ; -1 if all intervals start after it.
+     */
+    private int floorIndex(long n){
+        int low = 0;
+        int high = size() - 1;
+        while(low <= high){
+            int mid = (low + high) >>> 1;
+            if(bounds[mid * 2] <= n){
+                low = mid + 1;
+            }else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    /**
+     * Appends an interval to a packed array of ordered intervals, merging it with the last one if they overlap.
+     * The given interval must not start before the last one.
+     * @return the new number of parameters of the array.
+     */
+    private static int append(long[] bounds,int size,long start,long end){
+        if(size > 0 && start <= bounds[size - 1]){
+            bounds[size - 1] = Math.max(bounds[size - 1],end);
+            return size;
+        }
+        bounds[size] = start;
+        bounds[size + 1] = end;
+        return size + 2;
+    }
+
+    private static long[] trim(long[] bounds,int size){
+        return size == bounds.length ? bounds : Arrays.copyOf(bounds,size);
+    }
+
+    private int checkIndex(int index){
+        if(index < 0 || index >= size()){
+            throw new IndexOutOfBoundsException("Interval " + index + " of " + size());
+        }
+        return index;
+    }
+
+    private void checkNotEmpty(){
+        if(isEmpty()){
+            throw new NoSuchElementException();
+        }
+    }
+
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return Arrays.equals(bounds,((IntervalSet) o).bounds);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(bounds);
+    }
+
+    @Override
+    public String toString() {
+        return "IntervalSet" + Arrays.toString(toRanges());
+    }
+}
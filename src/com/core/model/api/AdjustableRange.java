@@ -1,5 +1,6 @@
 package com.core.model.api;
 
+import com.core.model.IntervalSet;
 import com.core.model.TimeRange;
 
 
@@ -23,6 +24,16 @@ public interface AdjustableRange {
      */
     public TimeRange adjust(TimeRange[] startValidationRange,TimeRange[] endValidationRange);
 
+    /**
+     * Performs a "resolution" process as {@link #adjust(TimeRange[], TimeRange[])}, with the constraint ranges given as ordered and merged intervals.
+     * @param startValidationSet The start side constraint ranges in which the bound range has to be consistent with.
+     * @param endValidationSet The end side constraint ranges in which the bound range has to be consistent with.
+     * @return Start ; End parameters supposed to replace the state involved in the resolution process ; null if the "resolution" process fails.
+     */
+    public default TimeRange adjust(IntervalSet startValidationSet,IntervalSet endValidationSet){
+        return adjust(startValidationSet.toRanges(),endValidationSet.toRanges());
+    }
+
 
     /**
      * Sets a constraint range of a specific side between (start ; end) with a given range parameter.
@@ -1,5 +1,6 @@
 package com.core.model.api;
 
+import com.core.model.IntervalSet;
 import com.core.model.TimeRange;
 
 /**
@@ -20,4 +21,20 @@ public interface BoundedRange{
      * @return
      */
     public TimeRange[] getEndSideValidationRanges();
+
+    /**
+     * Returns the start side intervals allowed, ordered and merged.
+     * @return the start side intervals as {@code IntervalSet}.
+     */
+    public default IntervalSet getStartSideValidationSet(){
+        return IntervalSet.of(getStartSideValidationRanges());
+    }
+
+    /**
+     * Returns the end side intervals allowed, ordered and merged.
+     * @return the end side intervals as {@code IntervalSet}.
+     */
+    public default IntervalSet getEndSideValidationSet(){
+        return IntervalSet.of(getEndSideValidationRanges());
+    }
 }
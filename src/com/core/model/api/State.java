@@ -1,6 +1,7 @@
 package com.core.model.api;
 
 import com.core.model.TimeRange;
+import com.core.model.impl.Side;
 
 /**
  * A state represents a generic condition that assumes a value between true and false in during a precise interval of time, when its condition is true the state will be considered "active".
@@ -25,6 +26,31 @@ public interface State{
      */
     public TimeRange getRange();
 
+    /**
+     * Gets the start-time of the state interval, without producing its {@code TimeRange}.
+     * @return start-time value.
+     */
+    public default long getStart(){
+        return getRange().getStart();
+    }
+
+    /**
+     * Gets the end-time of the state interval, without producing its {@code TimeRange}.
+     * @return end-time value.
+     */
+    public default long getEnd(){
+        return getRange().getEnd();
+    }
+
+    /**
+     * Gets the value of the given side of the state interval, without producing its {@code TimeRange}.
+     * @param side the side to read.
+     * @return the side value.
+     */
+    public default long getSide(Side side){
+        return side == Side.START ? getStart() : getEnd();
+    }
+
     /**
      * Test whether this State is considered "Undefined" or not.
      * @return true if this state is "Undefined"; false if not.
@@ -14,10 +14,28 @@ public interface StateObserver {
      */
     public void onStateChanged(boolean value);
 
+    /**
+     * This method is invoked whenever a State "active" property is mutated, along with the State mutated.
+     * By default it is delegated to {@link #onStateChanged(boolean)}.
+     * @param value true if State is "active"; false if it is no longer considered "active".
+     * @param state the State whose "active" property is mutated.
+     */
+    public default void onStateChanged(boolean value, State state){
+        onStateChanged(value);
+    }
+
     /**
      * This method is invoked whenever a State time-range is changed.
      * @param timeRange
      * @return true if the Listener implementation has successfully done its adjustment according to time-range passed; false if not.
      */
     public boolean onRangeChanged(TimeRange timeRange, State state);
+
+    /**
+     * This method is invoked whenever a State time-range is changed, on every Listener before any of them receives {@link #onRangeChanged(TimeRange, State)}.
+     * It allows a Listener to discard what it derived from the previous time-range, before other Listeners react to the variation.
+     * @param state the State whose time-range is changed.
+     */
+    public default void onRangeInvalidated(State state){
+    }
 }
@@ -2,8 +2,8 @@ package com.core.model.impl;
 
 import com.core.model.api.BoundedRange;
 import com.core.model.api.AdjustableRange;
+import com.core.model.IntervalSet;
 import com.core.model.TimeRange;
-import com.core.util.Constraints;
 
 /**
  * A Bound state extends the properties of a mutable state. A Bound State's sides (start ; end) are constrained to a certain interval of times,
@@ -70,6 +70,16 @@ public abstract class BoundState extends MutableState implements AdjustableRange
             public TimeRange[] getEndSideValidationRanges() {
                 return new TimeRange[]{TimeRange.UNDEF_TIME_RANGE};
             }
+
+            @Override
+            public IntervalSet getStartSideValidationSet() {
+                return IntervalSet.UNDEF_INTERVAL_SET;
+            }
+
+            @Override
+            public IntervalSet getEndSideValidationSet() {
+                return IntervalSet.UNDEF_INTERVAL_SET;
+            }
         };
     }
 
@@ -81,8 +91,8 @@ public abstract class BoundState extends MutableState implements AdjustableRange
      */
     private boolean validateConstraint(long start,long end){
         return (
-                Constraints.anyMatch(start,boundedRange.getStartSideValidationRanges()) &&
-                Constraints.anyMatch(end,boundedRange.getEndSideValidationRanges())
+                boundedRange.getStartSideValidationSet().contains(start) &&
+                boundedRange.getEndSideValidationSet().contains(end)
         );
     }
 
@@ -92,6 +102,17 @@ public abstract class BoundState extends MutableState implements AdjustableRange
     public abstract TimeRange adjust(TimeRange[] validationRange,TimeRange[] endValidationRange);
 
 
+    @Override
+    protected Runnable saveState(){
+        Runnable restoreState = super.saveState();
+        BoundedRange savedBoundedRange = boundedRange;
+        return () -> {
+            restoreState.run();
+            boundedRange = savedBoundedRange;
+        };
+    }
+
+
     /**
      * Returns the current BoundRange
      * @return
@@ -117,13 +138,19 @@ public abstract class BoundState extends MutableState implements AdjustableRange
             return false;
         }
 
-        TimeRange toAdjustStateRange = adjust(boundedRange.getStartSideValidationRanges(),boundedRange.getEndSideValidationRanges());
+        TimeRange toAdjustStateRange = adjust(boundedRange.getStartSideValidationSet(),boundedRange.getEndSideValidationSet());
 
         if(toAdjustStateRange != null){
-            this.boundedRange = boundedRange;
-            setValidationFlag(false);
-            setTime(toAdjustStateRange.getStart(),toAdjustStateRange.getEnd());
-            setValidationFlag(true);
+            Snapshot.beginWrite();
+            try {
+                journal();
+                this.boundedRange = boundedRange;
+                setValidationFlag(false);
+                setTime(toAdjustStateRange.getStart(),toAdjustStateRange.getEnd());
+                setValidationFlag(true);
+            }finally {
+                Snapshot.endWrite();
+            }
             result = true;
         }else{
             result = false;
@@ -0,0 +1,26 @@
+package com.core.model.impl;
+
+import java.util.List;
+
+/**
+ * A Commit Listener receives the State(s) changed by each {@link Snapshot} "write", as they are committed.
+ *<p></p>
+ * {@link #onCommit(long, List)} is invoked while the commit holds the lock serializing the commits, so the "write(s)" are received in the order of their versions
+ * and the State(s) still have the values committed, it has to be fast and must not throw.
+ * {@link #afterCommit(long)} is invoked afterwards by the same thread, once the lock is released, e.g. to wait until the "write" is stored.
+ */
+public interface CommitListener {
+
+    /**
+     * Receives the State(s) changed by a "write" being committed.
+     * @param version the version committed.
+     * @param changed the State(s) changed, in the order of their first change, it must not be kept.
+     */
+    void onCommit(long version, List<FixedState> changed);
+
+    /**
+     * Invoked by the thread committing a "write", once the commit is done.
+     * @param version the version committed.
+     */
+    void afterCommit(long version);
+}
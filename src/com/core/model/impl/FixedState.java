@@ -3,6 +3,9 @@ package com.core.model.impl;
 import com.core.model.api.MutableState;
 import com.core.model.api.State;
 import com.core.model.TimeRange;
+import com.core.model.impl.adjustable.dependent.states.PropagationEngine;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
 /**
@@ -18,18 +21,42 @@ import java.io.Serializable;
  * The responsibility to best emulate the time dynamics is given to the user, by assigning the to State condition the proper value at the right moment
  * depending by user current time and by the State interval parameters it describes.
  * <p></p>
+ * Note on visibility : the range and the condition value are published safely to any thread,
+ * a range is replaced as a whole, so the sides read from a single {@link #getRange()} always belong to the same range.
+ * The values of many States, as they were at the same moment, are read through a {@link Snapshot}.
+ * <p></p>
  */
 public class FixedState implements MutableState,Comparable<State>, Serializable {
 
     public Long id;
 
-    private boolean state = false;
+    private volatile boolean state = false;
 
     private boolean isUndefined;
 
-    protected TimeRange stateRange;
+    protected volatile TimeRange stateRange;
+
+    protected volatile boolean extinct;
+
+    /**
+     * The committed versions of this State, newest first, see {@link Snapshot}.
+     */
+    private transient volatile StateVersion versions;
 
-    protected boolean extinct;
+    /**
+     * The "write" this State is registered in, if any.
+     */
+    private transient Object versionMark;
+
+    /**
+     * The version this State has been created at, see {@link Snapshot}.
+     */
+    private transient volatile long created;
+
+    /**
+     * The store keeping the committed values of this State, if any, see {@link MappedStateStore}.
+     */
+    private transient volatile MappedStateStore store;
 
     protected FixedState(){
     }
@@ -45,6 +72,8 @@ public class FixedState implements MutableState,Comparable<State>, Serializable
         }
         this.stateRange = range;
         this.isUndefined = isUndefined;
+        PropagationEngine.onCreated(this);
+        Snapshot.onCreated(this);
     }
 
 
@@ -64,12 +93,18 @@ public class FixedState implements MutableState,Comparable<State>, Serializable
         if(getStateValue() == value){
             return false;
         }
-        if(value){
-            state = true;
-            extinct = true;
-        }
-        if(!value){
-            state = false;
+        Snapshot.beginWrite();
+        try {
+            journal();
+            if(value){
+                state = true;
+                extinct = true;
+            }
+            if(!value){
+                state = false;
+            }
+        }finally {
+            Snapshot.endWrite();
         }
         return true;
     }
@@ -89,9 +124,17 @@ public class FixedState implements MutableState,Comparable<State>, Serializable
 
     @Override
     public TimeRange getRange() {
-        TimeRange range;
-        range = new TimeRange(stateRange.getStart(),stateRange.getEnd());
-        return range;
+        return stateRange;
+    }
+
+    @Override
+    public long getStart() {
+        return stateRange.getStart();
+    }
+
+    @Override
+    public long getEnd() {
+        return stateRange.getEnd();
     }
 
     /**
@@ -99,8 +142,9 @@ public class FixedState implements MutableState,Comparable<State>, Serializable
      * @return duration value.
      */
     public long getDuration(){
-        long start = stateRange.getStart();
-        long end = stateRange.getEnd();
+        TimeRange range = stateRange;
+        long start = range.getStart();
+        long end = range.getEnd();
         if(!(start == Long.MAX_VALUE | end == Long.MAX_VALUE)){
             return end - start;
         }
@@ -118,6 +162,92 @@ public class FixedState implements MutableState,Comparable<State>, Serializable
     }
 
 
+    /**
+     * Saves the current values of this State if it is the first change within the batch in progress, in order to restore them on rollback,
+     * and registers the State in the {@link Snapshot} "write" in progress.
+     * It has to be invoked before any variation of the State, within a {@link Snapshot} "write".
+     */
+    protected final void journal(){
+        Snapshot.onChange(this);
+        if(PropagationEngine.isFirstChange(this)){
+            PropagationEngine.onRollback(saveState());
+        }
+    }
+
+    /**
+     * Returns an action restoring the current values of this State, subclasses have to extend it with their own values.
+     * @return the restore action.
+     */
+    protected Runnable saveState(){
+        TimeRange savedRange = stateRange;
+        boolean savedValue = state;
+        boolean savedExtinct = extinct;
+        return () -> {
+            stateRange = savedRange;
+            state = savedValue;
+            extinct = savedExtinct;
+        };
+    }
+
+
+    /**
+     * Restores the values of this State, see {@link Snapshot#restore(FixedState, TimeRange, boolean, boolean)}.
+     */
+    void restore(TimeRange range, boolean value, boolean extinct){
+        boolean changed = state != value;
+        journal();
+        stateRange = range;
+        state = value;
+        this.extinct = extinct;
+        onRestored(changed);
+    }
+
+    /**
+     * Invoked once the values of this State are restored from a stored form, subclasses can tell their observers.
+     * @param valueChanged whether the condition value is changed.
+     */
+    protected void onRestored(boolean valueChanged){
+    }
+
+
+    StateVersion getVersions(){
+        return versions;
+    }
+
+    void setVersions(StateVersion versions){
+        this.versions = versions;
+    }
+
+    long getCreated(){
+        return created;
+    }
+
+    void setCreated(long created){
+        this.created = created;
+    }
+
+    Object getVersionMark(){
+        return versionMark;
+    }
+
+    void setVersionMark(Object versionMark){
+        this.versionMark = versionMark;
+    }
+
+    MappedStateStore getStore(){
+        return store;
+    }
+
+    void setStore(MappedStateStore store){
+        this.store = store;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        Snapshot.onCreated(this);
+    }
+
+
     @Override
     public int compareTo(State o) {
         return this.getRange().compareTo(o.getRange());
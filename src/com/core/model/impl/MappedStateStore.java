@@ -0,0 +1,480 @@
+package com.core.model.impl;
+
+import com.core.model.TimeRange;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32C;
+
+/**
+ * A Mapped State Store keeps the committed range and condition flags of the Fixed State(s) bound to it in a memory-mapped file,
+ * as fixed-width records addressed by the State {@link FixedState#id}, so a restarted process reads them at once, without deserializing anything,
+ * while the operating system page cache keeps them resident.
+ *<p></p>
+ * A State bound to the store keeps its values in its own fields : each {@link Snapshot} commit writes the values committed to the record of the State,
+ * in the order of the commits, so the file never holds the values of a "write" in progress or rolled back.
+ * The records can be read by identifier from any thread, without locking, and the objects created again on restart take back their values through {@link #attach(FixedState)}.
+ *<p></p>
+ * Each record holds a sequence number, odd while the record is being written, its flags (present ; "active" ; "extinct" ; "undefined"),
+ * its start, its end and a CRC-32C checksum of them. The file is mapped by segments, a segment is added once an identifier exceeds the ones mapped.
+ *<p></p>
+ * Note on recovery :
+ *<p></p>
+ * [The file header tells whether the store has been closed cleanly. Otherwise, on open, every record is checked :
+ * a record written partially, or whose checksum or values are not consistent, is cleared, and its identifier is reported by {@link #getDamaged()}.
+ * The records are forced to the storage by {@link #force()} and {@link #close()}, the ones written later may be lost by a crash of the operating system.]
+ */
+public final class MappedStateStore implements Closeable {
+
+    private static final int MAGIC = 0x5354534d;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int HEADER_SIZE = 64;
+
+    private static final int RECORD_SIZE = 32;
+
+    private static final int SEGMENT_SHIFT = 16;
+
+    private static final int SEGMENT_RECORDS = 1 << SEGMENT_SHIFT;
+
+    private static final long SEGMENT_SIZE = (long) SEGMENT_RECORDS * RECORD_SIZE;
+
+    private static final int CLEAN_OFFSET = 12, NEXT_ID_OFFSET = 16;
+
+    private static final int SEQUENCE = 0, FLAGS = 4, START = 8, END = 16, CHECKSUM = 24;
+
+    private static final int PRESENT = 1, ACTIVE = 1 << 1, EXTINCT = 1 << 2, UNDEFINED = 1 << 3;
+
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class,ByteOrder.LITTLE_ENDIAN);
+
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class,ByteOrder.LITTLE_ENDIAN);
+
+    private final FileChannel channel;
+
+    private final FileLock fileLock;
+
+    private final MappedByteBuffer header;
+
+    private volatile MappedByteBuffer[] segments;
+
+    private final List<Long> damaged;
+
+    private final boolean recovered;
+
+    private final CRC32C crc = new CRC32C();
+
+    private final ByteBuffer checked = ByteBuffer.allocate(CHECKSUM - FLAGS).order(ByteOrder.LITTLE_ENDIAN);
+
+    private volatile boolean closed;
+
+    private MappedStateStore(FileChannel channel, FileLock fileLock, MappedByteBuffer header, MappedByteBuffer[] segments, List<Long> damaged, boolean recovered){
+        this.channel = channel;
+        this.fileLock = fileLock;
+        this.header = header;
+        this.segments = segments;
+        this.damaged = damaged;
+        this.recovered = recovered;
+    }
+
+
+    /**
+     * Opens the store kept by the given file, creating it if missing.
+     * If the store has not been closed cleanly, every record is checked and the damaged ones are cleared.
+     * @param file the store file.
+     * @return the store, to be closed once no longer used.
+     * @throws IOException if an I/O error occurs ; if the file is not a store ; if the store is open by another process.
+     */
+    public static MappedStateStore open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file,StandardOpenOption.CREATE,StandardOpenOption.READ,StandardOpenOption.WRITE);
+        try {
+            FileLock fileLock = channel.tryLock();
+            if(fileLock == null){
+                throw new IOException("The store is open by another process : " + file);
+            }
+            boolean created = channel.size() == 0;
+            if(!created && channel.size() < HEADER_SIZE){
+                throw new StreamCorruptedException("Not a state store : " + file);
+            }
+            MappedByteBuffer header = map(channel,0,HEADER_SIZE);
+            if(created){
+                header.putInt(0,MAGIC);
+                header.putInt(4,FORMAT_VERSION);
+                header.putInt(8,RECORD_SIZE);
+                header.putInt(CLEAN_OFFSET,1);
+                header.putLong(NEXT_ID_OFFSET,0);
+            }else if(header.getInt(0) != MAGIC || header.getInt(4) != FORMAT_VERSION || header.getInt(8) != RECORD_SIZE){
+                throw new StreamCorruptedException("Not a state store : " + file);
+            }
+            int count = (int) ((channel.size() - HEADER_SIZE + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+            MappedByteBuffer[] segments = new MappedByteBuffer[count];
+            for(int i = 0; i < count; i++){
+                segments[i] = map(channel,HEADER_SIZE + i * SEGMENT_SIZE,SEGMENT_SIZE);
+            }
+            boolean recovered = header.getInt(CLEAN_OFFSET) == 0;
+            List<Long> damaged = recovered ? recover(segments) : Collections.emptyList();
+            header.putInt(CLEAN_OFFSET,0);
+            header.force();
+            return new MappedStateStore(channel,fileLock,header,segments,damaged,recovered);
+        }catch (IOException | RuntimeException e){
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE,position,size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    /**
+     * Checks every record, clearing the ones written partially or not consistent.
+     * @return the identifiers of the records cleared.
+     */
+    private static List<Long> recover(MappedByteBuffer[] segments){
+        List<Long> damaged = new ArrayList<>();
+        CRC32C crc = new CRC32C();
+        for(int segment = 0; segment < segments.length; segment++){
+            MappedByteBuffer buffer = segments[segment];
+            for(int record = 0; record < SEGMENT_RECORDS; record++){
+                int offset = record * RECORD_SIZE;
+                int sequence = buffer.getInt(offset + SEQUENCE);
+                if(sequence == 0){
+                    continue;
+                }
+                int flags = buffer.getInt(offset + FLAGS);
+                long start = buffer.getLong(offset + START);
+                long end = buffer.getLong(offset + END);
+                boolean consistent = (sequence & 1) == 0 && (flags & ~(PRESENT | ACTIVE | EXTINCT | UNDEFINED)) == 0
+                        && ((flags & ACTIVE) == 0 || (flags & EXTINCT) != 0)
+                        && ((flags & PRESENT) == 0 || end >= start)
+                        && buffer.getInt(offset + CHECKSUM) == checksum(crc,buffer.slice(offset + FLAGS,CHECKSUM - FLAGS));
+                if(!consistent){
+                    damaged.add(((long) segment << SEGMENT_SHIFT) + record);
+                    for(int i = 0; i < RECORD_SIZE; i += 8){
+                        buffer.putLong(offset + i,0);
+                    }
+                }
+            }
+            if(!damaged.isEmpty()){
+                buffer.force();
+            }
+        }
+        return Collections.unmodifiableList(damaged);
+    }
+
+    private static int checksum(CRC32C crc, ByteBuffer bytes){
+        crc.reset();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+
+    /**
+     * Binds the given State to this store : its last committed values are stored at once, then along with each commit.
+     * A State without identifier is assigned the next one not used.
+     * The identifier of the State must not change while it is bound.
+     * @param state the State to bind.
+     * @return the identifier of the State.
+     * @throws IllegalStateException if the State is bound to another store ; if this store is closed.
+     * @throws IllegalArgumentException if the identifier of the State is negative.
+     */
+    public long bind(FixedState state){
+        synchronized (this){
+            checkOpen();
+            MappedStateStore bound = state.getStore();
+            if(bound != null && bound != this){
+                throw new IllegalStateException("The State is bound to another store");
+            }
+            if(state.id == null){
+                state.id = header.getLong(NEXT_ID_OFFSET);
+            }else if(state.id < 0){
+                throw new IllegalArgumentException("Negative identifier : " + state.id);
+            }
+            ensure(state.id);
+            if(state.id >= header.getLong(NEXT_ID_OFFSET)){
+                header.putLong(NEXT_ID_OFFSET,state.id + 1);
+            }
+        }
+        Snapshot.bind(state,this);
+        return state.id;
+    }
+
+    /**
+     * Restores the values stored for the given State, through {@link Snapshot#restore(FixedState, TimeRange, boolean, boolean)}, then binds it to this store.
+     * The "undefined" flag is not restored.
+     * @param state the State to attach, identified by its {@link FixedState#id}.
+     * @return true if the State has been restored ; false if nothing is stored for it.
+     * @throws IllegalStateException if the State is bound to another store ; if this store is closed.
+     */
+    public boolean attach(FixedState state){
+        checkOpen();
+        Long id = state.id;
+        if(id == null || !contains(id)){
+            return false;
+        }
+        MappedByteBuffer segment = segment(id);
+        int offset = offset(id);
+        TimeRange range;
+        int flags;
+        while (true){
+            int sequence = (int) INT.getAcquire(segment,offset + SEQUENCE);
+            if((sequence & 1) == 0){
+                flags = segment.getInt(offset + FLAGS);
+                range = new TimeRange(segment.getLong(offset + START),segment.getLong(offset + END));
+                VarHandle.loadLoadFence();
+                if((int) INT.getOpaque(segment,offset + SEQUENCE) == sequence){
+                    break;
+                }
+            }
+            Thread.onSpinWait();
+        }
+        if(state.getStore() != null && state.getStore() != this){
+            throw new IllegalStateException("The State is bound to another store");
+        }
+        Snapshot.restore(state,range,(flags & ACTIVE) != 0,(flags & EXTINCT) != 0);
+        bind(state);
+        return true;
+    }
+
+    /**
+     * Unbinds the given State from this store and clears its record.
+     * @param state the State to unbind.
+     * @return true if the State was bound to this store ; false if not.
+     */
+    public boolean unbind(FixedState state){
+        if(state.getStore() != this){
+            return false;
+        }
+        Snapshot.bind(state,null);
+        synchronized (this){
+            if(!closed){
+                write(state.id,0,0,0);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tests whether values are stored for the given identifier.
+     * @param id the State identifier.
+     * @return true if a State with the given identifier has been stored ; false if not.
+     */
+    public boolean contains(long id){
+        return flags(id) != 0;
+    }
+
+    /**
+     * Returns the range stored for the given identifier, its sides are always read from the same commit.
+     * @param id the State identifier.
+     * @return the range stored.
+     * @throws NoSuchElementException if nothing is stored for the identifier.
+     */
+    public TimeRange getRange(long id){
+        MappedByteBuffer segment = segment(id);
+        int offset = offset(id);
+        while (true){
+            int sequence = segment == null ? 0 : (int) INT.getAcquire(segment,offset + SEQUENCE);
+            if(sequence == 0){
+                throw new NoSuchElementException("No State stored with id " + id);
+            }
+            if((sequence & 1) == 0){
+                int flags = segment.getInt(offset + FLAGS);
+                long start = segment.getLong(offset + START);
+                long end = segment.getLong(offset + END);
+                VarHandle.loadLoadFence();
+                if((int) INT.getOpaque(segment,offset + SEQUENCE) == sequence){
+                    if(flags == 0){
+                        throw new NoSuchElementException("No State stored with id " + id);
+                    }
+                    return new TimeRange(start,end);
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    public long getStart(long id){
+        return readLong(id,START);
+    }
+
+    public long getEnd(long id){
+        return readLong(id,END);
+    }
+
+    public boolean getStateValue(long id){
+        return (presentFlags(id) & ACTIVE) != 0;
+    }
+
+    public boolean isExtinct(long id){
+        return (presentFlags(id) & EXTINCT) != 0;
+    }
+
+    public boolean isUndefined(long id){
+        return (presentFlags(id) & UNDEFINED) != 0;
+    }
+
+    /**
+     * @return the next identifier assigned by {@link #bind(FixedState)}, greater than every identifier stored.
+     */
+    public long getNextId(){
+        return (long) LONG.getAcquire(header,NEXT_ID_OFFSET);
+    }
+
+    /**
+     * @return true if the store had not been closed cleanly, and its records have been checked on open.
+     */
+    public boolean isRecovered(){
+        return recovered;
+    }
+
+    /**
+     * @return the identifiers of the records cleared by the check on open, since written partially or not consistent.
+     */
+    public List<Long> getDamaged(){
+        return damaged;
+    }
+
+    /**
+     * Forces the records written so far to the storage.
+     */
+    public void force(){
+        for(MappedByteBuffer segment : segments){
+            segment.force();
+        }
+        header.force();
+    }
+
+    /**
+     * Forces the records to the storage and marks the store as closed cleanly.
+     * The values committed afterwards by the States still bound are no longer stored.
+     * @throws IOException if an I/O error occurs.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this){
+            if(closed){
+                return;
+            }
+            closed = true;
+        }
+        try {
+            for(MappedByteBuffer segment : segments){
+                segment.force();
+            }
+            header.putInt(CLEAN_OFFSET,1);
+            header.force();
+        }finally {
+            try {
+                fileLock.release();
+            }finally {
+                channel.close();
+            }
+        }
+    }
+
+
+    /**
+     * Stores the values committed for a State bound to this store, invoked by the commit holding the lock of the {@link Snapshot} commits.
+     */
+    void write(Long id, TimeRange range, boolean value, boolean extinct, boolean undefined){
+        synchronized (this){
+            if(closed){
+                return;
+            }
+            int flags = PRESENT | (value ? ACTIVE : 0) | (extinct ? EXTINCT : 0) | (undefined ? UNDEFINED : 0);
+            write(id,flags,range.getStart(),range.getEnd());
+        }
+    }
+
+    private void write(long id, int flags, long start, long end){
+        checked.clear();
+        checked.putInt(flags).putLong(start).putLong(end).flip();
+        int checksum = checksum(crc,checked);
+        MappedByteBuffer segment = segment(id);
+        int offset = offset(id);
+        int sequence = segment.getInt(offset + SEQUENCE);
+        INT.setOpaque(segment,offset + SEQUENCE,sequence + 1);
+        VarHandle.storeStoreFence();
+        segment.putInt(offset + FLAGS,flags);
+        segment.putLong(offset + START,start);
+        segment.putLong(offset + END,end);
+        segment.putInt(offset + CHECKSUM,checksum);
+        INT.setRelease(segment,offset + SEQUENCE,sequence + 2 == 0 ? 2 : sequence + 2);
+    }
+
+    /**
+     * Maps the segments up to the one holding the given identifier.
+     */
+    private void ensure(long id){
+        long count = (id >>> SEGMENT_SHIFT) + 1;
+        if(count <= segments.length){
+            return;
+        }
+        if(count > Integer.MAX_VALUE){
+            throw new IllegalArgumentException("Identifier too large : " + id);
+        }
+        MappedByteBuffer[] grown = Arrays.copyOf(segments,(int) count);
+        try {
+            for(int i = segments.length; i < grown.length; i++){
+                grown[i] = map(channel,HEADER_SIZE + i * SEGMENT_SIZE,SEGMENT_SIZE);
+            }
+        }catch (IOException e){
+            throw new IllegalStateException("The store can not be extended",e);
+        }
+        segments = grown;
+    }
+
+    private MappedByteBuffer segment(long id){
+        MappedByteBuffer[] mapped = segments;
+        long segment = id >>> SEGMENT_SHIFT;
+        return id < 0 || segment >= mapped.length ? null : mapped[(int) segment];
+    }
+
+    private static int offset(long id){
+        return (int) (id & (SEGMENT_RECORDS - 1)) * RECORD_SIZE;
+    }
+
+    private int flags(long id){
+        MappedByteBuffer segment = segment(id);
+        return segment == null ? 0 : (int) INT.getAcquire(segment,offset(id) + FLAGS);
+    }
+
+    private int presentFlags(long id){
+        int flags = flags(id);
+        if(flags == 0){
+            throw new NoSuchElementException("No State stored with id " + id);
+        }
+        return flags;
+    }
+
+    private long readLong(long id, int field){
+        MappedByteBuffer segment = segment(id);
+        if(segment == null || (int) INT.getAcquire(segment,offset(id) + FLAGS) == 0){
+            throw new NoSuchElementException("No State stored with id " + id);
+        }
+        return (long) LONG.getOpaque(segment,offset(id) + field);
+    }
+
+    private void checkOpen(){
+        if(closed){
+            throw new IllegalStateException("The store is closed");
+        }
+    }
+}
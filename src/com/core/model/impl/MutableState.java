@@ -3,9 +3,10 @@ package com.core.model.impl;
 import com.core.model.TimeRange;
 import com.core.model.api.ObservableState;
 import com.core.model.api.StateObserver;
+import com.core.model.impl.adjustable.dependent.states.PropagationEngine;
 
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -46,8 +47,14 @@ public class MutableState extends FixedState implements ObservableState {
         if(isExtinct()){
             return false;
         }
-        stateRange = new TimeRange(start,end);
-        notifyRangeChange();
+        Snapshot.beginWrite();
+        try {
+            journal();
+            stateRange = new TimeRange(start,end);
+            notifyRangeChange();
+        }finally {
+            Snapshot.endWrite();
+        }
         return true;
     }
 
@@ -55,17 +62,23 @@ public class MutableState extends FixedState implements ObservableState {
 
     @Override
     public boolean setStateValue(boolean value) {
-        boolean operation = super.setStateValue(value);
-        if(operation){
-            notifyStateChange(value);
+        Snapshot.beginWrite();
+        try {
+            boolean operation = super.setStateValue(value);
+            if(operation){
+                notifyStateChange(value);
+            }
+            return operation;
+        }finally {
+            Snapshot.endWrite();
         }
-        return operation;
     }
 
 
 
     @Override
     public void addStateObserver(StateObserver listener) {
+        journalObservers();
         stateObserverListeners.add(listener);
     }
 
@@ -73,6 +86,7 @@ public class MutableState extends FixedState implements ObservableState {
 
     @Override
     public void removeStateObserver(StateObserver listener) {
+        journalObservers();
         stateObserverListeners.remove(listener);
     }
 
@@ -83,20 +97,68 @@ public class MutableState extends FixedState implements ObservableState {
      * @param value The new boolean value taken by the state condition.
      */
     private void notifyStateChange(boolean value){
-        Iterator<StateObserver> iterator =  stateObserverListeners.iterator();
-        while (iterator.hasNext()){
-            iterator.next().onStateChanged(value);
-        }
+        PropagationEngine.notifyStateChange(value,this,stateObserverListeners);
     }
 
 
     /**
      * Sends a notification event when the state range is changed.
+     * The delivery to the observers is given to the Propagation Engine, according to the Propagation Mode in use.
      */
     private void notifyRangeChange(){
-        Iterator<StateObserver> iterator =  stateObserverListeners.iterator();
-           while (iterator.hasNext()){
-               iterator.next().onRangeChanged(stateRange,this);
-           }
+        PropagationEngine.notifyRangeChange(stateRange,this,stateObserverListeners);
+    }
+
+
+    /**
+     * Once the range is restored the observers are told it is invalidated.
+     */
+    @Override
+    protected Runnable saveState(){
+        Runnable restoreState = super.saveState();
+        return () -> {
+            restoreState.run();
+            invalidateObservers();
+        };
+    }
+
+    /**
+     * Once the values are restored the observers are told the range is invalidated, and the condition value changed if so.
+     */
+    @Override
+    protected void onRestored(boolean valueChanged){
+        invalidateObservers();
+        if(valueChanged){
+            notifyStateChange(getStateValue());
+        }
+    }
+
+    /**
+     * Saves the observers subscribed if it is the first subscription change within the batch in progress, in order to restore them on rollback.
+     */
+    private void journalObservers(){
+        if(PropagationEngine.isFirstChange(stateObserverListeners)){
+            List<StateObserver> savedObservers = new ArrayList<>(stateObserverListeners);
+            PropagationEngine.onRollback(() -> {
+                stateObserverListeners.clear();
+                stateObserverListeners.addAll(savedObservers);
+                invalidateObservers();
+            });
+        }
+    }
+
+    private void invalidateObservers(){
+        for(StateObserver observer : stateObserverListeners){
+            observer.onRangeInvalidated(this);
+        }
+    }
+
+
+    /**
+     * Returns the observers currently subscribed to this State.
+     * @return read-only list of observers.
+     */
+    protected List<StateObserver> getStateObservers(){
+        return Collections.unmodifiableList(stateObserverListeners);
     }
 }
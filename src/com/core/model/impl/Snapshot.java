@@ -0,0 +1,470 @@
+package com.core.model.impl;
+
+import com.core.model.TimeRange;
+import com.core.model.api.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A Snapshot is an immutable view of the ranges and the condition values of the State(s), as they were at a given version.
+ *<p></p>
+ * Each State keeps its committed versions, newest first. A "write" - a mutation along with the propagation it causes,
+ * a task of a Component Executor, or a whole batch - is committed at once, appending a version to each State it changed and then advancing the current version,
+ * so a Snapshot never observes a write in progress nor a part of it.
+ * The State(s) not changed are not copied : taking a Snapshot only registers the current version, and reading a State walks back its own versions, both without locking.
+ *<p></p>
+ * The versions preceding the one visible at the oldest Snapshot open are discarded, so a Snapshot has to be closed once read.
+ *<p></p>
+ * Note on versioned State(s) :
+ *<p></p>
+ * [Only the Fixed State(s) and their subclasses are versioned. Their values are committed by the "write" in progress on the thread changing them,
+ * see {@link #beginWrite()}. A State is read from its own values until it is changed while versions are kept, a State just created is not committed.]
+ *<p></p>
+ * Note on "tracking" :
+ *<p></p>
+ * [Versions are kept, and "write(s)" committed under a lock, only while a Snapshot is open, a commit listener is set or a State is bound to a store.
+ * Otherwise a "write" neither locks nor copies anything : the "write(s)" begun untracked are awaited before the first Snapshot is taken,
+ * except the one of the thread taking it, which the Snapshot may observe.]
+ *<p></p>
+ * Note on commit listener :
+ *<p></p>
+ * [The State(s) changed by each "write" can be received as they are committed, e.g. to store them, see {@link #setCommitListener(CommitListener)}.
+ * The values committed by the State(s) bound to a {@link MappedStateStore} are written to their records along with the commit.]
+ */
+public final class Snapshot implements AutoCloseable {
+
+    private static final Object LOCK = new Object();
+
+    /**
+     * The last version committed.
+     */
+    private static volatile long clock;
+
+    /**
+     * The versions of the Snapshot(s) open, along with their count.
+     */
+    private static final ConcurrentSkipListMap<Long,Integer> OPEN = new ConcurrentSkipListMap<>();
+
+    private static final ThreadLocal<Write> WRITE = new ThreadLocal<>();
+
+    private static volatile CommitListener listener;
+
+    /**
+     * The Snapshot(s) open, the commit listener and the stores bound, any of them requiring the "write(s)" to be tracked.
+     */
+    private static final AtomicInteger TRACKERS = new AtomicInteger();
+
+    /**
+     * The "write(s)" in progress begun untracked.
+     */
+    private static final AtomicInteger UNTRACKED = new AtomicInteger();
+
+    /**
+     * Held to await the "write(s)" begun untracked, signalled each time one of them ends while tracking is required.
+     */
+    private static final ReentrantLock UNTRACKED_LOCK = new ReentrantLock();
+
+    private static final Condition UNTRACKED_ENDED = UNTRACKED_LOCK.newCondition();
+
+    private final long version;
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private Snapshot(long version){
+        this.version = version;
+    }
+
+    /**
+     * Takes a Snapshot of the current version, without locking.
+     * The "write(s)" begun untracked by the other threads, if any, are awaited first.
+     *<p></p>
+     * The version is registered as open and then checked to be still the current one, otherwise it is taken again :
+     * a commit always keeps the versions visible at the previous one, so they are not discarded before the registration is seen.
+     * @return the Snapshot, to be closed once read.
+     */
+    public static Snapshot take(){
+        track();
+        while (true){
+            long version = clock;
+            OPEN.merge(version,1,Integer::sum);
+            if(clock == version){
+                return new Snapshot(version);
+            }
+            release(version);
+        }
+    }
+
+    /**
+     * @return the version this Snapshot reads.
+     */
+    public long getVersion(){
+        return version;
+    }
+
+    /**
+     * Tests whether the given State is part of this Snapshot.
+     * @param state the State to test.
+     * @return true if the State existed at the version of this Snapshot ; false if it has been created later or it is not versioned.
+     * @throws IllegalStateException if this Snapshot is closed.
+     */
+    public boolean contains(State state){
+        return find(state) != null;
+    }
+
+    /**
+     * Returns the range the given State had at the version of this Snapshot.
+     * @param state the State to read.
+     * @return the range of the State.
+     * @throws NoSuchElementException if the State is not part of this Snapshot.
+     * @throws IllegalStateException if this Snapshot is closed.
+     */
+    public TimeRange getRange(State state){
+        return get(state).range;
+    }
+
+    /**
+     * Returns the condition value the given State had at the version of this Snapshot.
+     * @param state the State to read.
+     * @return the condition value of the State.
+     * @throws NoSuchElementException if the State is not part of this Snapshot.
+     * @throws IllegalStateException if this Snapshot is closed.
+     */
+    public boolean getStateValue(State state){
+        return get(state).value;
+    }
+
+    /**
+     * Tests whether the given State was "extinct" at the version of this Snapshot.
+     * @param state the State to read.
+     * @return true if the State was "extinct" ; false if not.
+     * @throws NoSuchElementException if the State is not part of this Snapshot.
+     * @throws IllegalStateException if this Snapshot is closed.
+     */
+    public boolean isExtinct(State state){
+        return get(state).extinct;
+    }
+
+    /**
+     * Closes this Snapshot, so the versions only it could read can be discarded.
+     */
+    @Override
+    public void close(){
+        if(closed.compareAndSet(false,true)){
+            release(version);
+            untrack();
+        }
+    }
+
+    /**
+     * Requires the "write(s)" to be tracked, waiting for the ones begun untracked by the other threads.
+     */
+    private static void track(){
+        TRACKERS.incrementAndGet();
+        Write write = WRITE.get();
+        int own = write != null && !write.tracked ? 1 : 0;
+        if(UNTRACKED.get() <= own){
+            return;
+        }
+        UNTRACKED_LOCK.lock();
+        try {
+            while (UNTRACKED.get() > own){
+                UNTRACKED_ENDED.awaitUninterruptibly();
+            }
+        }finally {
+            UNTRACKED_LOCK.unlock();
+        }
+    }
+
+    /**
+     * Ends a "write" begun untracked, or backs out of one counted while tracking became required,
+     * signalling the threads awaiting it if tracking is required meanwhile.
+     * The count is decremented before the trackers are read, and read again by a waiter under the lock, so no signal is missed.
+     */
+    private static void exit(){
+        UNTRACKED.decrementAndGet();
+        if(TRACKERS.get() > 0){
+            UNTRACKED_LOCK.lock();
+            try {
+                UNTRACKED_ENDED.signalAll();
+            }finally {
+                UNTRACKED_LOCK.unlock();
+            }
+        }
+    }
+
+    private static void untrack(){
+        TRACKERS.decrementAndGet();
+    }
+
+    private static void release(long version){
+        OPEN.computeIfPresent(version,(open,count) -> count > 1 ? count - 1 : null);
+    }
+
+    private StateVersion get(State state){
+        StateVersion found = find(state);
+        if(found == null){
+            throw new NoSuchElementException("The State is not part of the snapshot");
+        }
+        return found;
+    }
+
+    private StateVersion find(State state){
+        if(closed.get()){
+            throw new IllegalStateException("The snapshot is closed");
+        }
+        if(!(state instanceof FixedState)){
+            return null;
+        }
+        FixedState fixedState = (FixedState) state;
+        StateVersion versions = fixedState.getVersions();
+        if(versions == null){
+            long created = fixedState.getCreated();
+            if(created > version){
+                return null;
+            }
+            // Not changed since versions are kept : its own values are the committed ones, unless a "write" begins meanwhile.
+            StateVersion current = new StateVersion(created,fixedState.getRange(),fixedState.getStateValue(),fixedState.isExtinct(),null);
+            versions = fixedState.getVersions();
+            if(versions == null){
+                return current;
+            }
+        }
+        return versions.at(version);
+    }
+
+
+    /**
+     * Begins a "write" on the current thread, the "write(s)" begun meanwhile are part of it.
+     * Each invocation has to be followed by {@link #endWrite()}.
+     */
+    public static void beginWrite(){
+        Write write = WRITE.get();
+        if(write == null){
+            write = new Write(enter());
+            WRITE.set(write);
+        }
+        write.depth++;
+    }
+
+    /**
+     * @return true if the "write" begun is tracked ; false if it is counted as untracked.
+     */
+    private static boolean enter(){
+        if(TRACKERS.get() > 0){
+            return true;
+        }
+        UNTRACKED.incrementAndGet();
+        if(TRACKERS.get() == 0){
+            return false;
+        }
+        exit();
+        return true;
+    }
+
+    /**
+     * Ends the "write" begun on the current thread, once the outermost one ends the State(s) changed are committed at once.
+     */
+    public static void endWrite(){
+        Write write = WRITE.get();
+        if(--write.depth == 0){
+            WRITE.remove();
+            if(write.tracked){
+                commit(write);
+            }else {
+                exit();
+            }
+        }
+    }
+
+    /**
+     * Registers a Fixed State going to change in the "write" in progress on the current thread,
+     * keeping its current values as a version if it has none, so the Snapshot(s) open do not observe the change in progress.
+     * <p></p>
+     * A change made outside a "write" is only visible to the Snapshot(s) once the State is changed again within one.
+     * @param state the State going to change.
+     */
+    static void onChange(FixedState state){
+        Write write = WRITE.get();
+        if(write == null ? TRACKERS.get() == 0 : !write.tracked){
+            // Untracked : the versions kept, if any, are no longer the current values.
+            if(state.getVersions() != null){
+                state.setVersions(null);
+            }
+            return;
+        }
+        if(write != null && state.getVersionMark() == write){
+            return;
+        }
+        if(state.getVersions() == null){
+            state.setVersions(new StateVersion(state.getCreated(),state.getRange(),state.getStateValue(),state.isExtinct(),null));
+        }
+        if(write != null){
+            state.setVersionMark(write);
+            write.changed.add(state);
+        }
+    }
+
+    /**
+     * Registers a Fixed State just created : nothing is committed, the State is read from its own values until it is changed.
+     * A State created within a tracked "write" is part of the Snapshot(s) of the version committing it, the other ones of the current version.
+     * @param state the State created.
+     */
+    static void onCreated(FixedState state){
+        Write write = WRITE.get();
+        if(write == null || !write.tracked){
+            state.setCreated(clock);
+            return;
+        }
+        state.setCreated(Long.MAX_VALUE);
+        state.setVersionMark(write);
+        write.created.add(state);
+        if(listener != null){
+            write.changed.add(state);
+        }
+    }
+
+    /**
+     * Sets the Commit Listener receiving the State(s) changed by each "write".
+     * @param commitListener the listener, null to remove it.
+     */
+    public static void setCommitListener(CommitListener commitListener){
+        if(commitListener != null){
+            track();
+        }
+        CommitListener previous;
+        synchronized (LOCK){
+            previous = listener;
+            listener = commitListener;
+        }
+        if(previous != null){
+            untrack();
+        }
+    }
+
+    /**
+     * @return the Commit Listener in use, null if none.
+     */
+    public static CommitListener getCommitListener(){
+        return listener;
+    }
+
+    /**
+     * Restores the values of the given State as they have been committed and stored, without any variation notified :
+     * the observers subscribed are only told the range is invalidated, and the condition value changed if so.
+     * The State is changed within the "write" in progress on the current thread, as any other variation.
+     * @param state the State to restore.
+     * @param range the range stored.
+     * @param value the condition value stored.
+     * @param extinct whether the State was "extinct".
+     */
+    public static void restore(FixedState state, TimeRange range, boolean value, boolean extinct){
+        beginWrite();
+        try {
+            state.restore(range,value,extinct);
+        }finally {
+            endWrite();
+        }
+    }
+
+    /**
+     * Binds the given State to a Mapped State Store, or unbinds it, while holding the lock of the commits :
+     * the values of its last commit are stored at once, and no later commit is missed.
+     * @param state the State to bind.
+     * @param store the store, null to unbind the State.
+     */
+    static void bind(FixedState state, MappedStateStore store){
+        if(store != null){
+            track();
+        }
+        MappedStateStore previous;
+        synchronized (LOCK){
+            previous = state.getStore();
+            state.setStore(store);
+            if(store != null){
+                StateVersion head = state.getVersions();
+                if(head != null){
+                    store.write(state.id,head.range,head.value,head.extinct,state.isUndefined());
+                }else {
+                    store.write(state.id,state.getRange(),state.getStateValue(),state.isExtinct(),state.isUndefined());
+                }
+            }
+        }
+        if(previous != null){
+            untrack();
+        }
+    }
+
+    private static void commit(Write write){
+        List<FixedState> changed = write.changed;
+        if(changed.isEmpty() && write.created.isEmpty()){
+            return;
+        }
+        CommitListener commitListener;
+        long committed;
+        synchronized (LOCK){
+            long version = clock + 1;
+            Map.Entry<Long,Integer> open = OPEN.firstEntry();
+            long oldest = open == null ? version - 1 : Math.min(open.getKey(),version - 1);
+            for(FixedState state : write.created){
+                state.setVersionMark(null);
+                state.setCreated(version);
+            }
+            for(FixedState state : changed){
+                state.setVersionMark(null);
+                StateVersion head = state.getVersions();
+                if(head == null){
+                    // Created by this "write" : read from its own values.
+                    continue;
+                }
+                TimeRange range = state.getRange();
+                boolean value = state.getStateValue();
+                boolean extinct = state.isExtinct();
+                if(!head.matches(range,value,extinct)){
+                    head = new StateVersion(version,range,value,extinct,head);
+                    state.setVersions(head);
+                }
+                head.prune(oldest);
+                MappedStateStore store = state.getStore();
+                if(store != null){
+                    store.write(state.id,range,value,extinct,state.isUndefined());
+                }
+            }
+            clock = version;
+            commitListener = changed.isEmpty() ? null : listener;
+            if(commitListener != null){
+                commitListener.onCommit(version,changed);
+            }
+            committed = version;
+        }
+        if(commitListener != null){
+            commitListener.afterCommit(committed);
+        }
+    }
+
+
+    /**
+     * The "write" in progress on a thread : its depth, whether it is tracked, and the State(s) it changed or created.
+     */
+    private static final class Write {
+
+        private final boolean tracked;
+
+        private final List<FixedState> changed = new ArrayList<>();
+
+        private final List<FixedState> created = new ArrayList<>();
+
+        private int depth;
+
+        private Write(boolean tracked){
+            this.tracked = tracked;
+        }
+    }
+}
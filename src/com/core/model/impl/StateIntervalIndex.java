@@ -0,0 +1,401 @@
+package com.core.model.impl;
+
+import com.core.model.TimeRange;
+import com.core.model.api.ObservableState;
+import com.core.model.api.State;
+import com.core.model.api.StateObserver;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * A State Interval Index answers time-window queries over the State(s) registered to it : the ones overlapping a window, the ones in progress at a time,
+ * the ones contained in a window and the ones containing it, without visiting every State.
+ *<p></p>
+ * The ranges are kept in a balanced search tree ordered by start (a treap), each node also keeping the greatest and the lowest end of its subtree :
+ * a query reaches its first result in a logarithmic time, then walks the results by start, skipping every subtree whose ends can not satisfy it.
+ * The index is kept current by observing the State(s) registered, see {@link StateObserver#onRangeChanged(TimeRange, State)}, each variation costs a logarithmic time.
+ *<p></p>
+ * The ranges are intervals including their sides, as {@link com.core.model.IntervalSet} does.
+ *<p></p>
+ * Note on concurrency :
+ *<p></p>
+ * [The tree is never changed in place : a variation copies the path it changes and publishes a new root, so each query walks the version of the index
+ * current when it has been issued, without locking, and its results can be streamed while the State(s) keep changing. The variations are performed one at a time.]
+ *<p></p>
+ * Note on notifications :
+ *<p></p>
+ * [A range variation reaches the index as it reaches any other observer : within a batch once the batch is committed, through the Notification Dispatcher in use.
+ * The index takes the range of the State when notified, so it converges to the last range even if the notifications are delivered out of order.
+ * A State registered within a batch which is rolled back, or restored from a stored form, has to be registered again or refreshed, see {@link #refresh(State)}.]
+ */
+public final class StateIntervalIndex {
+
+    private final Object lock = new Object();
+
+    /**
+     * Looked up by equality : the views of a {@link com.core.model.impl.table.StateTable} notify through a new instance each time.
+     */
+    private final Map<State,Node> nodes = new HashMap<>();
+
+    private final SplittableRandom random = new SplittableRandom();
+
+    private final StateObserver observer = new IndexObserver();
+
+    private volatile Node root;
+
+    private long sequence;
+
+
+    /**
+     * Registers the given State, its range is indexed and kept current until it is unregistered.
+     * @param state the State to register.
+     * @return true if the State has been registered ; false if it is registered already.
+     */
+    public <S extends State & ObservableState> boolean register(S state){
+        synchronized (lock){
+            if(nodes.containsKey(state)){
+                return false;
+            }
+            nodes.put(state,null);
+        }
+        // The observer is subscribed before the range is read, so no variation is lost in between.
+        state.addStateObserver(observer);
+        refresh(state);
+        return true;
+    }
+
+    /**
+     * Unregisters the given State, its range is no longer indexed.
+     * @param state the State to unregister.
+     * @return true if the State has been unregistered ; false if it is not registered.
+     */
+    public <S extends State & ObservableState> boolean unregister(S state){
+        synchronized (lock){
+            if(!nodes.containsKey(state)){
+                return false;
+            }
+            Node node = nodes.remove(state);
+            if(node != null){
+                root = delete(root,node);
+            }
+        }
+        state.removeStateObserver(observer);
+        return true;
+    }
+
+    /**
+     * Indexes again the current range of the given State, whose range has been changed without any notification.
+     * @param state a State registered.
+     * @return true if the range indexed is changed ; false if not, or, the State is not registered.
+     */
+    public boolean refresh(State state){
+        synchronized (lock){
+            if(!nodes.containsKey(state)){
+                return false;
+            }
+            TimeRange range = state.getRange();
+            Node node = nodes.get(state);
+            if(node != null && node.start == range.getStart() && node.end == range.getEnd()){
+                return false;
+            }
+            Node updated = new Node(state,range.getStart(),range.getEnd(),++sequence,random.nextInt(),null,null);
+            Node tree = node == null ? root : delete(root,node);
+            root = insert(tree,updated);
+            nodes.put(state,updated);
+            return true;
+        }
+    }
+
+    /**
+     * Tests whether the given State is registered.
+     * @param state the State to test.
+     * @return true if registered.
+     */
+    public boolean contains(State state){
+        synchronized (lock){
+            return nodes.containsKey(state);
+        }
+    }
+
+    /**
+     * @return the number of State(s) registered.
+     */
+    public int size(){
+        synchronized (lock){
+            return nodes.size();
+        }
+    }
+
+
+    /**
+     * Returns the State(s) overlapping the given window : starting before its end, and ending after its start.
+     * @param start the window start.
+     * @param end the window end.
+     * @return the results, by start.
+     * @throws IllegalArgumentException if end < start;
+     */
+    public Iterator<State> overlapping(long start, long end){
+        checkWindow(start,end);
+        return new Results(root,Long.MIN_VALUE,end,start,Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns the State(s) in progress at the given time.
+     * @param time the time.
+     * @return the results, by start.
+     */
+    public Iterator<State> at(long time){
+        return new Results(root,Long.MIN_VALUE,time,time,Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns the State(s) contained in the given window.
+     * @param start the window start.
+     * @param end the window end.
+     * @return the results, by start.
+     * @throws IllegalArgumentException if end < start;
+     */
+    public Iterator<State> within(long start, long end){
+        checkWindow(start,end);
+        return new Results(root,start,end,Long.MIN_VALUE,end);
+    }
+
+    /**
+     * Returns the State(s) containing the given window.
+     * @param start the window start.
+     * @param end the window end.
+     * @return the results, by start.
+     * @throws IllegalArgumentException if end < start;
+     */
+    public Iterator<State> containing(long start, long end){
+        checkWindow(start,end);
+        return new Results(root,Long.MIN_VALUE,start,end,Long.MAX_VALUE);
+    }
+
+    /**
+     * Collects the remaining results of a query.
+     * @param results the results of a query.
+     * @return the results, in the order given.
+     */
+    public static List<State> toList(Iterator<State> results){
+        List<State> list = new ArrayList<>();
+        results.forEachRemaining(list::add);
+        return list;
+    }
+
+    private static void checkWindow(long start, long end){
+        if(end < start){
+            throw new IllegalArgumentException();
+        }
+    }
+
+
+    private static Node insert(Node tree, Node node){
+        if(tree == null){
+            return node;
+        }
+        if(node.priority > tree.priority){
+            Node[] parts = split(tree,node);
+            return node.with(parts[0],parts[1]);
+        }
+        if(node.compareTo(tree) < 0){
+            return tree.with(insert(tree.left,node),tree.right);
+        }
+        return tree.with(tree.left,insert(tree.right,node));
+    }
+
+    /**
+     * Splits a tree in the nodes lower than the given key and the nodes greater than it.
+     */
+    private static Node[] split(Node tree, Node key){
+        if(tree == null){
+            return new Node[2];
+        }
+        if(tree.compareTo(key) < 0){
+            Node[] parts = split(tree.right,key);
+            parts[0] = tree.with(tree.left,parts[0]);
+            return parts;
+        }
+        Node[] parts = split(tree.left,key);
+        parts[1] = tree.with(parts[1],tree.right);
+        return parts;
+    }
+
+    /**
+     * Removes the node having the key of the given one : the nodes are copied along the paths changed, so the node indexed may not be the one in the tree.
+     */
+    private static Node delete(Node tree, Node node){
+        if(tree == null){
+            return null;
+        }
+        int comparison = node.compareTo(tree);
+        if(comparison == 0){
+            return merge(tree.left,tree.right);
+        }
+        if(comparison < 0){
+            return tree.with(delete(tree.left,node),tree.right);
+        }
+        return tree.with(tree.left,delete(tree.right,node));
+    }
+
+    /**
+     * Merges two trees, every node of the first one being lower than every node of the second one.
+     */
+    private static Node merge(Node lower, Node greater){
+        if(lower == null){
+            return greater;
+        }
+        if(greater == null){
+            return lower;
+        }
+        if(lower.priority > greater.priority){
+            return lower.with(lower.left,merge(lower.right,greater));
+        }
+        return greater.with(merge(lower,greater.left),greater.right);
+    }
+
+
+    /**
+     * A node of the tree, ordered by start, then by end, then by insertion.
+     */
+    private static final class Node implements Comparable<Node> {
+
+        private final State state;
+
+        private final long start, end, sequence;
+
+        private final int priority;
+
+        private final Node left, right;
+
+        /**
+         * The greatest and the lowest end of the subtree.
+         */
+        private final long maxEnd, minEnd;
+
+        private Node(State state, long start, long end, long sequence, int priority, Node left, Node right){
+            this.state = state;
+            this.start = start;
+            this.end = end;
+            this.sequence = sequence;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            long maxEnd = end;
+            long minEnd = end;
+            if(left != null){
+                maxEnd = Math.max(maxEnd,left.maxEnd);
+                minEnd = Math.min(minEnd,left.minEnd);
+            }
+            if(right != null){
+                maxEnd = Math.max(maxEnd,right.maxEnd);
+                minEnd = Math.min(minEnd,right.minEnd);
+            }
+            this.maxEnd = maxEnd;
+            this.minEnd = minEnd;
+        }
+
+        private Node with(Node left, Node right){
+            return new Node(state,start,end,sequence,priority,left,right);
+        }
+
+        @Override
+        public int compareTo(Node o) {
+            if(start != o.start){
+                return Long.compare(start,o.start);
+            }
+            if(end != o.end){
+                return Long.compare(end,o.end);
+            }
+            return Long.compare(sequence,o.sequence);
+        }
+    }
+
+    /**
+     * The results of a query, the nodes whose start and end lie in the given bounds, walked in order through a stack of the nodes to visit.
+     */
+    private static final class Results implements Iterator<State> {
+
+        private final long minStart, maxStart, minEnd, maxEnd;
+
+        private final List<Node> stack = new ArrayList<>();
+
+        private Node next;
+
+        private Results(Node root, long minStart, long maxStart, long minEnd, long maxEnd){
+            this.minStart = minStart;
+            this.maxStart = maxStart;
+            this.minEnd = minEnd;
+            this.maxEnd = maxEnd;
+            descend(root);
+            advance();
+        }
+
+        /**
+         * Pushes the nodes from the given one to the lowest one which can satisfy the bounds.
+         */
+        private void descend(Node node){
+            while (node != null && node.maxEnd >= minEnd && node.minEnd <= maxEnd){
+                if(node.start < minStart){
+                    node = node.right;
+                }else {
+                    stack.add(node);
+                    node = node.left;
+                }
+            }
+        }
+
+        private void advance(){
+            next = null;
+            while (!stack.isEmpty()){
+                Node node = stack.remove(stack.size() - 1);
+                if(node.start > maxStart){
+                    stack.clear();
+                    return;
+                }
+                descend(node.right);
+                if(node.end >= minEnd && node.end <= maxEnd){
+                    next = node;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public State next() {
+            if(next == null){
+                throw new NoSuchElementException();
+            }
+            State state = next.state;
+            advance();
+            return state;
+        }
+    }
+
+    /**
+     * The observer subscribed to the State(s) registered.
+     */
+    private final class IndexObserver implements StateObserver {
+
+        @Override
+        public void onStateChanged(boolean value) {
+        }
+
+        @Override
+        public boolean onRangeChanged(TimeRange timeRange, State state) {
+            refresh(state);
+            return true;
+        }
+    }
+}
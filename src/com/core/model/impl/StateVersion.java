@@ -0,0 +1,58 @@
+package com.core.model.impl;
+
+import com.core.model.TimeRange;
+
+/**
+ * A committed version of the values of a Fixed State, linked to the previous one, see {@link Snapshot}.
+ */
+final class StateVersion {
+
+    final long version;
+
+    final TimeRange range;
+
+    final boolean value;
+
+    final boolean extinct;
+
+    /**
+     * The previous version, cleared once no Snapshot open can read it.
+     */
+    StateVersion previous;
+
+    StateVersion(long version, TimeRange range, boolean value, boolean extinct, StateVersion previous) {
+        this.version = version;
+        this.range = range;
+        this.value = value;
+        this.extinct = extinct;
+        this.previous = previous;
+    }
+
+    /**
+     * Returns the version visible at the given one, walking back from this version.
+     * @param version the version read.
+     * @return the latest version not newer than the given one, null if there is none.
+     */
+    StateVersion at(long version){
+        StateVersion current = this;
+        while (current != null && current.version > version){
+            current = current.previous;
+        }
+        return current;
+    }
+
+    boolean matches(TimeRange range, boolean value, boolean extinct){
+        return this.range.equals(range) && this.value == value && this.extinct == extinct;
+    }
+
+    /**
+     * Discards the versions no longer readable : the ones preceding the version visible at the oldest Snapshot open.
+     * @param oldest the version of the oldest Snapshot open, or the previous version if older.
+     */
+    void prune(long oldest){
+        StateVersion visible = at(oldest);
+        if(visible != null){
+            visible.previous = null;
+        }
+    }
+}
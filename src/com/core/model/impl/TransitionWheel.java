@@ -0,0 +1,459 @@
+package com.core.model.impl;
+
+import com.core.model.TimeRange;
+import com.core.model.api.ObservableState;
+import com.core.model.api.State;
+import com.core.model.api.StateObserver;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * The Transition Wheel assigns the condition value of the State(s) registered to it as time passes, as {@link com.core.model.api.MutableState#setStateValue(boolean)} states :
+ * a State becomes "active" (in progress) at its start, then no longer "active" (completed) at its end. A State without end, e.g. a No End State, is completed once "active",
+ * so it only has its start transition.
+ *<p></p>
+ * Time is read from the clock given, and it passes only through {@link #advance()} : every transition whose time is reached by the clock is then performed, in time order.
+ * The Transition Wheel can be advanced periodically, see {@link #drive(ScheduledExecutorService, long, TimeUnit)}, or step by step against a clock under control, e.g. in tests.
+ *<p></p>
+ * The transitions are kept in a hierarchical timer wheel, whose "tick" is the given resolution : a transition is scheduled or cancelled in a constant time,
+ * and an advance costs a time proportional to the transitions performed, not to the time passed.
+ * A transition is performed at the first "tick" reaching its time, so it is never early, and late by less than the resolution plus the period of the advances.
+ *<p></p>
+ * The transitions are kept current by observing the State(s) registered : a range variation, e.g. a setTime, or a condition value assigned by others, re-arms the next transition.
+ * A State completed has no transition left, it stays registered, idle, until it is unregistered.
+ *<p></p>
+ * Note on dependencies :
+ *<p></p>
+ * [A Dependency State refuses to become "active" while its "dependency set" does not allow it, e.g. at its start while a State it depends on through a No End Constraint is not completed.
+ * The start transitions refused are kept aside and performed again once other transitions have been performed within the same advance, and at every advance.]
+ *<p></p>
+ * Note on concurrency : the State(s) can be changed by any thread meanwhile. The advances are performed one at a time, the transitions outside any lock of the Transition Wheel.
+ */
+public final class TransitionWheel {
+
+    private static final int SLOT_BITS = 6;
+
+    private static final int SLOTS = 1 << SLOT_BITS;
+
+    private static final int LEVELS = (Long.SIZE + SLOT_BITS - 1) / SLOT_BITS;
+
+    private final LongSupplier clock;
+
+    private final long resolution;
+
+    /**
+     * The time of the "tick" zero : the transitions whose time comes before it are performed at the first advance.
+     */
+    private final long origin;
+
+    private final Object lock = new Object();
+
+    private final Object advancing = new Object();
+
+    private final Map<State,Entry> entries = new HashMap<>();
+
+    private final Slot[][] wheel = new Slot[LEVELS][SLOTS];
+
+    /**
+     * The slots having entries, one bit per slot, for each level.
+     */
+    private final long[] occupied = new long[LEVELS];
+
+    /**
+     * The entries whose time is reached, to be performed.
+     */
+    private final Slot due = new Slot(-1,-1);
+
+    /**
+     * The entries whose start transition has been refused.
+     */
+    private final Slot blocked = new Slot(-1,-1);
+
+    private final StateObserver observer = new WheelObserver();
+
+    /**
+     * The last "tick" reached.
+     */
+    private long current;
+
+
+    /**
+     * Creates a Transition Wheel reading the system time, in milliseconds.
+     * @param resolution the "tick", in milliseconds.
+     * @throws IllegalArgumentException if the resolution is not positive.
+     */
+    public TransitionWheel(long resolution){
+        this(System::currentTimeMillis,resolution);
+    }
+
+    /**
+     * Creates a Transition Wheel reading the given clock, its time being in the unit of the State(s) ranges.
+     * @param clock the clock, it must never go back.
+     * @param resolution the "tick", in the unit of the clock.
+     * @throws IllegalArgumentException if the resolution is not positive.
+     */
+    public TransitionWheel(LongSupplier clock, long resolution){
+        if(resolution <= 0){
+            throw new IllegalArgumentException();
+        }
+        this.clock = clock;
+        this.resolution = resolution;
+        this.origin = clock.getAsLong();
+        for(int level = 0; level < LEVELS; level++){
+            for(int index = 0; index < SLOTS; index++){
+                wheel[level][index] = new Slot(level,index);
+            }
+        }
+    }
+
+
+    /**
+     * Registers the given State, its transitions are performed until it is unregistered.
+     * @param state the State to register.
+     * @return true if the State has been registered ; false if it is registered already.
+     */
+    public <S extends com.core.model.api.MutableState & ObservableState> boolean register(S state){
+        Entry entry;
+        synchronized (lock){
+            if(entries.containsKey(state)){
+                return false;
+            }
+            entry = new Entry(state);
+            entries.put(state,entry);
+        }
+        // The observer is subscribed before the first transition is armed, so no variation is lost in between.
+        state.addStateObserver(observer);
+        reschedule(state);
+        return true;
+    }
+
+    /**
+     * Unregisters the given State, its pending transition is cancelled.
+     * @param state the State to unregister.
+     * @return true if the State has been unregistered ; false if it is not registered.
+     */
+    public <S extends com.core.model.api.MutableState & ObservableState> boolean unregister(S state){
+        synchronized (lock){
+            Entry entry = entries.remove(state);
+            if(entry == null){
+                return false;
+            }
+            unlink(entry);
+        }
+        state.removeStateObserver(observer);
+        return true;
+    }
+
+    /**
+     * @return the number of State(s) registered.
+     */
+    public int size(){
+        synchronized (lock){
+            return entries.size();
+        }
+    }
+
+    /**
+     * Performs every transition whose time is reached by the clock, in time order.
+     * @return the number of transitions performed.
+     */
+    public int advance(){
+        synchronized (advancing){
+            long target = clockTick();
+            int performed = 0;
+            boolean retry = true;
+            while (true){
+                List<Entry> batch = new ArrayList<>();
+                long tick;
+                synchronized (lock){
+                    if(retry){
+                        while (blocked.head != null){
+                            Entry entry = blocked.head;
+                            unlink(entry);
+                            link(entry,due);
+                        }
+                    }
+                    while (due.head == null && current < target){
+                        step(target);
+                    }
+                    while (due.head != null){
+                        Entry entry = due.head;
+                        unlink(entry);
+                        batch.add(entry);
+                    }
+                    tick = current;
+                }
+                if(batch.isEmpty()){
+                    return performed;
+                }
+                int changed = 0;
+                for(Entry entry : batch){
+                    if(perform(entry,tick)){
+                        changed++;
+                    }
+                }
+                performed += changed;
+                // A transition performed may have allowed the start of a State refused so far.
+                retry = changed > 0;
+            }
+        }
+    }
+
+    /**
+     * Advances this Transition Wheel periodically on the given executor, see {@link #advance()}.
+     * @param executor the executor.
+     * @param period the period of the advances.
+     * @param unit the unit of the period.
+     * @return the future of the periodic advances, to cancel them.
+     */
+    public ScheduledFuture<?> drive(ScheduledExecutorService executor, long period, TimeUnit unit){
+        return executor.scheduleAtFixedRate(this::advance,period,period,unit);
+    }
+
+
+    /**
+     * Performs the transition of the given entry, if still due at the given "tick", then arms the next one.
+     * @return true if the State condition value has been changed.
+     */
+    private boolean perform(Entry entry, long tick){
+        com.core.model.api.MutableState state = entry.state;
+        TimeRange range = state.getRange();
+        boolean changed = false;
+        boolean refused = false;
+        try {
+            if(state.getStateValue()){
+                if(range.getEnd() != Long.MAX_VALUE && toTick(range.getEnd()) <= tick){
+                    changed = state.setStateValue(false);
+                }
+            }else if(!state.isExtinct() && toTick(range.getStart()) <= tick){
+                changed = state.setStateValue(true);
+                refused = !changed && !state.getStateValue();
+            }
+        }finally {
+            synchronized (lock){
+                if(entries.get(state) == entry){
+                    entry.blocked = refused;
+                    schedule(entry);
+                }
+            }
+        }
+        return changed;
+    }
+
+    private void reschedule(State state){
+        synchronized (lock){
+            Entry entry = entries.get(state);
+            if(entry != null){
+                schedule(entry);
+            }
+        }
+    }
+
+    /**
+     * Arms the next transition of the given entry, according to the current condition value and range of its State.
+     */
+    private void schedule(Entry entry){
+        unlink(entry);
+        com.core.model.api.MutableState state = entry.state;
+        TimeRange range = state.getRange();
+        long time;
+        if(state.getStateValue()){
+            entry.blocked = false;
+            if(range.getEnd() == Long.MAX_VALUE){
+                return;
+            }
+            time = range.getEnd();
+        }else if(state.isExtinct()){
+            return;
+        }else {
+            time = range.getStart();
+        }
+        entry.deadline = toTick(time);
+        if(entry.deadline > current){
+            entry.blocked = false;
+        }
+        place(entry);
+    }
+
+    /**
+     * Links the given entry to the slot of its deadline : the level is given by the highest bit the deadline and the current "tick" differ in,
+     * so the entry is moved to the lower levels as the current "tick" gets closer.
+     */
+    private void place(Entry entry){
+        if(entry.deadline <= current){
+            link(entry,entry.blocked ? blocked : due);
+            return;
+        }
+        int level = (Long.SIZE - 1 - Long.numberOfLeadingZeros(entry.deadline ^ current)) / SLOT_BITS;
+        link(entry,wheel[level][slotIndex(entry.deadline,level)]);
+    }
+
+    /**
+     * Moves the current "tick" to the next one having entries to handle, but not beyond the given target, then moves the entries of the slots reached to the lower levels.
+     */
+    private void step(long target){
+        long next = nextTick();
+        if(next > target){
+            current = target;
+            return;
+        }
+        current = next;
+        for(int level = LEVELS - 1; level >= 0; level--){
+            int index = slotIndex(current,level);
+            if((occupied[level] & (1L << index)) != 0){
+                Slot slot = wheel[level][index];
+                while (slot.head != null){
+                    Entry entry = slot.head;
+                    unlink(entry);
+                    place(entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the first "tick" a slot having entries is reached at ; Long.MAX_VALUE if there are none.
+     */
+    private long nextTick(){
+        long next = Long.MAX_VALUE;
+        for(int level = 0; level < LEVELS; level++){
+            int index = slotIndex(current,level);
+            long ahead = index == SLOTS - 1 ? 0 : occupied[level] & (-1L << (index + 1));
+            if(ahead == 0){
+                continue;
+            }
+            int shift = SLOT_BITS * (level + 1);
+            long base = shift >= Long.SIZE ? 0 : (current >>> shift) << shift;
+            next = Math.min(next,base | ((long) Long.numberOfTrailingZeros(ahead) << (SLOT_BITS * level)));
+        }
+        return next;
+    }
+
+    private static int slotIndex(long tick, int level){
+        return (int) (tick >>> (SLOT_BITS * level)) & (SLOTS - 1);
+    }
+
+    /**
+     * @return the first "tick" reaching the given time.
+     */
+    private long toTick(long time){
+        if(time <= origin){
+            return 0;
+        }
+        long elapsed = time - origin;
+        if(elapsed < 0){
+            return Long.MAX_VALUE;
+        }
+        return elapsed / resolution + (elapsed % resolution == 0 ? 0 : 1);
+    }
+
+    /**
+     * @return the last "tick" reached by the clock.
+     */
+    private long clockTick(){
+        long time = clock.getAsLong();
+        if(time <= origin){
+            return 0;
+        }
+        long elapsed = time - origin;
+        return elapsed < 0 ? Long.MAX_VALUE : elapsed / resolution;
+    }
+
+    private void link(Entry entry, Slot slot){
+        entry.slot = slot;
+        entry.previous = null;
+        entry.next = slot.head;
+        if(slot.head != null){
+            slot.head.previous = entry;
+        }
+        slot.head = entry;
+        if(slot.level >= 0){
+            occupied[slot.level] |= 1L << slot.index;
+        }
+    }
+
+    private void unlink(Entry entry){
+        Slot slot = entry.slot;
+        if(slot == null){
+            return;
+        }
+        if(entry.previous != null){
+            entry.previous.next = entry.next;
+        }else {
+            slot.head = entry.next;
+        }
+        if(entry.next != null){
+            entry.next.previous = entry.previous;
+        }
+        if(slot.head == null && slot.level >= 0){
+            occupied[slot.level] &= ~(1L << slot.index);
+        }
+        entry.slot = null;
+        entry.previous = null;
+        entry.next = null;
+    }
+
+
+    /**
+     * A list of entries : a slot of the wheel, or, the entries due or refused.
+     */
+    private static final class Slot {
+
+        private final int level, index;
+
+        private Entry head;
+
+        private Slot(int level, int index){
+            this.level = level;
+            this.index = index;
+        }
+    }
+
+    /**
+     * The pending transition of a State registered.
+     */
+    private static final class Entry {
+
+        private final com.core.model.api.MutableState state;
+
+        private long deadline;
+
+        private boolean blocked;
+
+        private Slot slot;
+
+        private Entry previous, next;
+
+        private Entry(com.core.model.api.MutableState state){
+            this.state = state;
+        }
+    }
+
+    /**
+     * The observer subscribed to the State(s) registered.
+     */
+    private final class WheelObserver implements StateObserver {
+
+        @Override
+        public void onStateChanged(boolean value) {
+        }
+
+        @Override
+        public void onStateChanged(boolean value, State state) {
+            reschedule(state);
+        }
+
+        @Override
+        public boolean onRangeChanged(TimeRange timeRange, State state) {
+            reschedule(state);
+            return true;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.core.model.impl.adjustable;
 
 import com.core.model.impl.adjustable.adjuster.api.RangeAdjuster;
+import com.core.model.IntervalSet;
 import com.core.model.TimeRange;
 import com.core.model.impl.BoundState;
 
@@ -50,4 +51,15 @@ public class StateAdjuster extends BoundState {
             return adjuster.adjustTo(getRange(),startValidationRanges,endValidationRanges);
     }
 
+
+    @Override
+    public TimeRange adjust(IntervalSet startValidationSet,IntervalSet endValidationSet){
+
+            if(startValidationSet == null && endValidationSet == null){
+                return null;
+            }
+
+            return adjuster.adjustTo(getRange(),startValidationSet,endValidationSet);
+    }
+
 }
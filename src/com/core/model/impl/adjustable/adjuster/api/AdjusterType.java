@@ -0,0 +1,70 @@
+package com.core.model.impl.adjustable.adjuster.api;
+
+import com.core.model.impl.Side;
+import com.core.model.impl.adjustable.adjuster.impl.DynamicAdjuster;
+import com.core.model.impl.adjustable.adjuster.impl.FailAdjuster;
+import com.core.model.impl.adjustable.adjuster.impl.StaticAdjuster;
+
+/**
+ * Identifies the Range Adjuster implementations provided by the library, in order to store them by their ordinal instead of the instance.
+ *<p></p>
+ * FAIL stands for a Fail Adjuster which delegates start side "resolutions" to a Dynamic Adjuster.
+ */
+public enum AdjusterType {
+    STATIC,DYNAMIC,FAIL;
+
+    private static final AdjusterType[] VALUES = values();
+
+    /**
+     * Creates a new Range Adjuster instance of this type.
+     * @return the Range Adjuster implementation.
+     */
+    public RangeAdjuster newAdjuster(){
+        RangeAdjuster adjuster = null;
+        switch (this){
+            case STATIC:
+                adjuster = new StaticAdjuster();
+                break;
+            case DYNAMIC:
+                adjuster = new DynamicAdjuster();
+                break;
+            case FAIL:
+                adjuster = new FailAdjuster(Side.START,new DynamicAdjuster());
+                break;
+        }
+        return adjuster;
+    }
+
+    /**
+     * Returns the type of the given Range Adjuster, if it is one of the implementations provided by the library as created by {@link #newAdjuster()}.
+     * @param adjuster the Range Adjuster.
+     * @return the type, null if the Range Adjuster has no type.
+     */
+    public static AdjusterType typeOf(RangeAdjuster adjuster){
+        if(adjuster == null){
+            return null;
+        }
+        if(adjuster.getClass() == StaticAdjuster.class){
+            return STATIC;
+        }
+        if(adjuster.getClass() == DynamicAdjuster.class){
+            return DYNAMIC;
+        }
+        if(adjuster.getClass() == FailAdjuster.class){
+            FailAdjuster failAdjuster = (FailAdjuster) adjuster;
+            if(failAdjuster.getSide() == Side.START && typeOf(failAdjuster.getForSideAdjuster()) == DYNAMIC){
+                return FAIL;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the type with the given ordinal.
+     * @param ordinal the ordinal of the type.
+     * @return the type.
+     */
+    public static AdjusterType of(int ordinal){
+        return VALUES[ordinal];
+    }
+}
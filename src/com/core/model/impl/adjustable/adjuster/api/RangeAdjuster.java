@@ -1,5 +1,6 @@
 package com.core.model.impl.adjustable.adjuster.api;
 
+import com.core.model.IntervalSet;
 import com.core.model.TimeRange;
 import com.core.model.impl.Side;
 import com.core.util.Constraints;
@@ -31,6 +32,19 @@ public interface RangeAdjuster {
     public TimeRange adjustTo(TimeRange stateRange,TimeRange[] startValidationRanges,TimeRange[] endValidationRanges);
 
 
+    /**
+     * The "range adjuster function" with the constraint ranges given as ordered and merged intervals,
+     * implementations should override it in order to avoid the conversion to arrays of intervals.
+     * @param stateRange the state's current range.
+     * @param startValidationSet the state start side constraint ranges.
+     * @param endValidationSet the state end side constraint ranges.
+     * @return The time range supposed to replace the state current range ; null if the "resolution" fails.
+     */
+    public default TimeRange adjustTo(TimeRange stateRange,IntervalSet startValidationSet,IntervalSet endValidationSet){
+        return adjustTo(stateRange,startValidationSet.toRanges(),endValidationSet.toRanges());
+    }
+
+
     /**
      * Returns an enum representing the "resolution" type of a given parameter supposed to be the arguments of the "resolution" process.
      * @param stateRange
@@ -59,6 +73,34 @@ public interface RangeAdjuster {
 
 
 
+    /**
+     * Returns an enum representing the "resolution" type, with the constraint ranges given as ordered and merged intervals.
+     * @param stateRange
+     * @param startValidationSet
+     * @param endValidationSet
+     * @return
+     */
+    public static ResolutionType getResolutionType(TimeRange stateRange, IntervalSet startValidationSet, IntervalSet endValidationSet) {
+        boolean startInvalidLogic = Constraints.noneMatch(stateRange.getStart(), startValidationSet);
+        boolean endInvalidLogic = Constraints.noneMatch(stateRange.getEnd(), endValidationSet);
+
+        if(endValidationSet.getEnd() < startValidationSet.getStart()){
+            return ResolutionType.IMP;
+        }
+
+        if (startInvalidLogic && endInvalidLogic) {
+            return ResolutionType.ALL;
+        } else if (startInvalidLogic) {
+            return ResolutionType.START;
+        } else if (endInvalidLogic) {
+            return ResolutionType.END;
+        } else {
+            return ResolutionType.NAN;
+        }
+    }
+
+
+
     public static TimeRange[] getEligibleRanges(long param,Side side,TimeRange[] validationRanges,boolean clearRanges){
         TimeRange[] result = null;
         switch (side){
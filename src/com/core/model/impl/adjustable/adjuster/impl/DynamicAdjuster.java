@@ -1,6 +1,7 @@
 package com.core.model.impl.adjustable.adjuster.impl;
 
 import com.core.model.impl.adjustable.adjuster.api.ResolutionType;
+import com.core.model.IntervalSet;
 import com.core.model.TimeRange;
 import com.core.model.impl.Side;
 import com.core.model.impl.adjustable.adjuster.api.RangeAdjuster;
@@ -49,6 +50,13 @@ public class DynamicAdjuster implements RangeAdjuster,Serializable {
 
     @Override
     public TimeRange adjustTo(TimeRange stateRange, TimeRange[] startValidationRanges, TimeRange[] endValidationRanges) {
+        return adjustTo(stateRange,IntervalSet.of(startValidationRanges),IntervalSet.of(endValidationRanges));
+    }
+
+
+
+    @Override
+    public TimeRange adjustTo(TimeRange stateRange, IntervalSet startValidationRanges, IntervalSet endValidationRanges) {
         ResolutionType type = RangeAdjuster.getResolutionType(stateRange, startValidationRanges, endValidationRanges);
         TimeRange result = null;
         switch (type){
@@ -63,7 +71,7 @@ public class DynamicAdjuster implements RangeAdjuster,Serializable {
                 result = adjustForSideWithValidation(stateRange,Side.END,endValidationRanges,startValidationRanges);
                 break;
             case ALL:
-                result = new TimeRange(TimeRange.max(startValidationRanges).getStart(),TimeRange.min(endValidationRanges).getEnd());
+                result = new TimeRange(startValidationRanges.getStart(startValidationRanges.size() - 1),endValidationRanges.getEnd(0));
                 break;
             default:
                 break;
@@ -74,22 +82,28 @@ public class DynamicAdjuster implements RangeAdjuster,Serializable {
 
 
     public static TimeRange adjustForSide(TimeRange stateRange, Side side, TimeRange[] validationRange){
+        return adjustForSide(stateRange,side,IntervalSet.of(validationRange));
+    }
+
+
+
+    public static TimeRange adjustForSide(TimeRange stateRange, Side side, IntervalSet validationRange){
         TimeRange adjustment = null;
-        if(stateRange.getSide(side) < validationRange[0].getStart()){
-                if(TimeRange.forwardDirectionComparison(stateRange.getSide(TimeRange.getOpposite(side)),validationRange[0].getSide(side),side)){
-                    adjustment = swapRangeSides(stateRange.getSide(TimeRange.getOpposite(side)),validationRange[0],side);
+        if(stateRange.getSide(side) < validationRange.getStart(0)){
+                if(TimeRange.forwardDirectionComparison(stateRange.getSide(TimeRange.getOpposite(side)),validationRange.getSide(0,side),side)){
+                    adjustment = swapRangeSides(stateRange.getSide(TimeRange.getOpposite(side)),validationRange,side);
                 }else{
                     return StaticAdjuster.staticAdjustForSide(stateRange,validationRange,side);
                 }
         }else{
-            adjustment = swapRangeSides(stateRange.getSide(TimeRange.getOpposite(side)),validationRange[0],side);
+            adjustment = swapRangeSides(stateRange.getSide(TimeRange.getOpposite(side)),validationRange,side);
         }
         return adjustment;
     }
 
 
 
-    private TimeRange adjustForSideWithValidation(TimeRange stateRange, Side side, TimeRange[] validationRange,TimeRange[] oppositeValidationRanges){
+    private TimeRange adjustForSideWithValidation(TimeRange stateRange, Side side, IntervalSet validationRange,IntervalSet oppositeValidationRanges){
         TimeRange result = adjustForSide(stateRange,side,validationRange);
         if(result == null){
             return null;
@@ -102,14 +116,14 @@ public class DynamicAdjuster implements RangeAdjuster,Serializable {
 
 
 
-    private static TimeRange swapRangeSides(long param,TimeRange validationRange,Side side){
+    private static TimeRange swapRangeSides(long param,IntervalSet validationRange,Side side){
         TimeRange result = null;
         switch (side){
             case START:
-                result = new TimeRange(validationRange.getStart(), param);
+                result = new TimeRange(validationRange.getStart(0), param);
                 break;
             case END:
-                result = new TimeRange(param,validationRange.getEnd());
+                result = new TimeRange(param,validationRange.getEnd(0));
                 break;
         }
         return result;
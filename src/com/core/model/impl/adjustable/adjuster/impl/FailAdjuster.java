@@ -1,5 +1,6 @@
 package com.core.model.impl.adjustable.adjuster.impl;
 
+import com.core.model.IntervalSet;
 import com.core.model.TimeRange;
 import com.core.model.impl.Side;
 import com.core.model.impl.adjustable.adjuster.api.RangeAdjuster;
@@ -15,8 +16,27 @@ public class FailAdjuster implements RangeAdjuster {
         this.forSideAdjuster = forSideAdjuster;
     }
 
+    /**
+     * @return the side whose "resolutions" are delegated, null if none.
+     */
+    public Side getSide(){
+        return side;
+    }
+
+    /**
+     * @return the Range Adjuster the side "resolutions" are delegated to, null if none.
+     */
+    public RangeAdjuster getForSideAdjuster(){
+        return forSideAdjuster;
+    }
+
     @Override
     public TimeRange adjustTo(TimeRange stateRange, TimeRange[] startValidationRanges, TimeRange[] endValidationRanges) {
+        return adjustTo(stateRange,IntervalSet.of(startValidationRanges),IntervalSet.of(endValidationRanges));
+    }
+
+    @Override
+    public TimeRange adjustTo(TimeRange stateRange, IntervalSet startValidationRanges, IntervalSet endValidationRanges) {
         ResolutionType type = RangeAdjuster.getResolutionType(stateRange, startValidationRanges, endValidationRanges);
 
         if(side == null)
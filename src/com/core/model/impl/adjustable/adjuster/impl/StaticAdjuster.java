@@ -1,6 +1,7 @@
 package com.core.model.impl.adjustable.adjuster.impl;
 
 import com.core.model.impl.adjustable.adjuster.api.ResolutionType;
+import com.core.model.IntervalSet;
 import com.core.model.TimeRange;
 import com.core.model.impl.Side;
 import com.core.model.impl.adjustable.adjuster.api.RangeAdjuster;
@@ -32,6 +33,12 @@ public class StaticAdjuster implements RangeAdjuster, Serializable {
      */
     @Override
     public TimeRange adjustTo(TimeRange stateRange, TimeRange[] startValidationRanges, TimeRange[] endValidationRanges) {
+        return adjustTo(stateRange,IntervalSet.of(startValidationRanges),IntervalSet.of(endValidationRanges));
+    }
+
+
+    @Override
+    public TimeRange adjustTo(TimeRange stateRange, IntervalSet startValidationRanges, IntervalSet endValidationRanges) {
         ResolutionType type = RangeAdjuster.getResolutionType(stateRange, startValidationRanges, endValidationRanges);
         switch (type) {
             case IMP:
@@ -52,8 +59,14 @@ public class StaticAdjuster implements RangeAdjuster, Serializable {
 
 
     public static TimeRange staticAdjustForSide(TimeRange stateRange, TimeRange[] validationRange, Side side){
+        return staticAdjustForSide(stateRange,IntervalSet.of(validationRange),side);
+    }
+
+
+
+    public static TimeRange staticAdjustForSide(TimeRange stateRange, IntervalSet validationRange, Side side){
         TimeRange result = null;
-        long oppositePositionResult = validationRange[0].getSide(side) - (Side.getSideOrdinal(side) * stateRange.getDuration());
+        long oppositePositionResult = validationRange.getSide(0,side) - (Side.getSideOrdinal(side) * stateRange.getDuration());
         if(oppositePositionResult > (Long.MAX_VALUE -1)){
             return null;
         }
@@ -62,10 +75,10 @@ public class StaticAdjuster implements RangeAdjuster, Serializable {
         }
         switch (side){
             case START:
-                result = new TimeRange(validationRange[0].getStart(),oppositePositionResult);
+                result = new TimeRange(validationRange.getStart(0),oppositePositionResult);
                 break;
             case END:
-                result = new TimeRange(oppositePositionResult,validationRange[0].getEnd());
+                result = new TimeRange(oppositePositionResult,validationRange.getEnd(0));
                 break;
             default:
                 break;
@@ -75,7 +88,7 @@ public class StaticAdjuster implements RangeAdjuster, Serializable {
 
 
 
-    private TimeRange staticAdjustForSideWithValidation(TimeRange stateRange, TimeRange[] validationRange, Side side,TimeRange[] oppositeValidationRanges){
+    private TimeRange staticAdjustForSideWithValidation(TimeRange stateRange, IntervalSet validationRange, Side side,IntervalSet oppositeValidationRanges){
         TimeRange result = staticAdjustForSide(stateRange,validationRange,side);
         if(result == null){
             return null;
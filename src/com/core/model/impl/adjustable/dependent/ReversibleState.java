@@ -24,4 +24,20 @@ public interface ReversibleState {
      */
     public State getRight();
 
+    /**
+     * Tells whether the current State has a 'right' side, without producing it.
+     * @return true if {@link #getRight()} does not return null.
+     */
+    public default boolean hasRight(){
+        return getRight() != null;
+    }
+
+    /**
+     * Gets the start of the 'right' side, the moment the current State becomes "extinct", without producing it.
+     * @return the start of the 'right' side ; only meaningful if {@link #hasRight()} is true.
+     */
+    public default long getRightStart(){
+        return getRight().getStart();
+    }
+
 }
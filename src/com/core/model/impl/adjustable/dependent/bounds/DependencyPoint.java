@@ -1,14 +1,19 @@
 package com.core.model.impl.adjustable.dependent.bounds;
 
 import com.core.model.impl.adjustable.dependent.constraint.ConstraintException;
+import com.core.model.impl.adjustable.dependent.constraint.api.AggregateConstraint;
+import com.core.model.impl.adjustable.dependent.constraint.api.ConjunctiveConstraint;
 import com.core.model.impl.adjustable.dependent.constraint.api.Constraint;
 import com.core.model.impl.adjustable.dependent.exc.DependencyException;
 import com.core.model.impl.adjustable.dependent.exc.NotSupportedDependency;
 import com.core.model.api.State;
+import com.core.model.IntervalSet;
 import com.core.model.TimeRange;
 import com.core.util.States;
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 /**
@@ -28,6 +33,24 @@ import java.util.Set;
  *<p></p>
  * [For each variation of State range contained in the "dependency set" will invalidate the "constraint range" a recalculation of the same is needed.
  * responsibility to perform this operation is left to the user.]
+ *<p></p>
+ * Note on "constraint range" caching :
+ *<p></p>
+ * [The "constraint range" is resolved once and kept until the dependency point is invalidated, each invalidation increments the point version.
+ * Adding or removing a dependency invalidates the point by itself, a variation of a dependency range or value has to be signaled through {@link #invalidate()},
+ * a State Dependency Point does it through its side observer.
+ * A dependency is considered "unobserved" from its insertion until the user declares that its variations are signaled, see {@link #setObserved(State, boolean)},
+ * the "constraint range" is not cached while the "dependency set" contains any "unobserved" element.]
+ *<p></p>
+ * Note on Aggregate Constraint(s) :
+ *<p></p>
+ * [When the "constraint function" is an Aggregate Constraint, the "dependency set" is also kept ordered by the constraint key,
+ * so a variation of one element costs a logarithmic time and the "constraint range" is resolved from the extreme key without evaluating the whole set.]
+ *<p></p>
+ * Note on Conjunctive Constraint(s) :
+ *<p></p>
+ * [When the "constraint function" is a Conjunctive Constraint, the elements of the "dependency set" satisfying it are also kept,
+ * updated at each element variation signaled through {@link #invalidate(State)}, so the "constraint condition" is tested in a constant time.]
  *
  */
 public class DependencyPoint implements Serializable {
@@ -40,6 +63,46 @@ public class DependencyPoint implements Serializable {
 
     private int arg;
 
+    private static final TimeRange[] UNDEF_RANGES = new TimeRange[]{TimeRange.UNDEF_TIME_RANGE};
+
+    /**
+     * Snapshot of the "dependency set" elements, rebuilt only after the set changes, published to the readers of other threads.
+     */
+    private transient volatile State[] dependencyArray;
+
+    /**
+     * Last "constraint range" resolved, null if the "constraint function" did not support the "dependency set".
+     */
+    private transient TimeRange[] resolvedRanges;
+
+    /**
+     * Last "constraint range" resolved as ordered and merged intervals, along with the intervals it has been built from.
+     */
+    private transient IntervalSet resolvedSet;
+
+    private transient TimeRange[] resolvedSetSource;
+
+    private transient boolean resolved;
+
+    private transient long resolvedVersion;
+
+    private transient long version;
+
+    /**
+     * Elements of the "dependency set" whose variations are not signaled to this point.
+     */
+    private transient Set<State> unobservedSet;
+
+    /**
+     * The "dependency set" ordered by the Aggregate Constraint key, null if the constraint is not an Aggregate Constraint or it has not been built yet.
+     */
+    private transient StateAggregate aggregate;
+
+    /**
+     * The elements of the "dependency set" satisfying the Conjunctive Constraint, null if the constraint is not a Conjunctive Constraint or it has not been built yet.
+     */
+    private transient Set<State> satisfiedSet;
+
     protected DependencyPoint(){
     }
 
@@ -66,12 +129,74 @@ public class DependencyPoint implements Serializable {
             return false;
 
         try {
-            getConstraint().resolveConstraintRange(States.tempDependencySet(getDependecySet(),new State[]{state}));
+            if(getConstraint() instanceof AggregateConstraint){
+                ((AggregateConstraint) getConstraint()).validateDependency(state,dependencySet.size());
+            }else {
+                getConstraint().resolveConstraintRange(States.tempDependencySet(dependencies(),new State[]{state}));
+            }
+        } catch (ConstraintException e) {
+            throw new NotSupportedDependency(e.getMessage());
+        }
+
+        boolean result = dependencySet.add(state);
+        if(result){
+            getUnobservedSet().add(state);
+            if(aggregate != null){
+                aggregate.put(state,((AggregateConstraint) constraint).getAggregateKey(state));
+            }
+            updateSatisfied(state);
+            onDependencySetChanged();
+        }
+        return result;
+    }
+
+
+    /**
+     * Adds many State objects to the current dependency set, the "constraint function" is tested once against the whole resulting set.
+     * @param states State objects to add, the ones already contained are skipped.
+     * @return the number of State objects added.
+     * @throws DependencyException if the "constraint function" does not support the resulting set, in that case no State object is added.
+     * @throws IllegalStateException if a "constraint function" is not present.
+     */
+    public int addDependencies(State[] states) throws DependencyException {
+        if(states.length == 0)
+            return 0;
+
+        if(getConstraint() == null)
+            throw new IllegalStateException("Constraint is not present");
+
+        Set<State> added = new LinkedHashSet<>();
+        for(State state : states){
+            if(!dependencySet.contains(state)){
+                added.add(state);
+            }
+        }
+        if(added.isEmpty())
+            return 0;
+
+        State[] addedArray = added.toArray(new State[added.size()]);
+        try {
+            if(getConstraint() instanceof AggregateConstraint){
+                for(int i = 0; i < addedArray.length; i++){
+                    ((AggregateConstraint) getConstraint()).validateDependency(addedArray[i],dependencySet.size() + i);
+                }
+            }else {
+                getConstraint().resolveConstraintRange(States.tempDependencySet(dependencies(),addedArray));
+            }
         } catch (ConstraintException e) {
             throw new NotSupportedDependency(e.getMessage());
         }
 
-        return dependencySet.add(state);
+        for(State state : addedArray){
+            dependencySet.add(state);
+            getUnobservedSet().add(state);
+            if(aggregate != null){
+                aggregate.put(state,((AggregateConstraint) constraint).getAggregateKey(state));
+            }
+            updateSatisfied(state);
+        }
+        onDependencySetChanged();
+        return addedArray.length;
     }
 
 
@@ -83,6 +208,8 @@ public class DependencyPoint implements Serializable {
     public boolean setConstraint(Constraint constraint){
         if(this.constraint == null){
             this.constraint = constraint;
+            this.aggregate = null;
+            this.satisfiedSet = null;
             return true;
         }else {
             return false;
@@ -95,12 +222,17 @@ public class DependencyPoint implements Serializable {
      */
     public boolean isResolvable(){
 
-        if(getConstraint() == null || getDependecySet().length == 0)
+        if(getConstraint() == null || dependencySet.isEmpty())
             return true;
 
+        Set<State> satisfiedSet = getUpdatedSatisfiedSet();
+        if(satisfiedSet != null){
+            return satisfiedSet.size() == dependencySet.size();
+        }
+
         boolean result = false;
         try {
-            result = getConstraint().resolve(getDependecySet());
+            result = getConstraint().resolve(dependencies());
         } catch (ConstraintException e) {
 
         }
@@ -114,7 +246,18 @@ public class DependencyPoint implements Serializable {
      * @return true if the State has been removed successfully ; false if not.
      */
     public boolean removeDependency(State state){
-        return dependencySet.remove(state);
+        boolean result = dependencySet.remove(state);
+        if(result){
+            getUnobservedSet().remove(state);
+            if(aggregate != null){
+                aggregate.remove(state);
+            }
+            if(satisfiedSet != null){
+                satisfiedSet.remove(state);
+            }
+            onDependencySetChanged();
+        }
+        return result;
     }
 
 
@@ -123,8 +266,30 @@ public class DependencyPoint implements Serializable {
      * @return array of State objects.
      */
     public State[] getDependecySet(){
-        State[] set = new State[dependencySet.size()];
-        return dependencySet.toArray(set);
+        return dependencies().clone();
+    }
+
+
+    /**
+     * Returns the number of elements of the current "dependency set".
+     * @return the "dependency set" size.
+     */
+    public int getDependencyCount(){
+        return dependencySet.size();
+    }
+
+
+    /**
+     * Returns the snapshot of the "dependency set" elements, shared between the internal operations of this point.
+     * @return array of State objects, it must not be modified.
+     */
+    private State[] dependencies(){
+        State[] array = dependencyArray;
+        if(array == null){
+            array = dependencySet.toArray(new State[dependencySet.size()]);
+            dependencyArray = array;
+        }
+        return array;
     }
 
     /**
@@ -143,12 +308,10 @@ public class DependencyPoint implements Serializable {
      * @return true if the given parameter is considered "valid" ; false if not.
      */
     public boolean validateConstraint(long n){
-        if(constraint != null && getDependecySet().length > 0) {
-            TimeRange[] validationRanges = new TimeRange[0];
-            try {
-                validationRanges = constraint.resolveConstraintRange(getDependecySet());
-            } catch (ConstraintException e) {
-
+        if(constraint != null && !dependencySet.isEmpty()) {
+            TimeRange[] validationRanges = resolveConstraintRange();
+            if(validationRanges == null){
+                return false;
             }
             return anyMatch(n,validationRanges);
         }
@@ -172,17 +335,206 @@ public class DependencyPoint implements Serializable {
 
     /**
      *  Return the intervals of the "constraint range".
-     * @return
+     *<p></p>
+     *  The intervals are resolved only if the point has been invalidated since the last invocation.
+     * @return array of intervals, shared between invocations so it must not be modified.
      */
     public TimeRange[] getValidationRanges() {
-        if(getDependecySet().length > 0){
-            try {
-                return getConstraint().resolveConstraintRange(getDependecySet());
-            } catch (ConstraintException e) {
+        if(!dependencySet.isEmpty()){
+            TimeRange[] validationRanges = resolveConstraintRange();
+            if(validationRanges != null){
+                return validationRanges;
+            }
+        }
+        return UNDEF_RANGES;
+    }
+
 
+    /**
+     *  Return the intervals of the "constraint range" ordered and merged, see {@link #getValidationRanges()}.
+     * @return the "constraint range" as {@code IntervalSet}.
+     */
+    public IntervalSet getValidationSet() {
+        TimeRange[] validationRanges = getValidationRanges();
+        if(validationRanges == UNDEF_RANGES){
+            return IntervalSet.UNDEF_INTERVAL_SET;
+        }
+        if(resolvedSetSource != validationRanges){
+            resolvedSet = IntervalSet.of(validationRanges);
+            resolvedSetSource = validationRanges;
+        }
+        return resolvedSet;
+    }
+
+
+    /**
+     * Returns the "constraint range" of the current "dependency set", resolving it only if the point has been invalidated.
+     * @return array of intervals ; null if the "constraint function" does not support the current "dependency set".
+     */
+    private TimeRange[] resolveConstraintRange(){
+        if(resolved && resolvedVersion == version && getUnobservedSet().isEmpty()){
+            return resolvedRanges;
+        }
+        TimeRange[] validationRanges = null;
+        try {
+            StateAggregate aggregate = getUpdatedAggregate();
+            if(aggregate != null){
+                validationRanges = ((AggregateConstraint) getConstraint()).resolveConstraintRange(aggregate.getExtremeKey(),aggregate.size());
+            }else {
+                validationRanges = getConstraint().resolveConstraintRange(dependencies());
+            }
+        } catch (ConstraintException e) {
+
+        }
+        resolvedRanges = validationRanges;
+        resolvedVersion = version;
+        resolved = true;
+        return validationRanges;
+    }
+
+
+    /**
+     * Returns the "constraint range" the current "dependency set" would produce without the given element, without actually removing it.
+     * @param state the element to exclude, it has to be contained in the "dependency set" along with at least another element.
+     * @return array of intervals.
+     * @throws ConstraintException if the remaining elements are not supported by the "constraint function".
+     */
+    public TimeRange[] resolveConstraintRangeWithout(State state) throws ConstraintException {
+        StateAggregate aggregate = getUpdatedAggregate();
+        if(aggregate != null && aggregate.contains(state)){
+            return ((AggregateConstraint) getConstraint()).resolveConstraintRange(aggregate.getExtremeKeyWithout(state),aggregate.size() - 1);
+        }
+        return getConstraint().resolveConstraintRange(States.subtractFromSet(dependencies(),state));
+    }
+
+
+    /**
+     * Returns the aggregate of the "dependency set", building it if needed.
+     * @return the aggregate ; null if the "constraint function" is not an Aggregate Constraint or the keys of some element may be outdated.
+     */
+    private StateAggregate getUpdatedAggregate(){
+        if(!(constraint instanceof AggregateConstraint) || !getUnobservedSet().isEmpty()){
+            return null;
+        }
+        if(aggregate == null){
+            AggregateConstraint aggregateConstraint = (AggregateConstraint) constraint;
+            aggregate = new StateAggregate(aggregateConstraint.isMaxAggregate());
+            for(State state : dependencies()){
+                aggregate.put(state,aggregateConstraint.getAggregateKey(state));
+            }
+        }
+        return aggregate;
+    }
+
+
+    /**
+     * Returns the elements satisfying the Conjunctive Constraint, building them if needed.
+     * @return the satisfied elements ; null if the "constraint function" is not a Conjunctive Constraint or the condition of some element may be outdated.
+     */
+    private Set<State> getUpdatedSatisfiedSet(){
+        if(!(constraint instanceof ConjunctiveConstraint) || !getUnobservedSet().isEmpty()){
+            return null;
+        }
+        if(satisfiedSet == null){
+            ConjunctiveConstraint conjunctiveConstraint = (ConjunctiveConstraint) constraint;
+            satisfiedSet = new HashSet<>();
+            for(State state : dependencies()){
+                if(conjunctiveConstraint.isSatisfied(state)){
+                    satisfiedSet.add(state);
+                }
+            }
+        }
+        return satisfiedSet;
+    }
+
+
+    /**
+     * Updates the satisfied elements with the current condition of the given "dependency set" element.
+     * @param state the element to test.
+     */
+    private void updateSatisfied(State state){
+        if(satisfiedSet != null && dependencySet.contains(state)){
+            if(((ConjunctiveConstraint) constraint).isSatisfied(state)){
+                satisfiedSet.add(state);
+            }else {
+                satisfiedSet.remove(state);
             }
         }
-        return new TimeRange[]{new TimeRange(Long.MIN_VALUE,Long.MAX_VALUE)};
+    }
+
+
+    /**
+     * Discards the resolved "constraint range" after a range or value variation of the given "dependency set" element.
+     * @param state the element whose range or value is changed.
+     */
+    public void invalidate(State state){
+        if(aggregate != null && aggregate.contains(state)){
+            aggregate.put(state,((AggregateConstraint) constraint).getAggregateKey(state));
+        }
+        updateSatisfied(state);
+        invalidate();
+    }
+
+
+    /**
+     * Discards the elements satisfying the "constraint condition", this method has to be invoked when the value of an unknown "dependency set" element changes.
+     */
+    public void invalidateCondition(){
+        satisfiedSet = null;
+    }
+
+
+    /**
+     * Discards the resolved "constraint range", this method has to be invoked whenever the range or the value of a "dependency set" element changes.
+     */
+    public void invalidate(){
+        version++;
+        resolvedRanges = null;
+        resolved = false;
+    }
+
+
+    /**
+     * Returns the version of this point, incremented at each invalidation.
+     * @return the current version.
+     */
+    public long getVersion(){
+        return version;
+    }
+
+
+    /**
+     * Declares whether the variations of the given "dependency set" element are signaled to this point through {@link #invalidate()}.
+     *<p></p>
+     * The "constraint range" is resolved at each request while the "dependency set" contains any "unobserved" element.
+     * @param state the "dependency set" element.
+     * @param observed true if its variations are signaled ; false if not.
+     */
+    public void setObserved(State state,boolean observed){
+        if(!dependencySet.contains(state)){
+            return;
+        }
+        if(observed){
+            getUnobservedSet().remove(state);
+            invalidate(state);
+        }else {
+            getUnobservedSet().add(state);
+            invalidate();
+        }
+    }
+
+
+    private Set<State> getUnobservedSet(){
+        if(unobservedSet == null){
+            unobservedSet = new HashSet<>();
+        }
+        return unobservedSet;
+    }
+
+
+    private void onDependencySetChanged(){
+        dependencyArray = null;
+        invalidate();
     }
 
 
@@ -201,6 +553,30 @@ public class DependencyPoint implements Serializable {
     public void reset(){
         constraint = null;
         dependencySet.clear();
+        getUnobservedSet().clear();
+        aggregate = null;
+        satisfiedSet = null;
+        onDependencySetChanged();
+    }
+
+    /**
+     * Returns an action bringing back this point to its current "constraint function" and "dependency set", used to roll back the variations made afterwards.
+     * @return the restore action.
+     */
+    public Runnable saveState(){
+        Constraint savedConstraint = constraint;
+        State[] savedSet = dependencies();
+        State[] savedUnobserved = getUnobservedSet().toArray(new State[0]);
+        return () -> {
+            constraint = savedConstraint;
+            dependencySet.clear();
+            Collections.addAll(dependencySet,savedSet);
+            getUnobservedSet().clear();
+            Collections.addAll(getUnobservedSet(),savedUnobserved);
+            aggregate = null;
+            satisfiedSet = null;
+            onDependencySetChanged();
+        };
     }
 
     /**
@@ -1,6 +1,7 @@
 package com.core.model.impl.adjustable.dependent.bounds;
 
 import com.core.model.api.BoundedRange;
+import com.core.model.IntervalSet;
 import com.core.model.TimeRange;
 
 import java.io.Serializable;
@@ -36,6 +37,16 @@ public class DependencySidesBoundRange implements BoundedRange, Serializable {
         return endSide.getValidationRanges();
     }
 
+    @Override
+    public IntervalSet getStartSideValidationSet() {
+        return startSide.getValidationSet();
+    }
+
+    @Override
+    public IntervalSet getEndSideValidationSet() {
+        return endSide.getValidationSet();
+    }
+
     public StateDependencyPoint getStartSide() {
         return startSide;
     }
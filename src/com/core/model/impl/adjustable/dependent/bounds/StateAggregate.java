@@ -0,0 +1,206 @@
+package com.core.model.impl.adjustable.dependent.bounds;
+
+import com.core.model.api.State;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A State Aggregate keeps a set of State(s) ordered by a long key in an indexed binary heap,
+ * giving access to the extreme key (the greatest or the lowest) in constant time.
+ *<p></p>
+ * Adding, removing and updating the key of an element cost a logarithmic time.
+ */
+public class StateAggregate {
+
+    private final boolean max;
+
+    private State[] elements;
+
+    private long[] keys;
+
+    private int size;
+
+    private final Map<State,Integer> positions;
+
+    /**
+     * Creates an empty aggregate.
+     * @param max true if the extreme is the greatest key ; false if it is the lowest.
+     */
+    public StateAggregate(boolean max){
+        this.max = max;
+        this.elements = new State[8];
+        this.keys = new long[8];
+        this.positions = new HashMap<>();
+    }
+
+    /**
+     * Returns the number of elements.
+     * @return the size of the aggregate.
+     */
+    public int size(){
+        return size;
+    }
+
+    /**
+     * Tests whether the given State is an element of the aggregate.
+     * @param state the State to test.
+     * @return true if contained ; false if not.
+     */
+    public boolean contains(State state){
+        return positions.containsKey(state);
+    }
+
+    /**
+     * Adds a State with the given key, or updates its key if already contained.
+     * @param state the State to add.
+     * @param key its key.
+     */
+    public void put(State state,long key){
+        Integer position = positions.get(state);
+        if(position != null){
+            update(position,key);
+            return;
+        }
+        if(size == elements.length){
+            int capacity = size * 2;
+            State[] newElements = new State[capacity];
+            long[] newKeys = new long[capacity];
+            System.arraycopy(elements,0,newElements,0,size);
+            System.arraycopy(keys,0,newKeys,0,size);
+            elements = newElements;
+            keys = newKeys;
+        }
+        elements[size] = state;
+        keys[size] = key;
+        positions.put(state,size);
+        siftUp(size++);
+    }
+
+    /**
+     * Removes a State.
+     * @param state the State to remove.
+     * @return true if it has been removed ; false if it was not contained.
+     */
+    public boolean remove(State state){
+        Integer position = positions.remove(state);
+        if(position == null){
+            return false;
+        }
+        int last = --size;
+        if(position != last){
+            move(last,position);
+            elements[last] = null;
+            if(!siftUp(position)){
+                siftDown(position);
+            }
+        }else {
+            elements[last] = null;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the extreme key.
+     * @return the greatest key if this is a max aggregate, the lowest otherwise.
+     * @throws IllegalStateException if the aggregate is empty.
+     */
+    public long getExtremeKey(){
+        if(size == 0){
+            throw new IllegalStateException("Aggregate is empty");
+        }
+        return keys[0];
+    }
+
+    /**
+     * Returns the extreme key the aggregate would have without the given State.
+     * @param state the State to exclude.
+     * @return the extreme key of the remaining elements.
+     * @throws IllegalStateException if no element would remain.
+     */
+    public long getExtremeKeyWithout(State state){
+        if(size == 0 || (size == 1 && elements[0].equals(state))){
+            throw new IllegalStateException("Aggregate is empty");
+        }
+        if(!elements[0].equals(state)){
+            return keys[0];
+        }
+        if(size == 2){
+            return keys[1];
+        }
+        return precedes(keys[1],keys[2]) ? keys[1] : keys[2];
+    }
+
+    /**
+     * Removes all the elements.
+     */
+    public void clear(){
+        for(int i = 0; i < size; i++){
+            elements[i] = null;
+        }
+        size = 0;
+        positions.clear();
+    }
+
+    private void update(int position,long key){
+        long old = keys[position];
+        keys[position] = key;
+        if(precedes(key,old)){
+            siftUp(position);
+        }else if(precedes(old,key)){
+            siftDown(position);
+        }
+    }
+
+    private boolean precedes(long x,long y){
+        return max ? x > y : x < y;
+    }
+
+    private boolean siftUp(int position){
+        boolean moved = false;
+        State element = elements[position];
+        long key = keys[position];
+        while (position > 0){
+            int parent = (position - 1) >>> 1;
+            if(!precedes(key,keys[parent])){
+                break;
+            }
+            move(parent,position);
+            position = parent;
+            moved = true;
+        }
+        place(element,key,position);
+        return moved;
+    }
+
+    private void siftDown(int position){
+        State element = elements[position];
+        long key = keys[position];
+        int half = size >>> 1;
+        while (position < half){
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if(right < size && precedes(keys[right],keys[child])){
+                child = right;
+            }
+            if(!precedes(keys[child],key)){
+                break;
+            }
+            move(child,position);
+            position = child;
+        }
+        place(element,key,position);
+    }
+
+    private void move(int from,int to){
+        elements[to] = elements[from];
+        keys[to] = keys[from];
+        positions.put(elements[to],to);
+    }
+
+    private void place(State element,long key,int position){
+        elements[position] = element;
+        keys[position] = key;
+        positions.put(element,position);
+    }
+}
@@ -0,0 +1,48 @@
+package com.core.model.impl.adjustable.dependent.constraint.api;
+
+import com.core.model.api.State;
+import com.core.model.TimeRange;
+import com.core.model.impl.adjustable.dependent.constraint.ConstraintException;
+
+/**
+ * An Aggregate Constraint is a Constraint whose "constraint range" depends only on the extreme value (the greatest or the lowest)
+ * of a key extracted from each State of the "dependency set".
+ *<p></p>
+ * This allows a dependency point to keep its "dependency set" ordered by that key, updating it at each element variation,
+ * instead of evaluating the whole set each time the "constraint range" is requested.
+ *<p></p>
+ * The "range constraint function" defined by this interface must return the same result of {@link Constraint#resolveConstraintRange(State[])}
+ * for the same "dependency set".
+ */
+public interface AggregateConstraint extends Constraint {
+
+    /**
+     * Returns the key on which the given State is ordered.
+     * @param state a State of the "dependency set".
+     * @return the key value.
+     */
+    public long getAggregateKey(State state);
+
+    /**
+     * Tells which extreme of the keys the "constraint range" depends on.
+     * @return true if it depends on the greatest key ; false if it depends on the lowest.
+     */
+    public boolean isMaxAggregate();
+
+    /**
+     * Tests whether the given State can be added to a "dependency set" of the given size.
+     * @param state State to be added.
+     * @param size current size of the "dependency set".
+     * @throws ConstraintException if the resulting State set would not be supported by this Constraint implementation.
+     */
+    public void validateDependency(State state,int size) throws ConstraintException;
+
+    /**
+     * Returns the "constraint range" of a "dependency set" given its extreme key.
+     * @param extremeKey the greatest or the lowest key of the "dependency set", see {@link #isMaxAggregate()}.
+     * @param size size of the "dependency set".
+     * @return array of time range intervals ordered by their "natural order".
+     * @throws ConstraintException if a "dependency set" of the given size is not supported by this Constraint implementation.
+     */
+    public TimeRange[] resolveConstraintRange(long extremeKey,int size) throws ConstraintException;
+}
@@ -0,0 +1,22 @@
+package com.core.model.impl.adjustable.dependent.constraint.api;
+
+import com.core.model.api.State;
+
+/**
+ * A Conjunctive Constraint is a Constraint whose "constraint condition" is valid only if each State of the "dependency set" satisfies it singularly.
+ *<p></p>
+ * This allows a dependency point to keep the count of the satisfied States, updating it at each element variation,
+ * instead of evaluating the whole set each time the "constraint condition" is requested.
+ *<p></p>
+ * The function defined by this interface must be consistent with {@link BaseConstraint#resolve(State[])} :
+ * a "dependency set" is "valid" if and only if all its elements are satisfied.
+ */
+public interface ConjunctiveConstraint extends Constraint {
+
+    /**
+     * Tests whether the given State satisfies the "constraint condition".
+     * @param state a State of the "dependency set".
+     * @return true if satisfied ; false if not.
+     */
+    public boolean isSatisfied(State state);
+}
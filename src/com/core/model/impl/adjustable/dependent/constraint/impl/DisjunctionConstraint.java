@@ -1,6 +1,7 @@
 package com.core.model.impl.adjustable.dependent.constraint.impl;
 
 import com.core.model.api.State;
+import com.core.model.IntervalSet;
 import com.core.model.TimeRange;
 
 
@@ -19,7 +20,7 @@ public class DisjunctionConstraint extends ArgConstraint {
         for(int i =0;i<states.length;i++){
             ranges[i] = states[i].getRange();
         }
-        return ranges;
+        return IntervalSet.of(ranges).toRanges();
     }
 
 
@@ -4,6 +4,7 @@ import com.core.model.api.State;
 import com.core.model.TimeRange;
 import com.core.model.impl.Side;
 import com.core.model.impl.adjustable.dependent.constraint.ConstraintException;
+import com.core.model.impl.adjustable.dependent.constraint.api.AggregateConstraint;
 import com.core.util.States;
 
 
@@ -17,7 +18,7 @@ import com.core.util.States;
  * the greatest value, if the targeted side is END.
  *
  */
-public class ExactSideConstraint extends ArgConstraint {
+public class ExactSideConstraint extends ArgConstraint implements AggregateConstraint {
 
     private Side side;
     private boolean onlyOneLimit = true;
@@ -76,25 +77,69 @@ public class ExactSideConstraint extends ArgConstraint {
      */
     @Override
     public TimeRange[] resolveConstraintRange(State[] states) throws ConstraintException {
-        TimeRange[] constraintRange = new TimeRange[1];
-        if(states.length == 0){
-            throw new ConstraintException("At leas one state is supported");
+        validateSize(states.length);
+        long extremeKey = 0;
+        switch (side) {
+            case END:
+                extremeKey = States.maxEndTime(states);
+                break;
+            case START:
+                extremeKey = States.minStartTime(states);
+                break;
         }
-        if(onlyOneLimit && states.length > 1){
+        return resolveConstraintRange(extremeKey,states.length);
+    }
+
+
+    /**
+     * The targeted side value of each State.
+     * @param state a State of the "dependency set".
+     * @return the targeted side value.
+     */
+    @Override
+    public long getAggregateKey(State state) {
+        return state.getSide(side);
+    }
+
+
+    /**
+     * The greatest value is the one targeted for the END side, the lowest one for the START side.
+     * @return true if the targeted side is END.
+     */
+    @Override
+    public boolean isMaxAggregate() {
+        return side == Side.END;
+    }
+
+
+    @Override
+    public void validateDependency(State state, int size) throws ConstraintException {
+        if(onlyOneLimit && size + 1 > 1){
             throw new ConstraintException("Only one state is supported");
         }
+    }
+
+
+    /**
+     * @param extremeKey the lowest start, if the targeted side is START ; the greatest end, if the targeted side is END.
+     * @param size size of the "dependency set".
+     * @return An array containing just one interval, having its start and end parameter equal to the given key.
+     * @throws ConstraintException if this type supports only one State.
+     */
+    @Override
+    public TimeRange[] resolveConstraintRange(long extremeKey, int size) throws ConstraintException {
+        validateSize(size);
+        TimeRange[] constraintRange = new TimeRange[1];
             switch (side) {
                 case END:
-                    long max = States.maxEndTime(states);
-                    constraintRange[0] = new TimeRange(max, max);
-                    if(max == Long.MAX_VALUE){
+                    constraintRange[0] = new TimeRange(extremeKey, extremeKey);
+                    if(extremeKey == Long.MAX_VALUE){
                         constraintRange[0] = returnDefaultRange();
                     }
                     break;
                 case START:
-                    long min = States.minStartTime(states);
-                    constraintRange[0] = new TimeRange(min, min);
-                    if(min == Long.MIN_VALUE){
+                    constraintRange[0] = new TimeRange(extremeKey, extremeKey);
+                    if(extremeKey == Long.MIN_VALUE){
                         constraintRange[0] = returnDefaultRange();
                     }
                     break;
@@ -102,6 +147,16 @@ public class ExactSideConstraint extends ArgConstraint {
             return constraintRange;
     }
 
+
+    private void validateSize(int size) throws ConstraintException {
+        if(size == 0){
+            throw new ConstraintException("At leas one state is supported");
+        }
+        if(onlyOneLimit && size > 1){
+            throw new ConstraintException("Only one state is supported");
+        }
+    }
+
     private TimeRange returnDefaultRange(){
         return new TimeRange(Long.MIN_VALUE, Long.MAX_VALUE);
     }
@@ -4,8 +4,11 @@ import com.core.model.api.State;
 import com.core.model.TimeRange;
 import com.core.model.impl.adjustable.dependent.ReversibleState;
 import com.core.model.impl.adjustable.dependent.constraint.ConstraintException;
+import com.core.model.impl.adjustable.dependent.constraint.api.AggregateConstraint;
+import com.core.model.impl.adjustable.dependent.constraint.api.ConjunctiveConstraint;
 import com.core.util.Constraints;
-import com.core.util.States;
+
+import java.util.NoSuchElementException;
 
 /**
  * A No End Constraint targets the 'extinct' range of a given set of dependencies.
@@ -15,7 +18,7 @@ import com.core.util.States;
  * A No End Constraint supports only Reversible State, due to fact of providing their undefined end side.
  * @see ReversibleState
  */
-public class NoEndConstraint extends ArgConstraint {
+public class NoEndConstraint extends ArgConstraint implements AggregateConstraint, ConjunctiveConstraint {
 
     public NoEndConstraint(){
 
@@ -32,6 +35,17 @@ public class NoEndConstraint extends ArgConstraint {
     }
 
 
+    /**
+     * A State satisfies the constraint once it is considered "extinct" (or "active").
+     * @param state a State of the "dependency set".
+     * @return true if the State is "extinct" ; false if not.
+     */
+    @Override
+    public boolean isSatisfied(State state) {
+        return Constraints.applyNoEnd(state);
+    }
+
+
     /**
      * This "range constraint" function will produce a constraint range representing the interval in which the last element of the set (greatest end side) becomes extinct,
      * so the constraint range’s start will be equal to the last element’s end side value, however the end of constraint range will be undefined/infinite.
@@ -46,27 +60,56 @@ public class NoEndConstraint extends ArgConstraint {
                throw new ConstraintException("Only ReversibleState(s) are supported");
             }
         }
-        TimeRange[] constraintRange = new TimeRange[1];
-        long max = States.maxStartTime(toEvalutate(states));
-        constraintRange[0] = new TimeRange(max,Long.MAX_VALUE);
-        return constraintRange;
+        if(states.length == 0){
+            throw new NoSuchElementException();
+        }
+        long max = getAggregateKey(states[0]);
+        for(int i = 1; i < states.length; i++){
+            max = Math.max(max,getAggregateKey(states[i]));
+        }
+        return resolveConstraintRange(max,states.length);
     }
 
+
     /**
-     * For each Reversible State of a given State(s) set, this methods returns its "right" side.
-     * @param raw the given State(s) set.
-     * @return "right" sides.
+     * The start of the "right" side of each Reversible State, which is the moment it becomes extinct, read without building the "right" side.
+     * @param state a State of the "dependency set".
+     * @return the "right" side start.
      */
-    private State[] toEvalutate(State[] raw) {
-        State[] states = new State[raw.length];
-        for (int i = 0; i < raw.length; i++) {
-            if (((ReversibleState) raw[i]).getRight() != null) {
-                states[i] = ((ReversibleState) raw[i]).getRight();
-            } else {
-                states[i] = raw[i];
-            }
+    @Override
+    public long getAggregateKey(State state) {
+        ReversibleState reversible = (ReversibleState) state;
+        if(reversible.hasRight()){
+            return reversible.getRightStart();
         }
-        return states;
+        return state.getStart();
+    }
+
+
+    @Override
+    public boolean isMaxAggregate() {
+        return true;
+    }
+
+
+    @Override
+    public void validateDependency(State state, int size) throws ConstraintException {
+        if(!(state instanceof ReversibleState)){
+            throw new ConstraintException("Only ReversibleState(s) are supported");
+        }
+    }
+
+
+    /**
+     * @param extremeKey the greatest start of the "right" sides.
+     * @param size size of the "dependency set".
+     * @return an array containing one singe interval, starting at the given key with an undefined end.
+     */
+    @Override
+    public TimeRange[] resolveConstraintRange(long extremeKey, int size) {
+        TimeRange[] constraintRange = new TimeRange[1];
+        constraintRange[0] = new TimeRange(extremeKey,Long.MAX_VALUE);
+        return constraintRange;
     }
 
     @Override
@@ -0,0 +1,327 @@
+package com.core.model.impl.adjustable.dependent.states;
+
+import com.core.model.api.State;
+import com.core.model.impl.Snapshot;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A Component Executor runs the mutations of the Dependency State(s) graph on an Executor,
+ * so that mutations of different connected components, and the propagation they cause, run concurrently, see {@link GraphComponent}.
+ *<p></p>
+ * Each mutation is submitted along with its "anchors", the State(s) it is going to change or to connect :
+ * before running, the task acquires the lock of every component the anchors belong to, in a deterministic order,
+ * so the mutations of the same component are performed one at a time and keep the single-thread semantics.
+ * A mutation adding a dependency between two components has to anchor a State of both, once joined the component stays locked until the task ends.
+ * The States created by a task belong to it until it ends, so they can be connected to the components anchored.
+ *<p></p>
+ * While a task runs, adding or removing a dependency of a State outside the components locked throws an {@link IllegalStateException}.
+ * States which are not Dependency State(s) are not part of any component : a State of that kind shared by many components must not be changed concurrently.
+ *<p></p>
+ * A task waiting for the lock of a component blocks the thread running it, an Executor starting a thread for each task (e.g. virtual threads) is the best fit.
+ * A task must not wait for another task anchoring the same components, since it would never acquire their locks.
+ *<p></p>
+ * Note on guarded mode :
+ *<p></p>
+ * [Instead of submitting tasks, the mutations of the Dependency State(s) can lock their components by themselves, see {@link #setGuarded(boolean)}.
+ * In both cases a reader on another thread gets a consistent view of the components through {@link #read(Supplier, State...)}.]
+ */
+public final class ComponentExecutor {
+
+    private static final Comparator<GraphComponent> BY_ID = Comparator.comparingLong(GraphComponent::getId);
+
+    /**
+     * The component locks held by the task running on the current thread, null if no task is running.
+     */
+    private static final ThreadLocal<List<GraphComponent>> LOCKED = new ThreadLocal<>();
+
+    /**
+     * Number of tasks running among all threads, so that no thread looks up its locks while there is none.
+     */
+    private static final AtomicInteger RUNNING = new AtomicInteger();
+
+    private static volatile boolean guarded;
+
+    private final Executor executor;
+
+    public ComponentExecutor(Executor executor){
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+
+    /**
+     * Submits a mutation of the components the given anchors belong to.
+     * @param mutation the mutation to run.
+     * @param anchors the State(s) the mutation is going to change or to connect.
+     * @return a future completed with the result of the mutation, or with the exception it throws.
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> mutation, State... anchors){
+        State[] submitted = anchors.clone();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return call(mutation,submitted);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        },executor);
+    }
+
+    /**
+     * Submits a mutation of the components the given anchors belong to.
+     * @param mutation the mutation to run.
+     * @param anchors the State(s) the mutation is going to change or to connect.
+     * @return a future completed once the mutation is performed, or with the exception it throws.
+     */
+    public CompletableFuture<Void> execute(Runnable mutation, State... anchors){
+        return submit(() -> {
+            mutation.run();
+            return null;
+        },anchors);
+    }
+
+    /**
+     * Performs a mutation on the current thread, holding the locks of the components the given anchors belong to.
+     * The mutation is a single {@link Snapshot} "write" : the State(s) it changes are committed at once.
+     * @param mutation the mutation to run.
+     * @param anchors the State(s) the mutation is going to change or to connect.
+     * @return the result of the mutation.
+     * @throws Exception the exception thrown by the mutation.
+     */
+    public static <T> T call(Callable<T> mutation, State... anchors) throws Exception {
+        List<GraphComponent> outer = LOCKED.get();
+        List<GraphComponent> locked = lock(anchors);
+        LOCKED.set(locked);
+        RUNNING.incrementAndGet();
+        Snapshot.beginWrite();
+        try {
+            return mutation.call();
+        }finally {
+            Snapshot.endWrite();
+            RUNNING.decrementAndGet();
+            LOCKED.set(outer);
+            unlock(locked);
+        }
+    }
+
+    /**
+     * Reads a consistent view of the components the given anchors belong to.
+     *<p></p>
+     * The reader runs first without locking, then the view is validated against the Stamped Lock of each component :
+     * if a mutation happened meanwhile, the reader runs again holding the components in read mode, so it waits for the running mutations to end.
+     * Since the first run can observe a mutation in progress, the reader must have no side effects and must only use the getters of the State(s),
+     * any exception it throws is ignored unless the view is valid.
+     * @param reader the reader to run.
+     * @param anchors the State(s) whose components are read.
+     * @return the result of the reader.
+     */
+    public static <T> T read(Supplier<T> reader, State... anchors){
+        List<GraphComponent> roots = roots(anchors);
+        if(isHeld(roots)){
+            return reader.get();
+        }
+        long[] stamps = new long[roots.size()];
+        boolean locked = false;
+        for(int i = 0; i < stamps.length; i++){
+            stamps[i] = roots.get(i).getGuard().tryOptimisticRead();
+            locked |= stamps[i] == 0;
+        }
+        if(!locked){
+            try {
+                T result = reader.get();
+                if(validate(roots,stamps,anchors)){
+                    return result;
+                }
+            }catch (RuntimeException e){
+                if(validate(roots,stamps,anchors)){
+                    throw e;
+                }
+            }
+        }
+        while (true){
+            roots = roots(anchors);
+            stamps = new long[roots.size()];
+            for(int i = 0; i < stamps.length; i++){
+                stamps[i] = roots.get(i).getGuard().readLock();
+            }
+            try {
+                if(roots.equals(roots(anchors)) && allRoots(roots)){
+                    return reader.get();
+                }
+            }finally {
+                for(int i = stamps.length - 1; i >= 0; i--){
+                    roots.get(i).getGuard().unlockRead(stamps[i]);
+                }
+            }
+        }
+    }
+
+    private static boolean validate(List<GraphComponent> roots, long[] stamps, State[] anchors){
+        for(int i = 0; i < stamps.length; i++){
+            if(!roots.get(i).getGuard().validate(stamps[i])){
+                return false;
+            }
+        }
+        return roots.equals(roots(anchors));
+    }
+
+    private static boolean isHeld(List<GraphComponent> components){
+        if(RUNNING.get() == 0 || LOCKED.get() == null){
+            return false;
+        }
+        for(GraphComponent component : components){
+            if(!component.isHeldByCurrentThread()){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Enables or disables the guarded mode : if enabled, each mutation of a Dependency State performed outside a task
+     * holds the locks of the components it changes, as if it was performed by {@link #call(Callable, State...)}.
+     *<p></p>
+     * The mutations of different components can then be performed by any thread concurrently, the ones of the same component wait for each other.
+     * A mutation performed while another one is running on the same thread, e.g. by an observer notified synchronously,
+     * has to change only the components already locked.
+     * @param enabled true to guard the mutations ; false to leave the synchronization to the user.
+     */
+    public static void setGuarded(boolean enabled){
+        guarded = enabled;
+    }
+
+    /**
+     * @return true if the guarded mode is enabled.
+     */
+    public static boolean isGuarded(){
+        return guarded;
+    }
+
+    /**
+     * Begins a mutation of the given State, and of the other State involved if any, as a {@link Snapshot} "write".
+     * Within a task, it checks the components are locked, outside a task, in guarded mode, it locks them.
+     * @param state the Dependency State going to be changed.
+     * @param other the State going to be connected or disconnected, or null.
+     * @return the locks acquired, to be released through {@link #exit(List)}, null if none.
+     * @throws IllegalStateException if a task is running and the components are not locked.
+     */
+    static List<GraphComponent> enter(DependencyState state, State other){
+        if(RUNNING.get() > 0 && LOCKED.get() != null){
+            checkAccess(state);
+            if(other instanceof DependencyState){
+                checkAccess((DependencyState) other);
+            }
+            Snapshot.beginWrite();
+            return null;
+        }
+        if(!guarded){
+            Snapshot.beginWrite();
+            return null;
+        }
+        List<GraphComponent> locked = lock(other == null ? new State[]{state} : new State[]{state,other});
+        LOCKED.set(locked);
+        RUNNING.incrementAndGet();
+        Snapshot.beginWrite();
+        return locked;
+    }
+
+    /**
+     * Ends a mutation begun through {@link #enter(DependencyState, State)}.
+     * @param locked the locks acquired.
+     */
+    static void exit(List<GraphComponent> locked){
+        Snapshot.endWrite();
+        if(locked == null){
+            return;
+        }
+        RUNNING.decrementAndGet();
+        LOCKED.remove();
+        unlock(locked);
+    }
+
+    /**
+     * Acquires the locks of the components of the given anchors in the order of their identifiers,
+     * then checks no component has been joined or split meanwhile, otherwise it starts again.
+     */
+    private static List<GraphComponent> lock(State[] anchors){
+        while (true){
+            List<GraphComponent> roots = roots(anchors);
+            for(GraphComponent root : roots){
+                root.lock();
+            }
+            if(roots.equals(roots(anchors)) && allRoots(roots)){
+                return roots;
+            }
+            unlock(roots);
+        }
+    }
+
+    private static void unlock(List<GraphComponent> locked){
+        for(int i = locked.size() - 1; i >= 0; i--){
+            locked.get(i).unlock();
+        }
+    }
+
+    private static List<GraphComponent> roots(State[] anchors){
+        List<GraphComponent> roots = new ArrayList<>(anchors.length);
+        for(State anchor : anchors){
+            if(anchor instanceof DependencyState){
+                GraphComponent root = ((DependencyState) anchor).getComponent().find();
+                if(!roots.contains(root)){
+                    roots.add(root);
+                }
+            }
+        }
+        roots.sort(BY_ID);
+        return roots;
+    }
+
+    private static boolean allRoots(List<GraphComponent> components){
+        for(GraphComponent component : components){
+            if(!component.isRoot()){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks the component of the given State is locked by the task running on the current thread, if any.
+     * @param state the State going to be connected or disconnected.
+     * @throws IllegalStateException if a task is running and the component of the State is not locked.
+     */
+    static void checkAccess(DependencyState state){
+        if(RUNNING.get() == 0 || LOCKED.get() == null){
+            return;
+        }
+        if(!state.getComponent().find().isHeldByCurrentThread()){
+            throw new IllegalStateException("The State does not belong to the components anchored by the running task");
+        }
+    }
+
+    /**
+     * Locks a component created within the task running on the current thread, if any, until the task ends :
+     * the component of a State created by the task, or the one of a side moved by a split.
+     * @param component the component just created.
+     */
+    static void onComponentCreated(GraphComponent component){
+        if(RUNNING.get() == 0){
+            return;
+        }
+        List<GraphComponent> locked = LOCKED.get();
+        if(locked != null){
+            component.lock();
+            locked.add(component);
+        }
+    }
+}
@@ -18,8 +18,15 @@ import com.core.model.impl.adjustable.dependent.bounds.StateDependencyPoint;
 import com.core.model.impl.adjustable.adjuster.api.RangeAdjuster;
 import com.core.model.impl.adjustable.dependent.exc.LoopDependencyException;
 import com.core.model.impl.adjustable.dependent.exc.NotAdjustableException;
-import com.core.util.States;
+import com.core.model.api.StateObserver;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
@@ -40,9 +47,8 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * <p></p>
  * In a runtime environment many Dependency State(s) can depend on each other.
  * When A dependency is no longer needed in the runtime environment, the user has to remove manually from all of its dependents,
- * but a State Dependency does not provide the set of State(s) which are currently depending on it,
- * that will make difficult the remotion (by the user) of that dependency.
- * For that reason a Dependency State emulate its destruction through the invocation of a corresponding method,
+ * the State(s) which are currently observing it are given by {@link #getDependents()}.
+ * In addition a Dependency State emulate its destruction through the invocation of a corresponding method,
  * that will generate a call-back event handled by its dependents in order act accordingly.
  * <b></b>
  * Note on "dependency set" variation :
@@ -53,7 +59,13 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * One this State is "extinct" will not receive other variation notifications anymore.
  * ]
  *<p></p>
- * Note on concurrency: Adding and removing dependencies is thread-safe.
+ * Note on concurrency :
+ *<p></p>
+ * [A Dependency State is not thread-safe by itself : the "dependency set(s)" are plain sets and a mutation propagates through the whole graph.
+ * The connected components of the graph are tracked by {@link GraphComponent} as dependencies are added and removed,
+ * so the mutations of different components can run concurrently, either submitted to a {@link ComponentExecutor} or locking by themselves in guarded mode,
+ * see {@link ComponentExecutor#setGuarded(boolean)}, while the mutations of the same component are performed one at a time.
+ * The range and the value of a State are always safely published, a reader needing a consistent view of many States goes through {@link ComponentExecutor#read(java.util.function.Supplier, State...)}.]
  *
  */
 public class DependencyState extends StateAdjuster implements DependencySides, DestructibleDependency {
@@ -66,12 +78,28 @@ public class DependencyState extends StateAdjuster implements DependencySides, D
      * This flag is used to deny state "active" setting when a State has a one or more dependencies.
      * When the "constraint condition" of the start side dependency point can be considered "valid", then this flag has to be set to 'true', to 'false' otherwise.
      */
-    private boolean activeAllowed = true;
+    private volatile boolean activeAllowed = true;
 
     private List<DestroyObserver> destroyObserverList;
 
     private DestroyObserver singleDestroyObserver;
 
+    /**
+     * Position of this State in the {@link TopologicalOrder} of the Dependency State(s).
+     */
+    private long topologicalIndex = TopologicalOrder.nextIndex();
+
+    /**
+     * The Dependency State(s) having this State in their "dependency set(s)", each one mapped to the number of its sides depending on this State.
+     * Unlike {@link #getDependents()} it does not depend on observers subscription, so it is kept even when a dependent is "extinct".
+     */
+    private Map<DependencyState,Integer> dependentIndex = new ConcurrentHashMap<>();
+
+    /**
+     * Node of the {@link GraphComponent} this State belongs to.
+     */
+    private GraphComponent component = GraphComponent.create();
+
 
     protected DependencyState(){
     }
@@ -154,27 +182,39 @@ public class DependencyState extends StateAdjuster implements DependencySides, D
      * @throws StateException if the "resolution fails" ; if a loop dependency occurs ; if the State is not supported by the the side Constraint set.
      */
     private boolean addTimeDependency(StateDependencyPoint stateSide, State state) throws StateException {
+        List<GraphComponent> locked = ComponentExecutor.enter(this,state);
+        try {
+            return addTimeDependencyLocked(stateSide,state);
+        }finally {
+            ComponentExecutor.exit(locked);
+        }
+    }
+
+    private boolean addTimeDependencyLocked(StateDependencyPoint stateSide, State state) throws StateException {
         if(isExtinct()){
             return false;
         }
 
-        validateLoopDependency(state);
+        TopologicalOrder.validateDependency(this,state);
+        journalDependencies();
         boolean result = false;
 
             result = stateSide.addDependency(state);
             if(!result)
                 return false;
+            linkDependency(state);
 
 
             if(!setValidationRange(sides)){
 
-                stateSide.removeDependency(state);
+                unlinkDependency(stateSide.removeDependency(state),state);
                 throw new NotAdjustableException("State range can not be adjusted for this dependency");
 
             }else{
 
                 if(state instanceof ObservableState){
                     ((ObservableState)state).addStateObserver(stateSide.getSideObserver(this));
+                    stateSide.setObserved(state,true);
                 }
 
                 addDestroyObserverToDependency(state);
@@ -204,6 +244,7 @@ public class DependencyState extends StateAdjuster implements DependencySides, D
         for(State depState : side.getDependecySet()) {
             if(depState instanceof ObservableState){
                 ((ObservableState)depState).removeStateObserver(side.getSideObserver(this));
+                side.setObserved(depState,false);
             }
             if (depState instanceof DestroyObserver) {
                 ((DestructibleDependency)depState).removeDestroyObserver(singleDestroyObserver);
@@ -221,36 +262,55 @@ public class DependencyState extends StateAdjuster implements DependencySides, D
     }
 
     /**
-     * Tests whether the given State has already a dependency on the current state, resulting in a circular dependency :
-     *<p></p>
-     * A circular dependency happen when a State A depends on a State B, and B depends again on A.
-     *<p></p>
-     * @param state the State to evaluate.
-     * @throws LoopDependencyException if a circular (loop) dependency occurs ; or the given State is 'this' State.
+     * Registers this State as dependent of the given dependency, see {@link TopologicalOrder}.
+     * @param dependency a State just added to one of the "dependency set(s)".
      */
-    private void validateLoopDependency(State state) throws LoopDependencyException {
-        if(state.equals(this)){
-            throw new LoopDependencyException("State has a circular dependency");
+    private void linkDependency(State dependency){
+        if(dependency instanceof DependencyState){
+            ((DependencyState) dependency).journalDependencies();
+            ((DependencyState) dependency).dependentIndex.merge(this,1,Integer::sum);
+            GraphComponent.union(this,(DependencyState) dependency);
         }
+    }
 
-        if(state instanceof DependencyState) {
-
-            State[] toValidate = States.joinSets(((DependencyState)state).getStartTimeDepedencySet(),((DependencyState)state).getEndTimeDepedencySet());
-
-            for (State s : toValidate) {
-
-                if (s.equals(this)) {
-                    throw new LoopDependencyException("State has a circular dependency");
-                }
-
-                if(s instanceof DependencyState){
-                    if (((DependencyState)state).getStartTimeDepedencySet() != null && ((DependencyState)state).getEndTimeDepedencySet() != null) {
-                        validateLoopDependency(s);
-                    }
-                }
+    /**
+     * Un-registers this State as dependent of the given dependency, once removed from one of the "dependency set(s)".
+     * @param removed whether the dependency has been actually removed.
+     * @param dependency the State removed.
+     */
+    private void unlinkDependency(boolean removed, State dependency){
+        if(removed && unindexDependency(dependency)){
+            GraphComponent.split(this,(DependencyState) dependency);
+        }
+    }
 
+    /**
+     * Un-registers this State as dependent of the given dependencies, once a whole "dependency set" is cleared.
+     * The components are split once every dependency is un-registered, since they are looked up through the dependents too.
+     * @param cleared the States removed.
+     */
+    private void unlinkDependencies(State[] cleared){
+        List<DependencyState> unlinked = new ArrayList<>(cleared.length + 1);
+        unlinked.add(this);
+        for(State dependency : cleared){
+            if(unindexDependency(dependency)){
+                unlinked.add((DependencyState) dependency);
             }
         }
+        if(unlinked.size() > 1){
+            GraphComponent.split(unlinked);
+        }
+    }
+
+    /**
+     * @return true if the given dependency is a Dependency State no longer having this State as dependent.
+     */
+    private boolean unindexDependency(State dependency){
+        if(!(dependency instanceof DependencyState)){
+            return false;
+        }
+        ((DependencyState) dependency).journalDependencies();
+        return ((DependencyState) dependency).dependentIndex.computeIfPresent(this,(dependent,sides) -> sides > 1 ? sides - 1 : null) == null;
     }
 
 
@@ -341,9 +401,19 @@ public class DependencyState extends StateAdjuster implements DependencySides, D
      * @return
      */
     private boolean removeDependency(StateDependencyPoint stateSide, State state, boolean forceReset) throws NotAdjustableException {
+        List<GraphComponent> locked = ComponentExecutor.enter(this,state);
+        try {
+            return removeDependencyLocked(stateSide,state,forceReset);
+        }finally {
+            ComponentExecutor.exit(locked);
+        }
+    }
+
+    private boolean removeDependencyLocked(StateDependencyPoint stateSide, State state, boolean forceReset) throws NotAdjustableException {
+        journalDependencies();
 
         if(isExtinct()){
-            stateSide.removeDependency(state);
+            unlinkDependency(stateSide.removeDependency(state),state);
             if(state instanceof ObservableState){
                 ((ObservableState)state).removeStateObserver(stateSide.getSideObserver(this));
             }
@@ -362,12 +432,11 @@ public class DependencyState extends StateAdjuster implements DependencySides, D
             //Here the method is just trying  to test (without actually removing anything) if the given dependency once removed will cause the "resolution failure",
 
 
-            State[] toEvaluate = States.subtractFromSet(stateSide.getDependecySet(),state);
-            if(toEvaluate.length == 0){
+            if(stateSide.getDependencyCount() == 1){
                 remotionTest = new TimeRange[]{TimeRange.UNDEF_TIME_RANGE};
                 activeAllowed = true;
             }else{
-                remotionTest = stateSide.getConstraint().resolveConstraintRange(toEvaluate);
+                remotionTest = stateSide.resolveConstraintRangeWithout(state);
                 // the "remotion test" is the "constraint range" that would be returned if the given dependency was removed.
             }
             switch (stateSide.getArg()){
@@ -385,11 +454,14 @@ public class DependencyState extends StateAdjuster implements DependencySides, D
 
         //force remotion
             if(forceReset){
+                State[] cleared = stateSide.getDependecySet();
                 stateSide.reset();
+                unlinkDependencies(cleared);
                 result = true;
             }else{
                 if(setValidationRange(toValidate)){
                     result = stateSide.removeDependency(state);
+                    unlinkDependency(result,state);
                     if(state instanceof ObservableState){
                         ((ObservableState)state).removeStateObserver(stateSide.getSideObserver(this));
                     }
@@ -444,25 +516,50 @@ public class DependencyState extends StateAdjuster implements DependencySides, D
      */
     private boolean setTimeConstraint(Constraint timeConstraint, Side side){
         boolean operation = true;
+        List<GraphComponent> locked = ComponentExecutor.enter(this,null);
+        try {
+            journalDependencies();
 
-        switch (side){
-            case START:
-                operation = sides.getStartSide().setConstraint(timeConstraint);
-                break;
-            case END:
-                operation = sides.getEndSide().setConstraint(timeConstraint);
-                break;
-            default:
-                break;
+            switch (side){
+                case START:
+                    operation = sides.getStartSide().setConstraint(timeConstraint);
+                    break;
+                case END:
+                    operation = sides.getEndSide().setConstraint(timeConstraint);
+                    break;
+                default:
+                    break;
+            }
+        }finally {
+            ComponentExecutor.exit(locked);
         }
 
         return operation;
     }
 
+    @Override
+    public boolean setTime(long start, long end) {
+        List<GraphComponent> locked = ComponentExecutor.enter(this,null);
+        try {
+            return super.setTime(start,end);
+        }finally {
+            ComponentExecutor.exit(locked);
+        }
+    }
+
 
 
     @Override
     public boolean setStateValue(boolean value) {
+        List<GraphComponent> locked = ComponentExecutor.enter(this,null);
+        try {
+            return setStateValueLocked(value);
+        }finally {
+            ComponentExecutor.exit(locked);
+        }
+    }
+
+    private boolean setStateValueLocked(boolean value) {
         boolean result = false;
         if (value) {
             if (activeAllowed) {
@@ -473,6 +570,7 @@ public class DependencyState extends StateAdjuster implements DependencySides, D
         }else {
             result =  super.setStateValue(value);
             if(result){
+                journalDependencies();
                 removeAllObservers(sides.getStartSide());
                 removeAllObservers(sides.getEndSide());
             }
@@ -529,6 +627,7 @@ public class DependencyState extends StateAdjuster implements DependencySides, D
      */
     @Override
     public void addDestroyObserver(DestroyObserver observer) {
+        journalDependencies();
         destroyObserverList.add(observer);
     }
 
@@ -538,13 +637,19 @@ public class DependencyState extends StateAdjuster implements DependencySides, D
      */
     @Override
     public void destroy(){
-        for(DestroyObserver observer : destroyObserverList){
-            observer.onDestory(this);
+        List<GraphComponent> locked = ComponentExecutor.enter(this,null);
+        try {
+            for(DestroyObserver observer : destroyObserverList){
+                observer.onDestory(this);
+            }
+        }finally {
+            ComponentExecutor.exit(locked);
         }
     }
 
     @Override
     public void removeDestroyObserver(DestroyObserver observer) {
+        journalDependencies();
         destroyObserverList.remove(observer);
     }
 
@@ -554,4 +659,291 @@ public class DependencyState extends StateAdjuster implements DependencySides, D
     }
 
 
+    /**
+     * Returns the Dependency State(s) currently observing this State range variations, that is the reverse index of the dependency relationship.
+     *<p></p>
+     * A dependent is returned once for each side depending on this State,
+     * a dependent which is no longer observing this State (e.g. once "extinct") or no longer depending on it (e.g. after a "force remotion") is not returned.
+     * @return array of dependents ; array returned can be 0 length if there is no dependent.
+     */
+    public DependencyState[] getDependents(){
+        List<StateObserver> observers = getStateObservers();
+        List<DependencyState> dependents = new ArrayList<>(observers.size());
+        for(StateObserver observer : observers){
+            if(observer instanceof DependencyStateObserver && ((DependencyStateObserver) observer).isObserving(this)){
+                dependents.add(((DependencyStateObserver) observer).getDependencyState());
+            }
+        }
+        return dependents.toArray(new DependencyState[dependents.size()]);
+    }
+
+    /**
+     * Saves the "dependency set(s)" and the "constraint function(s)" of both sides, the dependents and the Destroy Observer(s),
+     * if it is the first change of them within the batch in progress, in order to restore them on rollback.
+     */
+    private void journalDependencies(){
+        journal();
+        if(!PropagationEngine.isFirstChange(sides)){
+            return;
+        }
+        Runnable restoreStartSide = sides.getStartSide().saveState();
+        Runnable restoreEndSide = sides.getEndSide().saveState();
+        boolean savedActiveAllowed = activeAllowed;
+        Map<DependencyState,Integer> savedDependents = new HashMap<>(dependentIndex);
+        List<DestroyObserver> savedDestroyObservers = new ArrayList<>(destroyObserverList);
+        PropagationEngine.onRollback(() -> {
+            restoreStartSide.run();
+            restoreEndSide.run();
+            activeAllowed = savedActiveAllowed;
+            dependentIndex.clear();
+            dependentIndex.putAll(savedDependents);
+            destroyObserverList.clear();
+            destroyObserverList.addAll(savedDestroyObservers);
+        });
+    }
+
+    /**
+     * Removes every dependency and every dependent of this State, once the batch it has been created within is rolled back.
+     */
+    void detach(){
+        for(StateDependencyPoint side : new StateDependencyPoint[]{sides.getStartSide(),sides.getEndSide()}){
+            for(State dependency : side.getDependecySet()){
+                unlinkDependency(side.removeDependency(dependency),dependency);
+                if(dependency instanceof ObservableState){
+                    ((ObservableState) dependency).removeStateObserver(side.getSideObserver(this));
+                }
+                if(dependency instanceof DestructibleDependency){
+                    ((DestructibleDependency) dependency).removeDestroyObserver(getDestroyObserver());
+                }
+            }
+        }
+        for(StateObserver observer : getStateObservers()){
+            if(observer instanceof DependencyStateObserver){
+                removeStateObserver(observer);
+            }
+        }
+        destroyObserverList.removeIf(observer -> observer instanceof DependencyDestroyObserver);
+        dependentIndex.clear();
+        activeAllowed = true;
+    }
+
+    /**
+     * Validates again the position of this State in the {@link TopologicalOrder} and joins again its {@link GraphComponent},
+     * once its "dependency set(s)" are restored by a rollback.
+     */
+    void restoreOrder(){
+        try {
+            for(State dependency : getStartTimeDepedencySet()){
+                restoreDependency(dependency);
+            }
+            for(State dependency : getEndTimeDepedencySet()){
+                restoreDependency(dependency);
+            }
+        } catch (LoopDependencyException e) {
+            throw new IllegalStateException("Dependencies restored by rollback contain a loop",e);
+        }
+    }
+
+    private void restoreDependency(State dependency) throws LoopDependencyException {
+        TopologicalOrder.validateDependency(this,dependency);
+        if(dependency instanceof DependencyState){
+            GraphComponent.union(this,(DependencyState) dependency);
+        }
+    }
+
+    /**
+     * Restores the condition value of this State as it has been stored, see {@link GraphCodec}, regardless of the "active" setting restriction.
+     * It has to be invoked before any dependency is restored.
+     * @param value the condition value stored.
+     * @param extinct whether the State was "extinct".
+     */
+    void loadValue(boolean value, boolean extinct){
+        if(extinct){
+            super.setStateValue(true);
+        }
+        if(!value){
+            super.setStateValue(false);
+        }
+    }
+
+    /**
+     * Restores a dependency of this State as it has been stored, see {@link GraphCodec} and {@link MutationJournal} :
+     * the dependency is added to the "dependency set" of the given side and observed as by {@link #addStartTimeDependency(State)},
+     * without any "resolution" process since the range stored is already consistent with it.
+     * The "dependency set(s)" of a State once "extinct" and no longer "active" are not observed.
+     * @param side the side the dependency belongs to.
+     * @param state the dependency to restore.
+     * @throws StateException if a loop dependency occurs ; if the State is not supported by the side Constraint set.
+     */
+    void loadDependency(Side side, State state) throws StateException {
+        StateDependencyPoint stateSide = side == Side.START ? sides.getStartSide() : sides.getEndSide();
+        TopologicalOrder.validateDependency(this,state);
+        journalDependencies();
+        if(!stateSide.addDependency(state)){
+            return;
+        }
+        linkDependency(state);
+        if(!isExtinct() || getStateValue()){
+            if(state instanceof ObservableState){
+                ((ObservableState)state).addStateObserver(stateSide.getSideObserver(this));
+                stateSide.setObserved(state,true);
+            }
+        }
+        addDestroyObserverToDependency(state);
+    }
+
+    /**
+     * Removes a dependency of this State as a stored variation requires, see {@link MutationJournal}, without any "resolution" process.
+     * @param side the side the dependency belongs to.
+     * @param state the dependency to remove.
+     */
+    void unloadDependency(Side side, State state){
+        StateDependencyPoint stateSide = side == Side.START ? sides.getStartSide() : sides.getEndSide();
+        journalDependencies();
+        unlinkDependency(stateSide.removeDependency(state),state);
+        if(state instanceof ObservableState){
+            ((ObservableState)state).removeStateObserver(stateSide.getSideObserver(this));
+        }
+        if(state instanceof DestructibleDependency){
+            ((DestructibleDependency)state).removeDestroyObserver(getDestroyObserver());
+        }
+    }
+
+    /**
+     * Clears the "dependency set" and the "constraint function" of the given side, as a stored "force remotion" requires, see {@link MutationJournal}.
+     * @param side the side to clear.
+     */
+    void unloadSide(Side side){
+        StateDependencyPoint stateSide = side == Side.START ? sides.getStartSide() : sides.getEndSide();
+        journalDependencies();
+        State[] cleared = stateSide.getDependecySet();
+        for(State state : cleared){
+            if(state instanceof ObservableState){
+                ((ObservableState)state).removeStateObserver(stateSide.getSideObserver(this));
+            }
+            if(state instanceof DestructibleDependency){
+                ((DestructibleDependency)state).removeDestroyObserver(getDestroyObserver());
+            }
+        }
+        stateSide.reset();
+        unlinkDependencies(cleared);
+    }
+
+    /**
+     * Subscribes or un-subscribes the observers of both sides to their "dependency set(s)",
+     * once a stored variation makes this State no longer "active" after being "extinct", or the opposite, see {@link MutationJournal}.
+     * @param observed true to subscribe the observers ; false to un-subscribe them.
+     */
+    void loadObserved(boolean observed){
+        journalDependencies();
+        for(StateDependencyPoint side : new StateDependencyPoint[]{sides.getStartSide(),sides.getEndSide()}){
+            if(!observed){
+                removeAllObservers(side);
+                continue;
+            }
+            for(State state : side.getDependecySet()){
+                if(state instanceof ObservableState){
+                    ((ObservableState)state).addStateObserver(side.getSideObserver(this));
+                    side.setObserved(state,true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the given dependencies to the "dependency set(s)" as {@link GraphLoader} requires : each side is tested once against its new dependencies
+     * and a single "resolution" is performed, against the ranges the dependencies have at that moment.
+     * The dependencies are not observed until {@link #observeDependencies()} is invoked.
+     * @param startDependencies the dependencies to add to the start side.
+     * @param endDependencies the dependencies to add to the end side.
+     * @throws StateException if the "resolution" fails ; if the States are not supported by the side Constraint set.
+     */
+    void loadDependencies(State[] startDependencies, State[] endDependencies) throws StateException {
+        journalDependencies();
+        sides.getStartSide().addDependencies(startDependencies);
+        sides.getEndSide().addDependencies(endDependencies);
+        for(State dependency : startDependencies){
+            linkDependency(dependency);
+        }
+        for(State dependency : endDependencies){
+            linkDependency(dependency);
+        }
+        if(!setValidationRange(sides)){
+            throw new NotAdjustableException("State range can not be adjusted for its dependencies");
+        }
+    }
+
+    /**
+     * Subscribes the observers of both sides to their "dependency set(s)", once loaded through {@link #loadDependencies(State[], State[])}.
+     */
+    void observeDependencies(){
+        for(StateDependencyPoint side : new StateDependencyPoint[]{sides.getStartSide(),sides.getEndSide()}){
+            for(State state : side.getDependecySet()){
+                if(state instanceof ObservableState){
+                    ((ObservableState)state).addStateObserver(side.getSideObserver(this));
+                    side.setObserved(state,true);
+                }
+                addDestroyObserverToDependency(state);
+            }
+        }
+        setResolvableNotification();
+    }
+
+    /**
+     * @return true if the "constraint condition" of the start side allows this State to become "active", see {@link #setResolvableNotification()}.
+     */
+    boolean isActiveAllowed(){
+        return activeAllowed;
+    }
+
+    long getTopologicalIndex(){
+        return topologicalIndex;
+    }
+
+    void setTopologicalIndex(long topologicalIndex){
+        if(this.topologicalIndex != topologicalIndex){
+            this.topologicalIndex = topologicalIndex;
+            PropagationEngine.onReindexed(this);
+        }
+    }
+
+    /**
+     * @return the Dependency State(s) having this State in their "dependency set(s)", whether observing it or not.
+     */
+    Collection<DependencyState> getDependentIndex(){
+        return dependentIndex.keySet();
+    }
+
+    GraphComponent getComponent(){
+        return component;
+    }
+
+    void setComponent(GraphComponent component){
+        this.component = component;
+    }
+
+    /**
+     * Collects the Dependency State(s) connected to this State : its dependencies and its dependents.
+     * @param neighbours the collection to fill.
+     */
+    void collectNeighbours(Collection<DependencyState> neighbours){
+        for(State dependency : getStartTimeDepedencySet()){
+            if(dependency instanceof DependencyState){
+                neighbours.add((DependencyState) dependency);
+            }
+        }
+        for(State dependency : getEndTimeDepedencySet()){
+            if(dependency instanceof DependencyState){
+                neighbours.add((DependencyState) dependency);
+            }
+        }
+        neighbours.addAll(dependentIndex.keySet());
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        TopologicalOrder.reserve(topologicalIndex);
+    }
+
+
 }
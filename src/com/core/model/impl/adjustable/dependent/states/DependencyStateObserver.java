@@ -26,9 +26,22 @@ public class DependencyStateObserver implements StateObserver, Serializable {
 
     @Override
     public void onStateChanged(boolean value) {
+        stateSide.invalidateCondition();
+        stateSide.invalidate();
         dependencyState.setResolvableNotification();
     }
 
+    @Override
+    public void onStateChanged(boolean value, State state) {
+        stateSide.invalidate(state);
+        dependencyState.setResolvableNotification();
+    }
+
+    @Override
+    public void onRangeInvalidated(State state) {
+        stateSide.invalidate(state);
+    }
+
     @Override
     public boolean onRangeChanged(TimeRange timeRange, State state) {
 
@@ -37,21 +50,37 @@ public class DependencyStateObserver implements StateObserver, Serializable {
         }
 
         if(!dependencyState.setValidationRange(dependencyState.getBoundedRange())){
-
-            switch (Side.valueOf(stateSide.getArg())) {
-                case START:
-                    dependencyState.forceRemoveStartTimeDependency(state);
-                    break;
-                case END:
-                    dependencyState.forceRemoveEndTimeDependency(state);
-                    break;
-            }
-
+            forceRemove(state);
             return false;
         }
         return true;
     }
 
+    /**
+     * Performs a "force remotion" of the given dependency from the side observed, after a failed "resolution".
+     * @param state the dependency which caused the "resolution" failure.
+     */
+    void forceRemove(State state){
+        switch (Side.valueOf(stateSide.getArg())) {
+            case START:
+                dependencyState.forceRemoveStartTimeDependency(state);
+                break;
+            case END:
+                dependencyState.forceRemoveEndTimeDependency(state);
+                break;
+        }
+    }
+
+    /**
+     * Tests whether the given State is still an element of the observed side "dependency set",
+     * an observer stays subscribed to the elements of a "force removed" side until it is no longer "active".
+     * @param state the State to test.
+     * @return true if the observed side depends on the given State ; false if not.
+     */
+    public boolean isObserving(State state){
+        return stateSide.containsState(state);
+    }
+
     public DependencyState getDependencyState() {
         return dependencyState;
     }
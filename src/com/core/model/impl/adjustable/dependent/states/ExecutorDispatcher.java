@@ -0,0 +1,203 @@
+package com.core.model.impl.adjustable.dependent.states;
+
+import com.core.model.TimeRange;
+import com.core.model.api.State;
+import com.core.model.api.StateObserver;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A Notification Dispatcher delivering the notifications on an Executor, so the thread changing a State does not wait for the observers.
+ *<p></p>
+ * The notifications are queued and delivered one at a time, in the order they are dispatched, by a single task submitted to the Executor,
+ * so an observer is never invoked concurrently by this dispatcher.
+ *<p></p>
+ * Range variations of the same State for the same observer are collapsed while they are pending :
+ * the observer receives a single notification, in the position of the first one, carrying the latest range.
+ * Variations of the "active" property are never collapsed.
+ *<p></p>
+ * Since the delivery is deferred, the result of {@link StateObserver#onRangeChanged(TimeRange, State)} is ignored.
+ */
+public class ExecutorDispatcher implements NotificationDispatcher {
+
+    private final Executor executor;
+
+    private final Object lock = new Object();
+
+    private final Map<Object,Notification> pending = new LinkedHashMap<>();
+
+    /**
+     * Whether a task draining the pending notifications is submitted or running.
+     */
+    private boolean scheduled;
+
+    public ExecutorDispatcher(Executor executor){
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+
+    @Override
+    public void dispatchRangeChange(StateObserver observer, TimeRange range, State source) {
+        synchronized (lock){
+            RangeKey key = new RangeKey(observer,source);
+            Notification notification = pending.get(key);
+            if(notification != null){
+                notification.range = range;
+                return;
+            }
+            pending.put(key,new Notification(observer,source,range,false));
+            schedule();
+        }
+    }
+
+    @Override
+    public void dispatchStateChange(StateObserver observer, boolean value, State source) {
+        synchronized (lock){
+            pending.put(new Object(),new Notification(observer,source,null,value));
+            schedule();
+        }
+    }
+
+    @Override
+    public boolean awaitQuiescence(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (lock){
+            while (scheduled){
+                long remaining = deadline - System.nanoTime();
+                if(remaining <= 0){
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(lock,remaining);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Returns the number of notifications not yet delivered.
+     * @return the pending notifications.
+     */
+    public int getPendingCount(){
+        synchronized (lock){
+            return pending.size();
+        }
+    }
+
+
+    private void schedule(){
+        if(scheduled){
+            return;
+        }
+        scheduled = true;
+        try {
+            executor.execute(this::drain);
+        }catch (RuntimeException e){
+            scheduled = false;
+            pending.clear();
+            lock.notifyAll();
+            throw e;
+        }
+    }
+
+    /**
+     * Delivers the pending notifications until none is left.
+     * If an observer throws, the task submits itself again for the remaining ones before propagating the exception to the Executor.
+     */
+    private void drain(){
+        Notification notification = null;
+        try {
+            while ((notification = next()) != null){
+                notification.deliver();
+            }
+        }finally {
+            if(notification != null){
+                synchronized (lock){
+                    scheduled = false;
+                    if(pending.isEmpty()){
+                        lock.notifyAll();
+                    }else {
+                        schedule();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes the first pending notification, or ends the drain if there is none.
+     */
+    private Notification next(){
+        synchronized (lock){
+            Iterator<Notification> iterator = pending.values().iterator();
+            if(!iterator.hasNext()){
+                scheduled = false;
+                lock.notifyAll();
+                return null;
+            }
+            Notification notification = iterator.next();
+            iterator.remove();
+            return notification;
+        }
+    }
+
+
+    private static final class Notification {
+
+        private final StateObserver observer;
+
+        private final State source;
+
+        private TimeRange range;
+
+        private final boolean value;
+
+        private Notification(StateObserver observer, State source, TimeRange range, boolean value) {
+            this.observer = observer;
+            this.source = source;
+            this.range = range;
+            this.value = value;
+        }
+
+        private void deliver(){
+            if(range != null){
+                observer.onRangeChanged(range,source);
+            }else {
+                observer.onStateChanged(value,source);
+            }
+        }
+    }
+
+
+    /**
+     * Identifies the range variations of a State for an observer.
+     */
+    private static final class RangeKey {
+
+        private final StateObserver observer;
+
+        private final State source;
+
+        private RangeKey(StateObserver observer, State source) {
+            this.observer = observer;
+            this.source = source;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            RangeKey rangeKey = (RangeKey) o;
+            return observer == rangeKey.observer && source.equals(rangeKey.source);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(observer) + source.hashCode();
+        }
+    }
+}
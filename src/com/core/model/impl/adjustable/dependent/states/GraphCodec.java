@@ -0,0 +1,631 @@
+package com.core.model.impl.adjustable.dependent.states;
+
+import com.core.model.TimeRange;
+import com.core.model.api.State;
+import com.core.model.impl.FixedState;
+import com.core.model.impl.MutableState;
+import com.core.model.impl.Side;
+import com.core.model.impl.Snapshot;
+import com.core.model.impl.adjustable.adjuster.api.AdjusterType;
+import com.core.model.impl.adjustable.dependent.constraint.api.Constraint;
+import com.core.model.impl.adjustable.dependent.constraint.impl.ArgConstraint;
+import com.core.model.impl.adjustable.dependent.constraint.impl.DisjunctionConstraint;
+import com.core.model.impl.adjustable.dependent.constraint.impl.ExactSideConstraint;
+import com.core.model.impl.adjustable.dependent.constraint.impl.NoEndConstraint;
+import com.core.model.impl.adjustable.dependent.exc.StateException;
+import com.core.model.impl.adjustable.dependent.states.impl.NoEndState;
+import com.core.model.impl.adjustable.dependent.states.impl.RangeState;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Checksum;
+
+/**
+ * The Graph Codec stores a graph of State(s) in a compact binary form, and loads it back wiring again the dependencies and their observers.
+ *<p></p>
+ * The State(s) are stored along with every State they depend on, each one identified by its position :
+ * the State(s) which are not Dependency State(s) come first, then the Dependency State(s) in their {@link TopologicalOrder},
+ * so a dependency always precedes its dependents and the graph is loaded in a single pass, each dependency keeping the order without any re-indexing.
+ *<p></p>
+ * Each State is stored as a flags byte (kind, condition value, "extinct", "undefined"), its start as the difference from the previous State start,
+ * its end as the difference from its start, then for Dependency State(s) the Range Adjuster type, the "constraint function" of each side along with its arguments,
+ * and the "dependency set" of each side as the differences between the State position and the positions of its dependencies.
+ * Every number is stored as a variable length integer, the signed ones zig-zag encoded, so the close values of a plan take one or two bytes.
+ *<p></p>
+ * The dependencies are restored as they have been stored, without any "resolution" process : the ranges stored are already consistent with them.
+ *<p></p>
+ * Note on supported State(s) :
+ *<p></p>
+ * [The State(s) supported are the Fixed State(s), the Mutable State(s), the Range State(s) and the No End State(s),
+ * with the Range Adjuster implementations enumerated by {@link AdjusterType} and the "constraint function(s)" extending {@link ArgConstraint},
+ * an Arg Constraint not provided by the library is created again through its public constructor with no arguments and its arguments are restored as String(s).
+ * The State(s) and their observers of any other kind are not stored.]
+ */
+public final class GraphCodec {
+
+    private static final int MAGIC = 0x53544752;
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    static final int FIXED = 0, MUTABLE = 1, RANGE = 2, NO_END = 3;
+
+    static final int KIND_MASK = 0x3, VALUE = 0x4, EXTINCT = 0x8, UNDEFINED = 0x10;
+
+    private static final int NO_CONSTRAINT = 0, NO_END_CONSTRAINT = 1, EXACT_SIDE_CONSTRAINT = 2, DISJUNCTION_CONSTRAINT = 3, OTHER_CONSTRAINT = 4;
+
+    private static final Comparator<DependencyState> BY_INDEX = Comparator.comparingLong(DependencyState::getTopologicalIndex);
+
+    private GraphCodec(){
+    }
+
+
+    /**
+     * Writes the given State(s), and every State they depend on, to the current position of the given channel.
+     *<p></p>
+     * The graph has to be left unchanged meanwhile, e.g. by holding its components through {@link ComponentExecutor#call(java.util.concurrent.Callable, State...)}.
+     * @param states the State(s) to store.
+     * @param channel the channel to write to.
+     * @throws IOException if an I/O error occurs.
+     * @throws IllegalArgumentException if a State, a Range Adjuster or a "constraint function" is not supported.
+     */
+    public static void write(Collection<? extends State> states, FileChannel channel) throws IOException {
+        List<State> ordered = order(states);
+        Map<State,Integer> positions = new IdentityHashMap<>();
+        for(State state : ordered){
+            positions.put(state,positions.size());
+        }
+
+        Output out = new Output(channel);
+        out.writeInt(MAGIC);
+        out.writeByte(FORMAT_VERSION);
+        out.writeVarLong(ordered.size());
+        long previousStart = 0;
+        for(int position = 0; position < ordered.size(); position++){
+            State state = ordered.get(position);
+            int kind = kindOf(state);
+            TimeRange range = state.getRange();
+            out.writeByte((byte) flagsOf(state,kind));
+            out.writeVarLong(zigZag(range.getStart() - previousStart));
+            if(kind != NO_END){
+                out.writeVarLong(zigZag(range.getEnd() - range.getStart()));
+            }
+            previousStart = range.getStart();
+            if(kind == RANGE || kind == NO_END){
+                DependencyState dependencyState = (DependencyState) state;
+                writeAdjuster(out,dependencyState);
+                writeConstraint(out,dependencyState.getStartTimeConstraint());
+                writeDependencies(out,position,dependencyState.getStartTimeDepedencySet(),positions);
+                if(kind == RANGE){
+                    writeConstraint(out,dependencyState.getEndTimeConstraint());
+                    writeDependencies(out,position,dependencyState.getEndTimeDepedencySet(),positions);
+                }
+            }
+        }
+        out.writeVarLong(states.size());
+        for(State state : states){
+            out.writeVarLong(positions.get(state));
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads a graph of State(s) from the current position of the given channel, as written by {@link #write(Collection, FileChannel)}.
+     *<p></p>
+     * The State(s) are created again along with their dependencies and observers, their values are committed at once as a single {@link Snapshot} "write".
+     * The position of the channel is left at the end of the graph.
+     * @param channel the channel to read from.
+     * @return the State(s) given to {@link #write(Collection, FileChannel)}, in the same order.
+     * @throws IOException if an I/O error occurs ; if the content is not a graph written by this codec.
+     */
+    public static List<State> read(FileChannel channel) throws IOException {
+        Input in = new Input(channel);
+        if(in.readInt() != MAGIC){
+            throw new StreamCorruptedException("Not a graph of States");
+        }
+        byte version = in.readByte();
+        if(version != FORMAT_VERSION){
+            throw new StreamCorruptedException("Unsupported format version : " + version);
+        }
+        State[] table = new State[in.readCount()];
+        List<State> roots;
+        Snapshot.beginWrite();
+        try {
+            long previousStart = 0;
+            for(int position = 0; position < table.length; position++){
+                int flags = in.readByte();
+                long start = previousStart + unZigZag(in.readVarLong());
+                long end = (flags & KIND_MASK) == NO_END ? Long.MAX_VALUE : start + unZigZag(in.readVarLong());
+                previousStart = start;
+                table[position] = readState(in,flags,start,end,position,table);
+            }
+            int count = in.readCount();
+            roots = new ArrayList<>(count);
+            for(int i = 0; i < count; i++){
+                roots.add(table[in.readPosition(table.length)]);
+            }
+        }finally {
+            Snapshot.endWrite();
+        }
+        in.release();
+        return roots;
+    }
+
+
+    /**
+     * Collects the given State(s) along with every State they depend on, each dependency before its dependents.
+     */
+    static List<State> order(Collection<? extends State> states){
+        Map<State,Boolean> visited = new IdentityHashMap<>();
+        List<State> plain = new ArrayList<>();
+        List<DependencyState> dependent = new ArrayList<>();
+        Deque<State> toVisit = new ArrayDeque<>(states);
+        while (!toVisit.isEmpty()){
+            State state = toVisit.pop();
+            if(visited.put(state,Boolean.TRUE) != null){
+                continue;
+            }
+            if(state instanceof DependencyState){
+                dependent.add((DependencyState) state);
+                for(State dependency : ((DependencyState) state).getStartTimeDepedencySet()){
+                    toVisit.push(dependency);
+                }
+                for(State dependency : ((DependencyState) state).getEndTimeDepedencySet()){
+                    toVisit.push(dependency);
+                }
+            }else {
+                plain.add(state);
+            }
+        }
+        dependent.sort(BY_INDEX);
+        List<State> ordered = new ArrayList<>(plain.size() + dependent.size());
+        ordered.addAll(plain);
+        ordered.addAll(dependent);
+        return ordered;
+    }
+
+    /**
+     * Creates a State of the kind given by the flags, with its initial values.
+     * @param adjusterType the Range Adjuster type of a Dependency State, ignored for the other kinds.
+     */
+    static State createState(int flags, long start, long end, AdjusterType adjusterType){
+        boolean undefined = (flags & UNDEFINED) != 0;
+        switch (flags & KIND_MASK){
+            case FIXED:
+                return new FixedState(new TimeRange(start,end),undefined);
+            case MUTABLE:
+                return new MutableState(new TimeRange(start,end),undefined);
+            case RANGE:
+                return undefined ? RangeState.getUndefinedRange(start,end,adjusterType.newAdjuster()) : RangeState.getDefinedRange(start,end,adjusterType.newAdjuster());
+            default:
+                NoEndState state = NoEndState.getStartTimeRange(start,undefined);
+                if(adjusterType != AdjusterType.DYNAMIC){
+                    state.setAdjuster(adjusterType.newAdjuster());
+                }
+                return state;
+        }
+    }
+
+    static int flagsOf(State state, int kind){
+        return kind | (state.getStateValue() ? VALUE : 0) | (((FixedState) state).isExtinct() ? EXTINCT : 0) | (state.isUndefined() ? UNDEFINED : 0);
+    }
+
+    static int kindOf(State state){
+        Class<?> type = state.getClass();
+        if(type == FixedState.class){
+            return FIXED;
+        }
+        if(type == MutableState.class){
+            return MUTABLE;
+        }
+        if(type == RangeState.class){
+            return RANGE;
+        }
+        if(type == NoEndState.class){
+            return NO_END;
+        }
+        throw new IllegalArgumentException("State not supported : " + type.getName());
+    }
+
+    static void writeAdjuster(Output out, DependencyState state) throws IOException {
+        AdjusterType adjusterType = AdjusterType.typeOf(state.getAdjuster());
+        if(adjusterType == null){
+            throw new IllegalArgumentException("Range Adjuster not supported : " + state.getAdjuster());
+        }
+        out.writeByte((byte) adjusterType.ordinal());
+    }
+
+    static AdjusterType readAdjuster(Input in) throws IOException {
+        int adjuster = in.readByte();
+        if(adjuster < 0 || adjuster >= AdjusterType.values().length){
+            throw new StreamCorruptedException("Unknown Range Adjuster type : " + adjuster);
+        }
+        return AdjusterType.of(adjuster);
+    }
+
+    static void writeConstraint(Output out, Constraint constraint) throws IOException {
+        if(constraint == null){
+            out.writeByte((byte) NO_CONSTRAINT);
+            return;
+        }
+        if(!(constraint instanceof ArgConstraint)){
+            throw new IllegalArgumentException("Constraint not supported : " + constraint.getClass().getName());
+        }
+        Class<?> type = constraint.getClass();
+        if(type == NoEndConstraint.class){
+            out.writeByte((byte) NO_END_CONSTRAINT);
+        }else if(type == ExactSideConstraint.class){
+            out.writeByte((byte) EXACT_SIDE_CONSTRAINT);
+        }else if(type == DisjunctionConstraint.class){
+            out.writeByte((byte) DISJUNCTION_CONSTRAINT);
+        }else {
+            out.writeByte((byte) OTHER_CONSTRAINT);
+            out.writeString(type.getName());
+        }
+        Object[] args = ((ArgConstraint) constraint).getArgs();
+        out.writeVarLong(args.length);
+        for(Object arg : args){
+            out.writeString(arg == null ? null : String.valueOf(arg));
+        }
+    }
+
+    private static void writeDependencies(Output out, int position, State[] dependencies, Map<State,Integer> positions) throws IOException {
+        out.writeVarLong(dependencies.length);
+        for(State dependency : dependencies){
+            out.writeVarLong(position - positions.get(dependency));
+        }
+    }
+
+    private static State readState(Input in, int flags, long start, long end, int position, State[] table) throws IOException {
+        boolean value = (flags & VALUE) != 0;
+        boolean extinct = (flags & EXTINCT) != 0;
+        int kind = flags & KIND_MASK;
+        if(kind == FIXED || kind == MUTABLE){
+            FixedState state = (FixedState) createState(flags,start,end,null);
+            if(extinct){
+                state.setStateValue(true);
+            }
+            if(!value){
+                state.setStateValue(false);
+            }
+            return state;
+        }
+
+        DependencyState state = (DependencyState) createState(flags,start,end,readAdjuster(in));
+        state.loadValue(value,extinct);
+        try {
+            Constraint startConstraint = readConstraint(in);
+            if(startConstraint != null){
+                state.setStartTimeConstraint(startConstraint);
+            }
+            readDependencies(in,state,Side.START,position,table);
+            if(kind == RANGE){
+                Constraint endConstraint = readConstraint(in);
+                if(endConstraint != null){
+                    state.setEndTimeConstraint(endConstraint);
+                }
+                readDependencies(in,state,Side.END,position,table);
+            }
+        } catch (StateException | RuntimeException e) {
+            throw new IOException("The stored dependencies can not be restored",e);
+        }
+        state.setResolvableNotification();
+        return state;
+    }
+
+    static Constraint readConstraint(Input in) throws IOException {
+        int kind = in.readByte();
+        ArgConstraint constraint;
+        switch (kind){
+            case NO_CONSTRAINT:
+                return null;
+            case NO_END_CONSTRAINT:
+                constraint = new NoEndConstraint();
+                break;
+            case EXACT_SIDE_CONSTRAINT:
+                constraint = new ExactSideConstraint();
+                break;
+            case DISJUNCTION_CONSTRAINT:
+                constraint = new DisjunctionConstraint();
+                break;
+            case OTHER_CONSTRAINT:
+                String name = in.readString();
+                try {
+                    constraint = Class.forName(name).asSubclass(ArgConstraint.class).getConstructor().newInstance();
+                } catch (ReflectiveOperationException | ClassCastException e) {
+                    throw new IOException("Constraint can not be created : " + name,e);
+                }
+                break;
+            default:
+                throw new StreamCorruptedException("Unknown constraint kind : " + kind);
+        }
+        Object[] args = new Object[in.readCount()];
+        for(int i = 0; i < args.length; i++){
+            args[i] = in.readString();
+        }
+        constraint.setArgs(args);
+        return constraint;
+    }
+
+    private static void readDependencies(Input in, DependencyState state, Side side, int position, State[] table) throws IOException, StateException {
+        int count = in.readCount();
+        for(int i = 0; i < count; i++){
+            long distance = in.readVarLong();
+            if(distance < 1 || distance > position){
+                throw new StreamCorruptedException("Dependency out of range : " + distance);
+            }
+            state.loadDependency(side,table[(int) (position - distance)]);
+        }
+    }
+
+    static long zigZag(long n){
+        return (n << 1) ^ (n >> 63);
+    }
+
+    static long unZigZag(long n){
+        return (n >>> 1) ^ -(n & 1);
+    }
+
+
+    /**
+     * Buffers the bytes written and flushes them to the channel once the buffer is full,
+     * without a channel the buffer grows instead, until its content is written somewhere else.
+     */
+    static final class Output {
+
+        private final FileChannel channel;
+
+        private ByteBuffer buffer;
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        }
+
+        Output(int capacity) {
+            this.channel = null;
+            this.buffer = ByteBuffer.allocate(capacity);
+        }
+
+        private void ensure(int size) throws IOException {
+            if(buffer.remaining() >= size){
+                return;
+            }
+            if(channel != null){
+                flush();
+                return;
+            }
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2,buffer.position() + size));
+            buffer.flip();
+            grown.put(buffer);
+            buffer = grown;
+        }
+
+        void flush() throws IOException {
+            writeTo(channel);
+        }
+
+        /**
+         * Writes the bytes buffered to the given channel, then clears the buffer.
+         */
+        void writeTo(FileChannel target) throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()){
+                target.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        /**
+         * @return the number of bytes buffered.
+         */
+        int size(){
+            return buffer.position();
+        }
+
+        void clear(){
+            buffer.clear();
+        }
+
+        /**
+         * Appends the bytes buffered by the given output.
+         */
+        void write(Output other) throws IOException {
+            ensure(other.size());
+            ByteBuffer source = other.buffer.duplicate();
+            source.flip();
+            buffer.put(source);
+        }
+
+        /**
+         * Updates the given checksum with the bytes buffered.
+         */
+        void update(Checksum checksum){
+            checksum.update(buffer.array(),buffer.arrayOffset(),buffer.position());
+        }
+
+        void writeByte(byte b) throws IOException {
+            ensure(1);
+            buffer.put(b);
+        }
+
+        void writeInt(int n) throws IOException {
+            ensure(4);
+            buffer.putInt(n);
+        }
+
+        /**
+         * Writes an unsigned number in groups of 7 bits, the lowest first, the highest bit of each byte set if more follow.
+         */
+        void writeVarLong(long n) throws IOException {
+            ensure(10);
+            while ((n & ~0x7FL) != 0){
+                buffer.put((byte) ((n & 0x7F) | 0x80));
+                n >>>= 7;
+            }
+            buffer.put((byte) n);
+        }
+
+        /**
+         * Writes the length of the UTF-8 bytes plus one, 0 for null, followed by the bytes.
+         */
+        void writeString(String s) throws IOException {
+            if(s == null){
+                writeVarLong(0);
+                return;
+            }
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            int offset = 0;
+            while (offset < bytes.length){
+                ensure(1);
+                int length = Math.min(buffer.remaining(),bytes.length - offset);
+                buffer.put(bytes,offset,length);
+                offset += length;
+            }
+        }
+    }
+
+
+    /**
+     * Buffers the bytes read from the channel, filling the buffer again once consumed, or reads the bytes of a given buffer.
+     */
+    static final class Input {
+
+        private final FileChannel channel;
+
+        private final ByteBuffer buffer;
+
+        Input(FileChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            buffer.flip();
+        }
+
+        /**
+         * Reads the given bytes only.
+         */
+        Input(ByteBuffer bytes) {
+            this.channel = null;
+            this.buffer = bytes;
+        }
+
+        private void ensure(int size) throws IOException {
+            if(buffer.remaining() >= size){
+                return;
+            }
+            if(channel == null){
+                throw new EOFException("Unexpected end of the graph");
+            }
+            buffer.compact();
+            while (buffer.position() < size){
+                if(channel.read(buffer) < 0){
+                    buffer.flip();
+                    throw new EOFException("Unexpected end of the graph");
+                }
+            }
+            buffer.flip();
+        }
+
+        /**
+         * Moves the position of the channel back to the end of the bytes consumed.
+         */
+        void release() throws IOException {
+            channel.position(channel.position() - buffer.remaining());
+            buffer.position(buffer.limit());
+        }
+
+        byte readByte() throws IOException {
+            ensure(1);
+            return buffer.get();
+        }
+
+        int readInt() throws IOException {
+            ensure(4);
+            return buffer.getInt();
+        }
+
+        long readVarLong() throws IOException {
+            long n = 0;
+            for(int shift = 0; shift < 64; shift += 7){
+                byte b = readByte();
+                n |= (long) (b & 0x7F) << shift;
+                if((b & 0x80) == 0){
+                    return n;
+                }
+            }
+            throw new StreamCorruptedException("Malformed variable length number");
+        }
+
+        int readCount() throws IOException {
+            long count = readVarLong();
+            if(count < 0 || count > Integer.MAX_VALUE){
+                throw new StreamCorruptedException("Malformed count : " + count);
+            }
+            return (int) count;
+        }
+
+        int readPosition(int size) throws IOException {
+            long position = readVarLong();
+            if(position < 0 || position >= size){
+                throw new StreamCorruptedException("State out of range : " + position);
+            }
+            return (int) position;
+        }
+
+        /**
+         * @return the position of the channel following the bytes consumed.
+         */
+        long position() throws IOException {
+            return channel.position() - buffer.remaining();
+        }
+
+        /**
+         * Reads the given number of bytes.
+         */
+        ByteBuffer readBytes(int size) throws IOException {
+            ByteBuffer bytes = ByteBuffer.allocate(size);
+            while (bytes.hasRemaining()){
+                ensure(1);
+                ByteBuffer chunk = buffer.duplicate();
+                chunk.limit(chunk.position() + Math.min(chunk.remaining(),bytes.remaining()));
+                bytes.put(chunk);
+                buffer.position(chunk.position());
+            }
+            bytes.flip();
+            return bytes;
+        }
+
+        String readString() throws IOException {
+            long length = readVarLong();
+            if(length == 0){
+                return null;
+            }
+            if(length < 0 || length - 1 > Integer.MAX_VALUE){
+                throw new StreamCorruptedException("Malformed string length : " + length);
+            }
+            byte[] bytes = new byte[(int) (length - 1)];
+            int offset = 0;
+            while (offset < bytes.length){
+                ensure(1);
+                int size = Math.min(buffer.remaining(),bytes.length - offset);
+                buffer.get(bytes,offset,size);
+                offset += size;
+            }
+            return new String(bytes,StandardCharsets.UTF_8);
+        }
+    }
+}
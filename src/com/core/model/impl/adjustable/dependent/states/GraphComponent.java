@@ -0,0 +1,260 @@
+package com.core.model.impl.adjustable.dependent.states;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A node of the union-find structure tracking the connected components of the Dependency State(s) graph,
+ * where two Dependency State(s) are connected if one of them is in a "dependency set" of the other.
+ *<p></p>
+ * Each Dependency State refers to a node, the root reached from it identifies its component and owns the locks guarding it, see {@link ComponentExecutor} :
+ * a lock held by the thread changing the component, and a Stamped Lock held in write mode meanwhile, validating the optimistic reads.
+ * Adding a dependency joins the components of the two States. Removing the last dependency between two States
+ * looks for another path between them, searching from both alternately, and if there is none the side visited entirely is moved to a new component.
+ *<p></p>
+ * Roots are only joined while the locks of both are held, and the States moved by a split are only the ones of the component locked,
+ * so a thread can find the root of any State without locking : the parent of a node is always one of its ancestors.
+ */
+final class GraphComponent implements Serializable {
+
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+
+    /**
+     * Identifier of this node, the locks of many components are always acquired in the order of their identifiers.
+     */
+    private final long id = NEXT_ID.getAndIncrement();
+
+    private volatile GraphComponent parent;
+
+    private int rank;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Held in write mode along with the lock, so the readers can validate their optimistic reads.
+     */
+    private final StampedLock guard = new StampedLock();
+
+    private transient long writeStamp;
+
+    private GraphComponent(){
+    }
+
+    /**
+     * Creates the component of a single State, locked by the task running on the current thread if any.
+     * @return a new root.
+     */
+    static GraphComponent create(){
+        GraphComponent component = new GraphComponent();
+        ComponentExecutor.onComponentCreated(component);
+        return component;
+    }
+
+    /**
+     * Returns the root of the tree this node belongs to, halving the path walked.
+     * @return the root identifying the component.
+     */
+    GraphComponent find(){
+        GraphComponent node = this;
+        GraphComponent next;
+        while ((next = node.parent) != null){
+            GraphComponent grandParent = next.parent;
+            if(grandParent != null){
+                node.parent = grandParent;
+            }
+            node = next;
+        }
+        return node;
+    }
+
+    boolean isRoot(){
+        return parent == null;
+    }
+
+    long getId(){
+        return id;
+    }
+
+    /**
+     * Acquires the lock of this component, the first acquisition by a thread also takes the guard in write mode.
+     */
+    void lock(){
+        lock.lock();
+        if(lock.getHoldCount() == 1){
+            writeStamp = guard.writeLock();
+        }
+    }
+
+    void unlock(){
+        if(lock.getHoldCount() == 1){
+            guard.unlockWrite(writeStamp);
+        }
+        lock.unlock();
+    }
+
+    boolean isHeldByCurrentThread(){
+        return lock.isHeldByCurrentThread();
+    }
+
+    StampedLock getGuard(){
+        return guard;
+    }
+
+    /**
+     * Joins the components of the given States, once one of them is added to a "dependency set" of the other.
+     * @param dependent the Dependency State depending on the other.
+     * @param dependency the Dependency State added.
+     */
+    static void union(DependencyState dependent, DependencyState dependency){
+        GraphComponent x = dependent.getComponent().find();
+        GraphComponent y = dependency.getComponent().find();
+        if(x == y){
+            return;
+        }
+        if(x.rank < y.rank){
+            GraphComponent swap = x;
+            x = y;
+            y = swap;
+        }
+        y.parent = x;
+        if(x.rank == y.rank){
+            x.rank++;
+        }
+    }
+
+    /**
+     * Splits the component of the given States if they are no longer connected, once the last dependency between them is removed.
+     * @param dependent the Dependency State which depended on the other.
+     * @param dependency the Dependency State removed.
+     */
+    static void split(DependencyState dependent, DependencyState dependency){
+        split(Arrays.asList(dependent,dependency));
+    }
+
+    /**
+     * Splits the component of the given States in as many components as the groups of them still connected, once many dependencies among them are removed.
+     *<p></p>
+     * A search is started from each State and the searches are advanced alternately, one State at a time :
+     * two searches reaching each other are merged, a search ending without reaching another one has visited a whole group, which is moved to a new component.
+     * The last search left keeps the component, so the cost is bounded by the size of the groups moved.
+     * @param endpoints the Dependency State(s) whose dependencies are removed, and the ones removed.
+     */
+    static void split(Collection<DependencyState> endpoints){
+        Map<DependencyState,Search> owners = new IdentityHashMap<>();
+        List<Search> searches = new LinkedList<>();
+        for(DependencyState endpoint : endpoints){
+            if(!owners.containsKey(endpoint)){
+                Search search = new Search(endpoint);
+                owners.put(endpoint,search);
+                searches.add(search);
+            }
+        }
+        List<DependencyState> neighbours = new ArrayList<>();
+        int running = searches.size();
+        while (running > 1){
+            Iterator<Search> iterator = searches.iterator();
+            while (iterator.hasNext() && running > 1){
+                Search search = iterator.next();
+                if(search.merged != null){
+                    iterator.remove();
+                }else if(search.toVisit.isEmpty()){
+                    detach(search.visited);
+                    iterator.remove();
+                    running--;
+                }else {
+                    running -= visitNext(search,owners,neighbours);
+                }
+            }
+        }
+    }
+
+    /**
+     * Visits the next State of a search, merging into it the searches it reaches.
+     * @return the number of searches merged.
+     */
+    private static int visitNext(Search search, Map<DependencyState,Search> owners, List<DependencyState> neighbours){
+        int merged = 0;
+        neighbours.clear();
+        search.toVisit.pop().collectNeighbours(neighbours);
+        for(DependencyState neighbour : neighbours){
+            Search owner = owners.get(neighbour);
+            if(owner == null){
+                owners.put(neighbour,search);
+                search.visited.add(neighbour);
+                search.toVisit.push(neighbour);
+            }else {
+                owner = owner.resolve();
+                if(owner != search){
+                    search.absorb(owner);
+                    merged++;
+                }
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Moves the given States, a whole group of the split, to a new component.
+     */
+    private static void detach(List<DependencyState> group){
+        GraphComponent component = create();
+        for(DependencyState state : group){
+            state.setComponent(component);
+        }
+    }
+
+    /**
+     * A search of the split, along with the States it visited and the ones left to visit.
+     */
+    private static final class Search {
+
+        private final List<DependencyState> visited = new ArrayList<>();
+
+        private final Deque<DependencyState> toVisit = new ArrayDeque<>();
+
+        /**
+         * The search this one has been merged into, null if still running.
+         */
+        private Search merged;
+
+        private Search(DependencyState endpoint) {
+            visited.add(endpoint);
+            toVisit.push(endpoint);
+        }
+
+        private Search resolve(){
+            Search search = this;
+            while (search.merged != null){
+                search = search.merged;
+            }
+            return search;
+        }
+
+        private void absorb(Search other){
+            visited.addAll(other.visited);
+            toVisit.addAll(other.toVisit);
+            other.visited.clear();
+            other.toVisit.clear();
+            other.merged = this;
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        NEXT_ID.accumulateAndGet(id + 1,Math::max);
+    }
+}
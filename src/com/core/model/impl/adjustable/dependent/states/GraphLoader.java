@@ -0,0 +1,274 @@
+package com.core.model.impl.adjustable.dependent.states;
+
+import com.core.model.TimeRange;
+import com.core.model.api.State;
+import com.core.model.impl.Side;
+import com.core.model.impl.Snapshot;
+import com.core.model.impl.adjustable.dependent.constraint.api.Constraint;
+import com.core.model.impl.adjustable.dependent.exc.LoopDependencyException;
+import com.core.model.impl.adjustable.dependent.exc.StateException;
+
+/**
+ * The Graph Loader adds many dependencies at once to a set of State(s), in a time linear in the size of the graph.
+ *<p></p>
+ * Adding the dependencies one at a time validates each one against a partially built graph : the "loop dependencies" check, the "constraint function",
+ * the "resolution" process and the observers subscription run for every dependency.
+ * The Graph Loader instead builds the adjacency of the graph in one pass, detects the loops once through a single topological sort,
+ * then adds the "dependency set(s)" of each Dependency State in topological order, performing a single "resolution" against dependencies already resolved,
+ * and only once every State is resolved subscribes the observers.
+ *<p></p>
+ * The dependencies are given as three arrays of the same length, the dependency k meaning that the State at position {@code dependents[k]}
+ * depends on the State at position {@code dependencies[k]} through its {@code sides[k]} side. The dependents have to be Dependency State(s)
+ * not taking part in any dependency yet, while the other State(s) can be any State.
+ *<p></p>
+ * Note on failures :
+ *<p></p>
+ * [The graph is validated before any State is changed. If afterwards a "constraint function" does not support its "dependency set", or a "resolution" fails,
+ * the dependencies loaded are removed and the dependents are brought back to their ranges and to the "constraint functions" they had.
+ * A batch, see {@link PropagationEngine#beginBatch()}, is not used for that purpose since it would keep every variation until the end of the load.]
+ *<p></p>
+ * Note on concurrency: the State(s) loaded must not be in use by other threads until the load is completed, their components are not locked.
+ */
+public final class GraphLoader {
+
+    private GraphLoader(){
+    }
+
+
+    /**
+     * Adds the given dependencies to the given State(s), see the notes above.
+     * @param states the State(s) of the graph.
+     * @param dependents the position of the dependent State of each dependency.
+     * @param dependencies the position of the State depended on by each dependency.
+     * @param sides the side of the dependent State each dependency belongs to.
+     * @throws LoopDependencyException if the dependencies form a loop.
+     * @throws StateException if a "constraint function" does not support its "dependency set" ; if a "resolution" fails.
+     * @throws IllegalArgumentException if the arrays have different lengths ; if a position is out of bounds ;
+     * if a dependent is not a Dependency State, or, it takes part in a dependency already.
+     * @throws IllegalStateException if a side has no "constraint function".
+     */
+    public static void load(State[] states, int[] dependents, int[] dependencies, Side[] sides) throws StateException {
+        load(states,dependents,dependencies,sides,null);
+    }
+
+    /**
+     * Adds the given dependencies to the given State(s), as {@link #load(State[], int[], int[], Side[])} does,
+     * setting first the given "constraint function" of each dependency side which has none, as {@link com.core.util.States#setConstraintAndDepend} does.
+     * @param states the State(s) of the graph.
+     * @param dependents the position of the dependent State of each dependency.
+     * @param dependencies the position of the State depended on by each dependency.
+     * @param sides the side of the dependent State each dependency belongs to.
+     * @param constraints the "constraint function" of each dependency side, or null to keep the one set ; null if no "constraint function" has to be set.
+     * @throws LoopDependencyException if the dependencies form a loop.
+     * @throws StateException if a "constraint function" does not support its "dependency set" ; if a "resolution" fails.
+     * @throws IllegalArgumentException if the arrays have different lengths ; if a position is out of bounds ;
+     * if a dependent is not a Dependency State, or, it takes part in a dependency already.
+     * @throws IllegalStateException if a side has no "constraint function".
+     */
+    public static void load(State[] states, int[] dependents, int[] dependencies, Side[] sides, Constraint[] constraints) throws StateException {
+        int size = states.length;
+        int edges = dependents.length;
+        if(dependencies.length != edges || sides.length != edges || (constraints != null && constraints.length != edges)){
+            throw new IllegalArgumentException("The dependency arrays have different lengths");
+        }
+
+        int[] inDegree = new int[size];
+        int[] outDegree = new int[size];
+        for(int k = 0; k < edges; k++){
+            int dependent = dependents[k];
+            int dependency = dependencies[k];
+            if(dependent < 0 || dependent >= size || dependency < 0 || dependency >= size){
+                throw new IllegalArgumentException("Dependency position out of bounds");
+            }
+            if(dependent == dependency){
+                throw new LoopDependencyException("State has a circular dependency");
+            }
+            inDegree[dependent]++;
+            outDegree[dependency]++;
+        }
+        for(int i = 0; i < size; i++){
+            if(inDegree[i] > 0){
+                if(!(states[i] instanceof DependencyState)){
+                    throw new IllegalArgumentException("Only a Dependency State can depend on other States");
+                }
+                DependencyState state = (DependencyState) states[i];
+                if(state.getStartTimeDepedencySet().length > 0 || state.getEndTimeDepedencySet().length > 0 || !state.getDependentIndex().isEmpty()){
+                    throw new IllegalArgumentException("A dependent State takes part in a dependency already");
+                }
+            }
+        }
+
+        int[] outgoing = adjacency(outDegree,dependencies,dependents);
+        int[] incoming = adjacency(inDegree,dependents,null);
+        int[] order = sort(size,outDegree,inDegree.clone(),outgoing);
+
+        loadSorted(states,order,inDegree,incoming,dependents,dependencies,sides,constraints);
+    }
+
+    /**
+     * Builds the adjacency of the graph in compressed form : the entries of State i are at positions [offsets(i) ; offsets(i+1)) of the array returned,
+     * the offsets being the running sums of the given degrees.
+     * @param degree the number of entries of each State.
+     * @param owners the State each dependency is an entry of.
+     * @param targets the State stored for each dependency, null to store the dependency position itself.
+     * @return the entries, grouped by State, in the order of the dependencies.
+     */
+    private static int[] adjacency(int[] degree, int[] owners, int[] targets){
+        int[] next = offsets(degree);
+        int[] entries = new int[owners.length];
+        for(int k = 0; k < owners.length; k++){
+            entries[next[owners[k]]++] = targets == null ? k : targets[k];
+        }
+        return entries;
+    }
+
+    private static int[] offsets(int[] degree){
+        int[] offsets = new int[degree.length + 1];
+        for(int i = 0; i < degree.length; i++){
+            offsets[i + 1] = offsets[i] + degree[i];
+        }
+        return offsets;
+    }
+
+    /**
+     * Sorts the State(s) so that each one comes after every State it depends on (Kahn algorithm).
+     * @return the positions of the State(s) in topological order.
+     * @throws LoopDependencyException if the dependencies form a loop.
+     */
+    private static int[] sort(int size, int[] outDegree, int[] pending, int[] outgoing) throws LoopDependencyException {
+        int[] offsets = offsets(outDegree);
+        int[] order = new int[size];
+        int head = 0, tail = 0;
+        for(int i = 0; i < size; i++){
+            if(pending[i] == 0){
+                order[tail++] = i;
+            }
+        }
+        while (head < tail){
+            int i = order[head++];
+            for(int k = offsets[i]; k < offsets[i + 1]; k++){
+                if(--pending[outgoing[k]] == 0){
+                    order[tail++] = outgoing[k];
+                }
+            }
+        }
+        if(tail < size){
+            throw new LoopDependencyException("State has a circular dependency");
+        }
+        return order;
+    }
+
+    /**
+     * Sets the "constraint functions", then resolves each dependent in topological order, then subscribes the observers.
+     * If a "resolution" fails, the dependents are brought back to their ranges and to the "constraint functions" they had.
+     */
+    private static void loadSorted(State[] states, int[] order, int[] inDegree, int[] incoming, int[] dependents, int[] dependencies, Side[] sides, Constraint[] constraints) throws StateException {
+        TimeRange[] ranges = new TimeRange[states.length];
+        for(int i = 0; i < states.length; i++){
+            if(inDegree[i] > 0){
+                ranges[i] = states[i].getRange();
+            }
+        }
+        boolean[] constraintsSet = new boolean[2 * states.length];
+        int[] offsets = offsets(inDegree);
+        int[] startMarks = new int[states.length];
+        int[] endMarks = new int[states.length];
+        try {
+            if(constraints != null){
+                for(int k = 0; k < dependents.length; k++){
+                    if(constraints[k] != null){
+                        DependencyState state = (DependencyState) states[dependents[k]];
+                        if(sides[k] == Side.START){
+                            constraintsSet[2 * dependents[k]] |= state.setStartTimeConstraint(constraints[k]);
+                        }else {
+                            constraintsSet[2 * dependents[k] + 1] |= state.setEndTimeConstraint(constraints[k]);
+                        }
+                    }
+                }
+            }
+
+            for(int i : order){
+                if(inDegree[i] == 0){
+                    continue;
+                }
+                int startCount = 0, endCount = 0;
+                for(int k = offsets[i]; k < offsets[i + 1]; k++){
+                    int edge = incoming[k];
+                    int[] marks = sides[edge] == Side.START ? startMarks : endMarks;
+                    if(marks[dependencies[edge]] != i + 1){
+                        marks[dependencies[edge]] = i + 1;
+                        if(sides[edge] == Side.START){
+                            startCount++;
+                        }else {
+                            endCount++;
+                        }
+                    }
+                }
+                State[] startDependencies = new State[startCount];
+                State[] endDependencies = new State[endCount];
+                startCount = 0;
+                endCount = 0;
+                for(int k = offsets[i]; k < offsets[i + 1]; k++){
+                    int edge = incoming[k];
+                    int[] marks = sides[edge] == Side.START ? startMarks : endMarks;
+                    if(marks[dependencies[edge]] == i + 1){
+                        marks[dependencies[edge]] = -(i + 1);
+                        if(sides[edge] == Side.START){
+                            startDependencies[startCount++] = states[dependencies[edge]];
+                        }else {
+                            endDependencies[endCount++] = states[dependencies[edge]];
+                        }
+                    }
+                }
+                DependencyState state = (DependencyState) states[i];
+                state.setTopologicalIndex(TopologicalOrder.nextIndex());
+                Snapshot.beginWrite();
+                try {
+                    state.loadDependencies(startDependencies,endDependencies);
+                }finally {
+                    Snapshot.endWrite();
+                }
+            }
+        }catch (StateException | RuntimeException e){
+            for(int i = order.length - 1; i >= 0; i--){
+                if(inDegree[order[i]] > 0){
+                    unload((DependencyState) states[order[i]],ranges[order[i]],constraintsSet[2 * order[i]],constraintsSet[2 * order[i] + 1]);
+                }
+            }
+            throw e;
+        }
+
+        for(int i : order){
+            if(inDegree[i] > 0){
+                ((DependencyState) states[i]).observeDependencies();
+            }
+        }
+    }
+
+    /**
+     * Removes the dependencies loaded into the given State, along with the "constraint functions" set by the load, and restores its range.
+     */
+    private static void unload(DependencyState state, TimeRange range, boolean startConstraintSet, boolean endConstraintSet){
+        Snapshot.beginWrite();
+        try {
+            unloadSide(state,Side.START,state.getStartTimeDepedencySet(),startConstraintSet);
+            unloadSide(state,Side.END,state.getEndTimeDepedencySet(),endConstraintSet);
+            state.setResolvableNotification();
+            if(!state.getRange().equals(range)){
+                state.setTime(range.getStart(),range.getEnd());
+            }
+        }finally {
+            Snapshot.endWrite();
+        }
+    }
+
+    private static void unloadSide(DependencyState state, Side side, State[] dependencies, boolean constraintSet){
+        if(constraintSet){
+            state.unloadSide(side);
+            return;
+        }
+        for(State dependency : dependencies){
+            state.unloadDependency(side,dependency);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.core.model.impl.adjustable.dependent.states;
+
+/**
+ * Indicates when the "write(s)" recorded by a {@link MutationJournal} are forced to the storage.
+ */
+public enum JournalSync {
+    /**
+     * Each "write" waits until it is forced to the storage before its commit returns.
+     * The "write(s)" committed meanwhile by other threads are forced along with it, so a single force serves the whole group.
+     */
+    ALWAYS,
+    /**
+     * The "write(s)" are forced at most once per sync interval, by the first commit following the interval.
+     * A crash loses at most the "write(s)" of the last interval.
+     */
+    INTERVAL,
+    /**
+     * The "write(s)" are written once enough of them are buffered, forcing them is left to the operating system.
+     * A crash loses the "write(s)" still buffered, and the ones not yet stored by the operating system.
+     */
+    NONE;
+}
@@ -0,0 +1,889 @@
+package com.core.model.impl.adjustable.dependent.states;
+
+import com.core.model.TimeRange;
+import com.core.model.api.State;
+import com.core.model.impl.CommitListener;
+import com.core.model.impl.FixedState;
+import com.core.model.impl.Side;
+import com.core.model.impl.Snapshot;
+import com.core.model.impl.adjustable.adjuster.api.AdjusterType;
+import com.core.model.impl.adjustable.dependent.constraint.api.Constraint;
+import com.core.model.impl.adjustable.dependent.constraint.impl.ArgConstraint;
+import com.core.model.impl.adjustable.dependent.exc.StateException;
+import com.core.model.impl.adjustable.dependent.states.GraphCodec.Input;
+import com.core.model.impl.adjustable.dependent.states.GraphCodec.Output;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+import static com.core.model.impl.adjustable.dependent.states.GraphCodec.EXTINCT;
+import static com.core.model.impl.adjustable.dependent.states.GraphCodec.KIND_MASK;
+import static com.core.model.impl.adjustable.dependent.states.GraphCodec.NO_END;
+import static com.core.model.impl.adjustable.dependent.states.GraphCodec.RANGE;
+import static com.core.model.impl.adjustable.dependent.states.GraphCodec.VALUE;
+
+/**
+ * The Mutation Journal records each "write" committed on a graph of State(s) to an append-only file, so the graph can be recovered after a crash
+ * by loading its last checkpoint, see {@link GraphCodec}, and replaying the "write(s)" recorded since.
+ *<p></p>
+ * The journal receives the State(s) changed by each {@link Snapshot} commit, see {@link CommitListener} : a "write" is recorded only once its "resolution"
+ * process succeeded, or has been rolled back. Each "write" is recorded as the after-image of the State(s) it changed : the range, the condition value,
+ * the Range Adjuster type, the "constraint function" and the "dependency set" of each side, so a mutation, e.g. a setTime, a setStateValue,
+ * an added or removed dependency, a "constraint function" set or a destroy, is recorded along with the propagation it caused.
+ * The replay then restores the values as they have been committed, without any "resolution" process nor validation.
+ *<p></p>
+ * The State(s) recorded are the ones given at creation, every State they depend on, and every Dependency State connected later to a recorded State,
+ * each one identified by the order of its registration. The State(s) not reachable this way are ignored.
+ *<p></p>
+ * Each "write" is recorded as a frame : its length, its CRC-32C checksum, its sequence number and the records of the State(s) changed.
+ * The frames are appended to a buffer while the commit holds its lock, and written by the thread committing once the lock is released,
+ * according to the {@link JournalSync} policy : a single thread writes at a time, the frames appended meanwhile are written and forced along with its own ones (group commit).
+ * On recovery, a frame partially written or whose checksum does not match ends the journal, and is truncated.
+ *<p></p>
+ * Note on quiescence :
+ *<p></p>
+ * [Creating the journal, taking a checkpoint and recovering hold the graph as it is : no State recorded must be changed meanwhile.
+ * Only one journal can receive the commits at a time.]
+ */
+public final class MutationJournal implements CommitListener, Closeable {
+
+    private static final int CHECKPOINT_MAGIC = 0x534a4350;
+
+    private static final int CREATED = 0x20;
+
+    private static final int FRAME_HEADER = 8;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path checkpointPath;
+
+    private final FileChannel channel;
+
+    private final JournalSync sync;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Signaled each time a writer ends.
+     */
+    private final Condition written = lock.newCondition();
+
+    private final Map<State,Long> ids = new IdentityHashMap<>();
+
+    private final List<State> states = new ArrayList<>();
+
+    /**
+     * The sequence of the last frame appended, written to the channel, forced to the storage.
+     */
+    private long sequence, writtenSequence, durableSequence;
+
+    /**
+     * The frames appended and not yet written, and the buffer to swap with it once written.
+     */
+    private Output pending = new Output(BUFFER_SIZE), spare = new Output(BUFFER_SIZE);
+
+    private final Output frame = new Output(BUFFER_SIZE);
+
+    private boolean writing, closed;
+
+    private Exception failure;
+
+    private volatile long syncInterval = TimeUnit.SECONDS.toNanos(1);
+
+    private volatile long lastSync = System.nanoTime();
+
+    /**
+     * The sequence of the frame appended by the commit in progress on the current thread, to be written once its lock is released.
+     */
+    private final ThreadLocal<Long> toWrite = new ThreadLocal<>();
+
+    /**
+     * The State(s) registered since the last frame appended or the last checkpoint, recorded as created by the next frame.
+     */
+    private final Set<State> created = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private MutationJournal(Path checkpointPath, FileChannel channel, JournalSync sync){
+        this.checkpointPath = checkpointPath;
+        this.channel = channel;
+        this.sync = Objects.requireNonNull(sync);
+    }
+
+
+    /**
+     * Creates a journal recording the given State(s), and every State they depend on :
+     * it writes their checkpoint, clears the journal file and starts receiving the commits.
+     * @param states the State(s) to record.
+     * @param checkpoint the checkpoint file.
+     * @param journal the journal file.
+     * @param sync the policy forcing the "write(s)" to the storage.
+     * @return the journal, to be closed once no longer used.
+     * @throws IOException if an I/O error occurs.
+     * @throws IllegalArgumentException if a State, a Range Adjuster or a "constraint function" is not supported, see {@link GraphCodec}.
+     * @throws IllegalStateException if a Commit Listener is already set.
+     */
+    public static MutationJournal create(Collection<? extends State> states, Path checkpoint, Path journal, JournalSync sync) throws IOException {
+        checkDetached();
+        FileChannel channel = FileChannel.open(journal,StandardOpenOption.CREATE,StandardOpenOption.READ,StandardOpenOption.WRITE);
+        MutationJournal mutationJournal = new MutationJournal(checkpoint,channel,sync);
+        try {
+            for(State state : states){
+                mutationJournal.registerClosure(state,new ArrayList<>());
+            }
+            mutationJournal.checkpoint();
+            mutationJournal.attach();
+        }catch (IOException | RuntimeException e){
+            channel.close();
+            throw e;
+        }
+        return mutationJournal;
+    }
+
+    /**
+     * Recovers the graph recorded : it loads the checkpoint, replays the "write(s)" recorded since, as a single {@link Snapshot} "write",
+     * then truncates the journal file after the last complete frame and starts receiving the commits.
+     * The State(s) recovered are listed by {@link #getStates()}.
+     * @param checkpoint the checkpoint file.
+     * @param journal the journal file.
+     * @param sync the policy forcing the "write(s)" to the storage.
+     * @return the journal, to be closed once no longer used.
+     * @throws IOException if an I/O error occurs ; if the checkpoint or a complete frame is corrupted.
+     * @throws IllegalStateException if a Commit Listener is already set.
+     */
+    public static MutationJournal recover(Path checkpoint, Path journal, JournalSync sync) throws IOException {
+        checkDetached();
+        FileChannel channel = FileChannel.open(journal,StandardOpenOption.CREATE,StandardOpenOption.READ,StandardOpenOption.WRITE);
+        MutationJournal mutationJournal = new MutationJournal(checkpoint,channel,sync);
+        try {
+            mutationJournal.load();
+            mutationJournal.replay();
+            mutationJournal.attach();
+        }catch (IOException | RuntimeException e){
+            channel.close();
+            throw e;
+        }
+        return mutationJournal;
+    }
+
+    /**
+     * @return the State(s) recorded, in the order of their registration.
+     */
+    public List<State> getStates(){
+        lock.lock();
+        try {
+            return new ArrayList<>(states);
+        }finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records the given State, and every State it depends on, if not already recorded.
+     * The State must not be changed meanwhile.
+     * @param state the State to record.
+     * @throws IOException if an I/O error occurs.
+     * @throws IllegalArgumentException if a State, a Range Adjuster or a "constraint function" is not supported, see {@link GraphCodec}.
+     */
+    public void register(State state) throws IOException {
+        long target;
+        lock.lock();
+        try {
+            checkOpen();
+            List<State> records = new ArrayList<>();
+            registerClosure(state,records);
+            if(records.isEmpty()){
+                return;
+            }
+            try {
+                target = append(records);
+            }catch (IOException | RuntimeException e){
+                failure = e;
+                throw e;
+            }
+        }finally {
+            lock.unlock();
+        }
+        await(target,sync == JournalSync.ALWAYS);
+    }
+
+    /**
+     * Writes the "write(s)" recorded and forces them to the storage.
+     * @throws IOException if an I/O error occurs ; if the journal failed before.
+     */
+    public void sync() throws IOException {
+        long target;
+        lock.lock();
+        try {
+            checkOpen();
+            target = sequence;
+        }finally {
+            lock.unlock();
+        }
+        await(target,true);
+    }
+
+    /**
+     * Writes a checkpoint of the State(s) recorded and clears the journal file, so a recovery replays only the "write(s)" recorded afterwards.
+     * The checkpoint is written to a temporary file first, and then moves atomically over the previous one.
+     *<p></p>
+     * The commits wait until the checkpoint is written, and no State recorded must be changed meanwhile.
+     * @throws IOException if an I/O error occurs ; if the journal failed before.
+     */
+    public void checkpoint() throws IOException {
+        lock.lock();
+        try {
+            checkOpen();
+            await(sequence,true);
+            Path temporary = checkpointPath.resolveSibling(checkpointPath.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(temporary,StandardOpenOption.CREATE,StandardOpenOption.WRITE,StandardOpenOption.TRUNCATE_EXISTING)){
+                ByteBuffer header = ByteBuffer.allocate(12);
+                header.putInt(CHECKPOINT_MAGIC).putLong(sequence).flip();
+                while (header.hasRemaining()){
+                    out.write(header);
+                }
+                GraphCodec.write(states,out);
+                out.force(true);
+            }
+            created.clear();
+            while (writing){
+                written.awaitUninterruptibly();
+            }
+            Files.move(temporary,checkpointPath,StandardCopyOption.ATOMIC_MOVE,StandardCopyOption.REPLACE_EXISTING);
+            channel.truncate(0);
+            channel.force(true);
+        }catch (IOException e){
+            failure = e;
+            throw e;
+        }finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the sequence number of the last "write" recorded.
+     */
+    public long getSequence(){
+        lock.lock();
+        try {
+            return sequence;
+        }finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the interval between two forces of the {@link JournalSync#INTERVAL} policy.
+     * @param interval the interval.
+     * @param unit the unit of the interval.
+     */
+    public void setSyncInterval(long interval, TimeUnit unit){
+        syncInterval = unit.toNanos(interval);
+    }
+
+    /**
+     * Stops receiving the commits, then writes the "write(s)" recorded and forces them to the storage.
+     * @throws IOException if an I/O error occurs ; if the journal failed before.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if(closed){
+                return;
+            }
+            if(Snapshot.getCommitListener() == this){
+                Snapshot.setCommitListener(null);
+            }
+            try {
+                await(sequence,true);
+            }finally {
+                closed = true;
+                channel.close();
+            }
+        }finally {
+            lock.unlock();
+        }
+    }
+
+
+    @Override
+    public void onCommit(long version, List<FixedState> changed){
+        lock.lock();
+        try {
+            if(closed || failure != null){
+                return;
+            }
+            List<State> records = new ArrayList<>();
+            for(FixedState state : changed){
+                if(created.contains(state)){
+                    continue;
+                }
+                if(ids.containsKey(state)){
+                    records.add(state);
+                }else if(isConnected(state)){
+                    registerConnected(state,records);
+                }
+            }
+            if(records.isEmpty()){
+                return;
+            }
+            long appended = append(records);
+            if(sync != JournalSync.NONE || pending.size() >= BUFFER_SIZE){
+                toWrite.set(appended);
+            }
+        }catch (IOException | RuntimeException e){
+            failure = e;
+            toWrite.set(Long.MAX_VALUE);
+        }finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void afterCommit(long version){
+        Long target = toWrite.get();
+        if(target == null){
+            return;
+        }
+        toWrite.remove();
+        try {
+            switch (sync){
+                case ALWAYS:
+                    await(target,true);
+                    break;
+                case INTERVAL:
+                    if(System.nanoTime() - lastSync >= syncInterval){
+                        await(target,true);
+                    }
+                    break;
+                default:
+                    await(target,false);
+                    break;
+            }
+        }catch (IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+
+    /**
+     * Waits until the frames up to the given sequence are written, and forced if required.
+     * If no other thread is writing, the current one writes every frame appended so far, outside the lock, then wakes up the waiting ones.
+     */
+    private void await(long target, boolean force) throws IOException {
+        lock.lock();
+        try {
+            while (true){
+                checkFailure();
+                if(force ? durableSequence >= target : writtenSequence >= target){
+                    return;
+                }
+                if(writing){
+                    written.awaitUninterruptibly();
+                    continue;
+                }
+                writing = true;
+                Output batch = pending;
+                pending = spare;
+                spare = null;
+                long last = sequence;
+                int holds = lock.getHoldCount();
+                for(int i = 0; i < holds; i++){
+                    lock.unlock();
+                }
+                IOException error = null;
+                try {
+                    batch.writeTo(channel);
+                    if(force){
+                        channel.force(false);
+                    }
+                }catch (IOException e){
+                    error = e;
+                }finally {
+                    for(int i = 0; i < holds; i++){
+                        lock.lock();
+                    }
+                }
+                writing = false;
+                batch.clear();
+                spare = batch;
+                if(error != null){
+                    failure = error;
+                }else {
+                    writtenSequence = last;
+                    if(force){
+                        durableSequence = last;
+                        lastSync = System.nanoTime();
+                    }
+                }
+                written.signalAll();
+            }
+        }finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends a frame recording the given State(s) to the pending ones.
+     * @param records the State(s) to record, a State depending on another one not recorded yet registers it along with the State(s) it depends on.
+     * @return the sequence of the frame.
+     */
+    private long append(List<State> records) throws IOException {
+        for(int i = 0; i < records.size(); i++){
+            State state = records.get(i);
+            if(state instanceof DependencyState){
+                for(State dependency : dependencies((DependencyState) state)){
+                    if(!ids.containsKey(dependency)){
+                        registerClosure(dependency,records);
+                    }
+                }
+            }
+        }
+        long frameSequence = sequence + 1;
+        frame.clear();
+        frame.writeVarLong(frameSequence);
+        frame.writeVarLong(records.size());
+        for(State state : records){
+            writeRecord(state,created.contains(state));
+        }
+        CRC32C checksum = new CRC32C();
+        frame.update(checksum);
+        pending.writeInt(frame.size());
+        pending.writeInt((int) checksum.getValue());
+        pending.write(frame);
+        sequence = frameSequence;
+        created.clear();
+        return frameSequence;
+    }
+
+    private void writeRecord(State state, boolean created) throws IOException {
+        int kind = GraphCodec.kindOf(state);
+        TimeRange range = state.getRange();
+        long id = ids.get(state);
+        frame.writeVarLong(id);
+        frame.writeByte((byte) (GraphCodec.flagsOf(state,kind) | (created ? CREATED : 0)));
+        frame.writeVarLong(GraphCodec.zigZag(range.getStart()));
+        if(kind != NO_END){
+            frame.writeVarLong(GraphCodec.zigZag(range.getEnd() - range.getStart()));
+        }
+        if(kind == RANGE || kind == NO_END){
+            DependencyState dependencyState = (DependencyState) state;
+            GraphCodec.writeAdjuster(frame,dependencyState);
+            GraphCodec.writeConstraint(frame,dependencyState.getStartTimeConstraint());
+            writeDependencies(id,dependencyState.getStartTimeDepedencySet());
+            if(kind == RANGE){
+                GraphCodec.writeConstraint(frame,dependencyState.getEndTimeConstraint());
+                writeDependencies(id,dependencyState.getEndTimeDepedencySet());
+            }
+        }
+    }
+
+    private void writeDependencies(long id, State[] dependencies) throws IOException {
+        frame.writeVarLong(dependencies.length);
+        for(State dependency : dependencies){
+            frame.writeVarLong(GraphCodec.zigZag(id - ids.get(dependency)));
+        }
+    }
+
+    /**
+     * Registers the given State along with every State it depends on and not yet registered, and adds them to the records.
+     * @throws IllegalArgumentException if one of them is not supported.
+     */
+    private void registerClosure(State state, List<State> records){
+        List<State> found = collect(state);
+        if(found == null){
+            throw new IllegalArgumentException("State not supported : " + state);
+        }
+        register(found,records);
+    }
+
+    /**
+     * Registers a State not recorded yet, connected to a recorded one, along with every State it depends on,
+     * unless one of them is not supported or not fully created, the State is then ignored.
+     */
+    private void registerConnected(State state, List<State> records){
+        List<State> found = collect(state);
+        if(found != null){
+            register(found,records);
+        }
+    }
+
+    private void register(List<State> found, List<State> records){
+        for(State state : found){
+            ids.put(state,(long) states.size());
+            states.add(state);
+            created.add(state);
+            records.add(state);
+        }
+    }
+
+    /**
+     * Collects the given State and the State(s) it depends on, stopping at the ones already registered.
+     * @return the State(s) collected, null if one of them is not supported or not fully created.
+     */
+    private List<State> collect(State state){
+        Set<State> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<State> found = new ArrayList<>();
+        Deque<State> toVisit = new ArrayDeque<>();
+        toVisit.push(state);
+        while (!toVisit.isEmpty()){
+            State current = toVisit.pop();
+            if(ids.containsKey(current) || !visited.add(current)){
+                continue;
+            }
+            if(!isSupported(current)){
+                return null;
+            }
+            found.add(current);
+            if(current instanceof DependencyState){
+                for(State dependency : dependencies((DependencyState) current)){
+                    toVisit.push(dependency);
+                }
+            }
+        }
+        return found;
+    }
+
+    private boolean isConnected(State state){
+        if(!(state instanceof DependencyState) || ((DependencyState) state).getBoundedRange() == null){
+            return false;
+        }
+        for(State dependency : dependencies((DependencyState) state)){
+            if(ids.containsKey(dependency)){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSupported(State state){
+        try {
+            GraphCodec.kindOf(state);
+        }catch (IllegalArgumentException e){
+            return false;
+        }
+        return !(state instanceof DependencyState) || ((DependencyState) state).getBoundedRange() != null;
+    }
+
+    private static List<State> dependencies(DependencyState state){
+        List<State> dependencies = new ArrayList<>();
+        Collections.addAll(dependencies,state.getStartTimeDepedencySet());
+        Collections.addAll(dependencies,state.getEndTimeDepedencySet());
+        return dependencies;
+    }
+
+
+    /**
+     * Loads the checkpoint, registering its State(s) in the order they have been stored.
+     */
+    private void load() throws IOException {
+        try (FileChannel in = FileChannel.open(checkpointPath,StandardOpenOption.READ)){
+            ByteBuffer header = ByteBuffer.allocate(12);
+            while (header.hasRemaining()){
+                if(in.read(header) < 0){
+                    throw new EOFException("Unexpected end of the checkpoint");
+                }
+            }
+            header.flip();
+            if(header.getInt() != CHECKPOINT_MAGIC){
+                throw new StreamCorruptedException("Not a checkpoint");
+            }
+            sequence = header.getLong();
+            for(State state : GraphCodec.read(in)){
+                ids.put(state,(long) states.size());
+                states.add(state);
+            }
+        }
+    }
+
+    /**
+     * Replays the frames following the checkpoint, as a single "write", then truncates the journal after the last complete frame.
+     */
+    private void replay() throws IOException {
+        Input in = new Input(channel);
+        long end = 0;
+        long size = channel.size();
+        Snapshot.beginWrite();
+        try {
+            while (true){
+                ByteBuffer payload;
+                try {
+                    int length = in.readInt();
+                    int checksum = in.readInt();
+                    if(length <= 0 || length > size - end - FRAME_HEADER){
+                        break;
+                    }
+                    payload = in.readBytes(length);
+                    CRC32C crc = new CRC32C();
+                    crc.update(payload.duplicate());
+                    if((int) crc.getValue() != checksum){
+                        break;
+                    }
+                }catch (EOFException e){
+                    break;
+                }
+                end = in.position();
+                Input frameInput = new Input(payload);
+                long frameSequence = frameInput.readVarLong();
+                if(frameSequence <= sequence){
+                    continue;
+                }
+                replay(frameInput);
+                sequence = frameSequence;
+            }
+        }finally {
+            Snapshot.endWrite();
+        }
+        channel.truncate(end);
+        channel.position(end);
+        writtenSequence = sequence;
+        durableSequence = sequence;
+    }
+
+    /**
+     * Replays a frame : it restores the values of each State, removes the dependencies no longer present,
+     * then adds the new ones and makes the Dependency State(s) resolvable again.
+     */
+    private void replay(Input in) throws IOException {
+        int count = in.readCount();
+        List<Image> images = new ArrayList<>(count);
+        for(int i = 0; i < count; i++){
+            images.add(readImage(in));
+        }
+        for(Image image : images){
+            image.resolve(states);
+        }
+        try {
+            for(Image image : images){
+                restore(image);
+            }
+            for(Image image : images){
+                if(image.state instanceof DependencyState){
+                    DependencyState state = (DependencyState) image.state;
+                    loadDependencies(state,Side.START,state.getStartTimeDepedencySet(),image.startDependencies);
+                    loadDependencies(state,Side.END,state.getEndTimeDepedencySet(),image.endDependencies);
+                }
+            }
+        }catch (StateException | RuntimeException e){
+            throw new IOException("The recorded dependencies can not be restored",e);
+        }
+        for(Image image : images){
+            if(image.state instanceof DependencyState){
+                ((DependencyState) image.state).setResolvableNotification();
+            }
+        }
+    }
+
+    private Image readImage(Input in) throws IOException {
+        long id = in.readVarLong();
+        int flags = in.readByte() & 0xFF;
+        int kind = flags & KIND_MASK;
+        long start = GraphCodec.unZigZag(in.readVarLong());
+        long end = kind == NO_END ? Long.MAX_VALUE : start + GraphCodec.unZigZag(in.readVarLong());
+        Image image = new Image(flags,new TimeRange(start,end));
+        if(kind == RANGE || kind == NO_END){
+            image.adjuster = GraphCodec.readAdjuster(in);
+            image.constraints[0] = GraphCodec.readConstraint(in);
+            image.dependencyIds[0] = readDependencyIds(in,id);
+            if(kind == RANGE){
+                image.constraints[1] = GraphCodec.readConstraint(in);
+                image.dependencyIds[1] = readDependencyIds(in,id);
+            }
+        }
+        if((flags & CREATED) != 0){
+            if(id != states.size()){
+                throw new StreamCorruptedException("State created out of order : " + id);
+            }
+            State state = GraphCodec.createState(flags,start,end,image.adjuster);
+            ids.put(state,id);
+            states.add(state);
+            image.state = state;
+        }else {
+            if(id < 0 || id >= states.size()){
+                throw new StreamCorruptedException("State out of range : " + id);
+            }
+            image.state = states.get((int) id);
+        }
+        return image;
+    }
+
+    private static long[] readDependencyIds(Input in, long id) throws IOException {
+        long[] dependencyIds = new long[in.readCount()];
+        for(int i = 0; i < dependencyIds.length; i++){
+            dependencyIds[i] = id - GraphCodec.unZigZag(in.readVarLong());
+        }
+        return dependencyIds;
+    }
+
+    /**
+     * Restores the values of the State recorded, its Range Adjuster and "constraint function(s)", and removes the dependencies no longer recorded.
+     */
+    private void restore(Image image){
+        boolean value = (image.flags & VALUE) != 0;
+        boolean extinct = (image.flags & EXTINCT) != 0;
+        if(!(image.state instanceof DependencyState)){
+            Snapshot.restore((FixedState) image.state,image.range,value,extinct);
+            return;
+        }
+        DependencyState state = (DependencyState) image.state;
+        boolean wasActive = !state.isExtinct() || state.getStateValue();
+        Snapshot.restore(state,image.range,value,extinct);
+        if(AdjusterType.typeOf(state.getAdjuster()) != image.adjuster){
+            state.setAdjuster(image.adjuster.newAdjuster());
+        }
+        unloadSide(state,Side.START,state.getStartTimeConstraint(),state.getStartTimeDepedencySet(),image.constraints[0],image.startDependencies);
+        if((image.flags & KIND_MASK) == RANGE){
+            unloadSide(state,Side.END,state.getEndTimeConstraint(),state.getEndTimeDepedencySet(),image.constraints[1],image.endDependencies);
+        }
+        boolean active = !extinct || value;
+        if(wasActive != active){
+            state.loadObserved(active);
+        }
+    }
+
+    private static void unloadSide(DependencyState state, Side side, Constraint current, State[] dependencies, Constraint recorded, Set<State> recordedDependencies){
+        if(!sameConstraint(current,recorded)){
+            if(current != null || dependencies.length > 0){
+                state.unloadSide(side);
+            }
+            if(recorded != null){
+                if(side == Side.START){
+                    state.setStartTimeConstraint(recorded);
+                }else {
+                    state.setEndTimeConstraint(recorded);
+                }
+            }
+            return;
+        }
+        for(State dependency : dependencies){
+            if(!recordedDependencies.contains(dependency)){
+                state.unloadDependency(side,dependency);
+            }
+        }
+    }
+
+    private static void loadDependencies(DependencyState state, Side side, State[] current, Set<State> recorded) throws StateException {
+        Set<State> present = Collections.newSetFromMap(new IdentityHashMap<>());
+        Collections.addAll(present,current);
+        for(State dependency : recorded){
+            if(!present.contains(dependency)){
+                state.loadDependency(side,dependency);
+            }
+        }
+    }
+
+    private static boolean sameConstraint(Constraint current, Constraint recorded){
+        if(current == null || recorded == null){
+            return current == recorded;
+        }
+        if(current.getClass() != recorded.getClass() || !(current instanceof ArgConstraint)){
+            return false;
+        }
+        Object[] currentArgs = ((ArgConstraint) current).getArgs();
+        Object[] recordedArgs = ((ArgConstraint) recorded).getArgs();
+        if(currentArgs.length != recordedArgs.length){
+            return false;
+        }
+        for(int i = 0; i < currentArgs.length; i++){
+            String currentArg = currentArgs[i] == null ? null : String.valueOf(currentArgs[i]);
+            if(!Objects.equals(currentArg,recordedArgs[i])){
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    private void attach(){
+        synchronized (MutationJournal.class){
+            checkDetached();
+            Snapshot.setCommitListener(this);
+        }
+    }
+
+    private static void checkDetached(){
+        if(Snapshot.getCommitListener() != null){
+            throw new IllegalStateException("A Commit Listener is already set");
+        }
+    }
+
+    private void checkOpen() throws IOException {
+        if(closed){
+            throw new IOException("The mutation journal is closed");
+        }
+        checkFailure();
+    }
+
+    private void checkFailure() throws IOException {
+        if(failure != null){
+            throw new IOException("The mutation journal failed",failure);
+        }
+    }
+
+
+    /**
+     * The values of a State as recorded by a frame.
+     */
+    private static final class Image {
+
+        private final int flags;
+
+        private final TimeRange range;
+
+        private State state;
+
+        private AdjusterType adjuster;
+
+        private final Constraint[] constraints = new Constraint[2];
+
+        private final long[][] dependencyIds = {new long[0],new long[0]};
+
+        private Set<State> startDependencies, endDependencies;
+
+        private Image(int flags, TimeRange range) {
+            this.flags = flags;
+            this.range = range;
+        }
+
+        /**
+         * Resolves the identifiers of the dependencies, once every State created by the frame is registered.
+         */
+        private void resolve(List<State> states) throws IOException {
+            startDependencies = resolve(dependencyIds[0],states);
+            endDependencies = resolve(dependencyIds[1],states);
+        }
+
+        private static Set<State> resolve(long[] ids, List<State> states) throws IOException {
+            Set<State> resolved = Collections.newSetFromMap(new IdentityHashMap<>());
+            for(long id : ids){
+                if(id < 0 || id >= states.size()){
+                    throw new StreamCorruptedException("Dependency out of range : " + id);
+                }
+                resolved.add(states.get((int) id));
+            }
+            return resolved;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.core.model.impl.adjustable.dependent.states;
+
+import com.core.model.TimeRange;
+import com.core.model.api.State;
+import com.core.model.api.StateObserver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A Notification Dispatcher delivers State variations to the observers which are not Dependency State Observer(s),
+ * see {@link PropagationEngine#setDispatcher(NotificationDispatcher)}.
+ *<p></p>
+ * The Dependency State Observer(s) are always notified by the Propagation Engine on the thread changing the State,
+ * since their "resolution" is part of the variation itself.
+ */
+public interface NotificationDispatcher {
+
+    /**
+     * The default dispatcher : every observer is notified immediately, on the thread changing the State.
+     */
+    public static final NotificationDispatcher SYNCHRONOUS = new NotificationDispatcher() {
+        @Override
+        public void dispatchRangeChange(StateObserver observer, TimeRange range, State source) {
+            observer.onRangeChanged(range,source);
+        }
+
+        @Override
+        public void dispatchStateChange(StateObserver observer, boolean value, State source) {
+            observer.onStateChanged(value,source);
+        }
+
+        @Override
+        public boolean awaitQuiescence(long timeout, TimeUnit unit) {
+            return true;
+        }
+    };
+
+    /**
+     * Delivers a range variation to the given observer.
+     * @param observer the observer subscribed to the source.
+     * @param range the new range of the source.
+     * @param source the State whose range is changed.
+     */
+    public void dispatchRangeChange(StateObserver observer, TimeRange range, State source);
+
+    /**
+     * Delivers a variation of the "active" property to the given observer.
+     * @param observer the observer subscribed to the source.
+     * @param value the new value of the source.
+     * @param source the State whose "active" property is changed.
+     */
+    public void dispatchStateChange(StateObserver observer, boolean value, State source);
+
+    /**
+     * Waits until every notification dispatched so far, and the ones dispatched meanwhile, has been delivered.
+     * @param timeout the maximum time to wait.
+     * @param unit the unit of the timeout.
+     * @return true if no notification is pending ; false if the timeout elapsed before.
+     * @throws InterruptedException if the current thread is interrupted while waiting.
+     */
+    public boolean awaitQuiescence(long timeout, TimeUnit unit) throws InterruptedException;
+}
@@ -0,0 +1,462 @@
+package com.core.model.impl.adjustable.dependent.states;
+
+import com.core.model.TimeRange;
+import com.core.model.api.State;
+import com.core.model.api.StateObserver;
+import com.core.model.impl.Snapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The Propagation Engine delivers State range variations to the observers subscribed, according to the current Propagation Mode.
+ *<p></p>
+ * In "topological" mode the Dependency State(s) notified are not resolved inside the notification,
+ * they are marked as "dirty" in the "change wave" of the current thread, which is drained once the outermost notification is delivered :
+ * the dirty State(s) are taken in the order maintained by {@link TopologicalOrder}, so each one performs a single "resolution" after all its dirty dependencies.
+ * A State changing its range during the drain marks its dependents as dirty in the same wave, and only the State(s) actually dirty are visited.
+ *<p></p>
+ * If the "resolution" of a dirty State fails, the dependencies which changed are "force removed" one at a time, in notification order,
+ * as the cascade mode does for each notification it receives.
+ *<p></p>
+ * Observers which are not Dependency State Observer(s) are always notified immediately,
+ * a Dependency State Observer still subscribed to a State no longer in its "dependency set" is not notified.
+ *<p></p>
+ * Note on batches :
+ *<p></p>
+ * [A thread can group many variations in a batch, see {@link #beginBatch()}, which is also a single {@link Snapshot} "write". Within a batch, in both modes, the dependents are only marked as "dirty"
+ * and the other observers receive the range variations on {@link #commit()}, once for each State changed, after a single "resolution" of all the dirty State(s).
+ * If one of those "resolutions" fails, no State is "force removed" : every variation made within the batch is rolled back.
+ * Each State saves its values the first time it changes within a batch, see {@link #isFirstChange(Object)}.
+ * The operations invoked within the batch still perform the "resolution" of the State they are invoked on, against the ranges its dependencies have at that moment.]
+ *<p></p>
+ * Note on dispatching :
+ *<p></p>
+ * [The observers which are not Dependency State Observer(s) receive the variations through the Notification Dispatcher in use, see {@link #setDispatcher(NotificationDispatcher)},
+ * by default they are notified synchronously. {@link StateObserver#onRangeInvalidated(State)} is always delivered synchronously.]
+ */
+public final class PropagationEngine {
+
+    private static volatile PropagationMode mode = PropagationMode.TOPOLOGICAL;
+
+    private static volatile NotificationDispatcher dispatcher = NotificationDispatcher.SYNCHRONOUS;
+
+    private static final ThreadLocal<Wave> WAVE = ThreadLocal.withInitial(Wave::new);
+
+    /**
+     * Number of batches in progress among all threads, so that no thread looks up its wave while there is none.
+     */
+    private static final AtomicInteger BATCHES = new AtomicInteger();
+
+    private PropagationEngine(){
+    }
+
+    /**
+     * Sets the Propagation Mode used by every State.
+     * @param propagationMode the mode to use (Not null).
+     */
+    public static void setMode(PropagationMode propagationMode){
+        if(propagationMode == null){
+            throw new IllegalArgumentException();
+        }
+        mode = propagationMode;
+    }
+
+    /**
+     * Returns the Propagation Mode in use.
+     * @return the current mode.
+     */
+    public static PropagationMode getMode(){
+        return mode;
+    }
+
+    /**
+     * Sets the Notification Dispatcher delivering the variations to the observers which are not Dependency State Observer(s).
+     * @param notificationDispatcher the dispatcher to use (Not null), {@link NotificationDispatcher#SYNCHRONOUS} by default.
+     */
+    public static void setDispatcher(NotificationDispatcher notificationDispatcher){
+        if(notificationDispatcher == null){
+            throw new IllegalArgumentException();
+        }
+        dispatcher = notificationDispatcher;
+    }
+
+    /**
+     * Returns the Notification Dispatcher in use.
+     * @return the current dispatcher.
+     */
+    public static NotificationDispatcher getDispatcher(){
+        return dispatcher;
+    }
+
+    /**
+     * Waits until the Notification Dispatcher in use has delivered every pending notification.
+     * @param timeout the maximum time to wait.
+     * @param unit the unit of the timeout.
+     * @return true if no notification is pending ; false if the timeout elapsed before.
+     * @throws InterruptedException if the current thread is interrupted while waiting.
+     */
+    public static boolean awaitQuiescence(long timeout, TimeUnit unit) throws InterruptedException {
+        return dispatcher.awaitQuiescence(timeout,unit);
+    }
+
+    /**
+     * Delivers a variation of the "active" property to the given observers,
+     * the Dependency State Observer(s) are notified immediately and the others through the Notification Dispatcher.
+     * @param value the new value of the source.
+     * @param source the State whose "active" property is changed.
+     * @param observers the observers subscribed to the source.
+     */
+    public static void notifyStateChange(boolean value, State source, List<StateObserver> observers){
+        Iterator<StateObserver> iterator = observers.iterator();
+        while (iterator.hasNext()){
+            StateObserver observer = iterator.next();
+            if(observer instanceof DependencyStateObserver){
+                observer.onStateChanged(value,source);
+            }else {
+                dispatcher.dispatchStateChange(observer,value,source);
+            }
+        }
+    }
+
+    /**
+     * Delivers a range variation to the given observers.
+     *<p></p>
+     * Every observer receives {@link StateObserver#onRangeInvalidated(State)} before any of them receives {@link StateObserver#onRangeChanged(TimeRange, State)}.
+     * @param range the new range of the source.
+     * @param source the State whose range is changed.
+     * @param observers the observers subscribed to the source.
+     */
+    public static void notifyRangeChange(TimeRange range, State source, List<StateObserver> observers){
+        Iterator<StateObserver> iterator = observers.iterator();
+        while (iterator.hasNext()){
+            iterator.next().onRangeInvalidated(source);
+        }
+
+        Wave wave = mode == PropagationMode.CASCADE && BATCHES.get() == 0 ? null : WAVE.get();
+        if(wave == null || (mode == PropagationMode.CASCADE && wave.batch == null)){
+            iterator = observers.iterator();
+            while (iterator.hasNext()){
+                StateObserver observer = iterator.next();
+                if(observer instanceof DependencyStateObserver){
+                    observer.onRangeChanged(range,source);
+                }else {
+                    dispatcher.dispatchRangeChange(observer,range,source);
+                }
+            }
+            return;
+        }
+
+        iterator = observers.iterator();
+        while (iterator.hasNext()){
+            StateObserver observer = iterator.next();
+            if(observer instanceof DependencyStateObserver){
+                if(((DependencyStateObserver) observer).isObserving(source)){
+                    wave.schedule((DependencyStateObserver) observer,source);
+                }
+            }else if(wave.batch != null){
+                wave.batch.defer(observer,source);
+            }else {
+                dispatcher.dispatchRangeChange(observer,range,source);
+            }
+        }
+        if(!wave.draining && wave.batch == null){
+            wave.drain(false);
+        }
+    }
+
+    /**
+     * Starts a batch on the current thread : range variations are no longer propagated until {@link #commit()} or {@link #rollback()} is invoked.
+     * @throws IllegalStateException if a batch is already in progress on the current thread.
+     */
+    public static void beginBatch(){
+        Wave wave = WAVE.get();
+        if(wave.batch != null || wave.draining){
+            throw new IllegalStateException("A batch is already in progress");
+        }
+        wave.batch = new Batch();
+        BATCHES.incrementAndGet();
+        Snapshot.beginWrite();
+    }
+
+    /**
+     * Ends the batch of the current thread, performing a single "resolution" of all the State(s) made dirty within the batch.
+     * Then the observers which are not Dependency State Observer(s) receive the range variations.
+     *<p></p>
+     * If a "resolution" fails the whole batch is rolled back, see {@link #rollback()}.
+     * @return true if the batch is committed ; false if it has been rolled back.
+     * @throws IllegalStateException if no batch is in progress on the current thread.
+     */
+    public static boolean commit(){
+        Wave wave = getWave();
+        boolean resolved = false;
+        try {
+            resolved = wave.drain(true);
+        }finally {
+            if(!resolved){
+                rollback();
+            }
+        }
+        if(!resolved){
+            return false;
+        }
+        Batch batch = wave.endBatch();
+        Snapshot.endWrite();
+        for(Map.Entry<StateObserver,Set<State>> notification : batch.deferred.entrySet()){
+            for(State source : notification.getValue()){
+                dispatcher.dispatchRangeChange(notification.getKey(),source.getRange(),source);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Ends the batch of the current thread restoring every State changed within the batch, the pending range variations are discarded.
+     *<p></p>
+     * A State created within the batch keeps its values, but every dependency and dependent it has is removed, since all of them have been added within the batch.
+     * The {@link GraphComponent}(s) joined by the dependencies added within the batch are split again.
+     * @throws IllegalStateException if no batch is in progress on the current thread.
+     */
+    public static void rollback(){
+        Batch batch = getWave().endBatch();
+        try {
+            for(int i = batch.journal.size() - 1; i >= 0; i--){
+                batch.journal.get(i).run();
+            }
+            for(Object owner : batch.created){
+                if(owner instanceof DependencyState){
+                    ((DependencyState) owner).detach();
+                }
+            }
+            List<DependencyState> restored = new ArrayList<>();
+            for(Object owner : batch.changed){
+                if(owner instanceof DependencyState){
+                    ((DependencyState) owner).restoreOrder();
+                    restored.add((DependencyState) owner);
+                }
+            }
+            if(restored.size() > 1){
+                GraphComponent.split(restored);
+            }
+        }finally {
+            Snapshot.endWrite();
+        }
+    }
+
+    /**
+     * Tests whether a batch is in progress on the current thread.
+     * @return true if a batch is in progress.
+     */
+    public static boolean isBatching(){
+        return BATCHES.get() > 0 && WAVE.get().batch != null;
+    }
+
+    /**
+     * Tests whether the given object has to save its values before changing them,
+     * that is the first time it changes within the batch in progress on the current thread, and it was not created within the batch.
+     * The values saved have to be restored by an action registered through {@link #onRollback(Runnable)}.
+     * @param owner the object going to change.
+     * @return true if the object has to save its values ; false if no batch is in progress, or, the values are already saved.
+     */
+    public static boolean isFirstChange(Object owner){
+        if(BATCHES.get() == 0){
+            return false;
+        }
+        Batch batch = WAVE.get().batch;
+        return batch != null && !batch.created.contains(owner) && batch.changed.add(owner);
+    }
+
+    /**
+     * Registers an object created within the batch in progress on the current thread, if any : it has no values to restore.
+     * @param owner the object created.
+     */
+    public static void onCreated(Object owner){
+        if(BATCHES.get() == 0){
+            return;
+        }
+        Batch batch = WAVE.get().batch;
+        if(batch != null){
+            batch.created.add(owner);
+        }
+    }
+
+    /**
+     * Registers a Dependency State whose topological index has changed : if it is dirty in the "change wave" of the current thread,
+     * the wave is re-ordered before its next State is resolved.
+     * @param state the State re-indexed.
+     */
+    static void onReindexed(DependencyState state){
+        Wave wave = WAVE.get();
+        if(wave.dirty.containsKey(state)){
+            wave.reordered = true;
+        }
+    }
+
+    /**
+     * Registers an action to perform if the batch in progress on the current thread is rolled back, the actions are performed in reverse order.
+     * @param restore the action restoring the values saved.
+     */
+    public static void onRollback(Runnable restore){
+        getWave().batch.journal.add(restore);
+    }
+
+    private static Wave getWave(){
+        Wave wave = WAVE.get();
+        if(wave.batch == null){
+            throw new IllegalStateException("No batch in progress");
+        }
+        return wave;
+    }
+
+
+    /**
+     * A notification received by a dirty State : the observer notified and the dependency which changed.
+     */
+    private static final class Trigger {
+
+        private final DependencyStateObserver observer;
+
+        private final State dependency;
+
+        private Trigger(DependencyStateObserver observer, State dependency) {
+            this.observer = observer;
+            this.dependency = dependency;
+        }
+    }
+
+
+    /**
+     * The "change wave" of a thread : the dirty State(s) waiting for their "resolution".
+     */
+    private static final class Wave {
+
+        private final Map<DependencyState,List<Trigger>> dirty = new HashMap<>();
+
+        private final PriorityQueue<DependencyState> pending = new PriorityQueue<>(Comparator.comparingLong(DependencyState::getTopologicalIndex));
+
+        private boolean draining;
+
+        /**
+         * Whether a dirty State has been re-indexed since it has been queued, the queue no longer being ordered.
+         */
+        private boolean reordered;
+
+        private Batch batch;
+
+        private void schedule(DependencyStateObserver observer, State dependency){
+            DependencyState state = observer.getDependencyState();
+            List<Trigger> triggers = dirty.get(state);
+            if(triggers == null){
+                triggers = new ArrayList<>(2);
+                dirty.put(state,triggers);
+                pending.add(state);
+            }
+            triggers.add(new Trigger(observer,dependency));
+        }
+
+        /**
+         * Ends the batch, clearing the dirty State(s).
+         * @return the batch ended.
+         */
+        private Batch endBatch(){
+            Batch ended = batch;
+            batch = null;
+            BATCHES.decrementAndGet();
+            dirty.clear();
+            pending.clear();
+            reordered = false;
+            return ended;
+        }
+
+        /**
+         * Resolves the dirty State(s) in topological order.
+         * @param strict true : stop at the first "resolution" failure ; false : "force remove" the dependencies of the State failing.
+         * @return true if every "resolution" succeeds, or, the failures are handled by "force remotion".
+         */
+        private boolean drain(boolean strict){
+            draining = true;
+            try {
+                while (!pending.isEmpty()){
+                    if(reordered){
+                        reorder();
+                    }
+                    DependencyState state = pending.poll();
+                    if(!resolve(state,dirty.remove(state),strict)){
+                        return false;
+                    }
+                }
+                return true;
+            }finally {
+                dirty.clear();
+                pending.clear();
+                reordered = false;
+                draining = false;
+            }
+        }
+
+        /**
+         * Rebuilds the queue of the dirty State(s) from their current topological indexes.
+         */
+        private void reorder(){
+            List<DependencyState> queued = new ArrayList<>(pending);
+            pending.clear();
+            pending.addAll(queued);
+            reordered = false;
+        }
+
+        /**
+         * Performs the "resolution" of a dirty State.
+         */
+        private boolean resolve(DependencyState state, List<Trigger> triggers, boolean strict){
+            for(Trigger trigger : triggers){
+                if(state.isExtinct()){
+                    return true;
+                }
+                if(state.setValidationRange(state.getBoundedRange())){
+                    return true;
+                }
+                if(strict){
+                    return false;
+                }
+                trigger.observer.forceRemove(trigger.dependency);
+            }
+            return true;
+        }
+    }
+
+
+    /**
+     * A batch in progress : the actions restoring the objects changed, the objects created and the notifications deferred.
+     */
+    private static final class Batch {
+
+        private final List<Runnable> journal = new ArrayList<>();
+
+        private final Set<Object> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        private final Set<Object> created = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        private final Map<StateObserver,Set<State>> deferred = new LinkedHashMap<>();
+
+        private void defer(StateObserver observer, State source){
+            Set<State> sources = deferred.get(observer);
+            if(sources == null){
+                sources = new LinkedHashSet<>(2);
+                deferred.put(observer,sources);
+            }
+            sources.add(source);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.core.model.impl.adjustable.dependent.states;
+
+/**
+ * Indicates how a State range variation is propagated to the State(s) depending on it.
+ */
+public enum PropagationMode {
+    /**
+     * Each dependent performs its "resolution" as soon as it is notified, inside the notification of the State it depends on.
+     * The stack depth grows with the length of the dependency chain, and a dependent reachable through many paths performs many "resolutions".
+     */
+    CASCADE,
+    /**
+     * The dependents reached by a variation are collected in a "change wave" and each one performs a single "resolution",
+     * in topological order, once all the State(s) it depends on have been settled.
+     */
+    TOPOLOGICAL;
+}
@@ -0,0 +1,499 @@
+package com.core.model.impl.adjustable.dependent.states;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The Schedule Simulator executes a schedule in simulated time : each Dependency State given becomes "active" (in progress) at its start
+ * and no longer "active" (completed) at its end, as {@link com.core.model.api.MutableState#setStateValue(boolean)} states, a No End State being completed once "active".
+ *<p></p>
+ * The transitions are events ordered by time in a priority queue : the simulated time jumps from an event to the next one, without waiting.
+ * At the same time the completions come before the starts, so a State can start as soon as the State(s) it depends on are completed.
+ *<p></p>
+ * A State whose "constraint condition" does not allow it to become "active" at its start, see {@link DependencyState#setResolvableNotification()}, is suspended :
+ * it is tried again only once a State it depends on performs a transition. A State started late keeps its duration, its range is moved to the time it starts,
+ * and the variation reaches its dependents as any other range variation does. The event of a State whose range is changed meanwhile is moved to its new time once reached.
+ *<p></p>
+ * The State(s) not given are not changed : a State depending on them is started only if they allow it.
+ * Once the simulation is completed a {@link Summary} reports the transitions performed, the starts delayed and the throughput.
+ *<p></p>
+ * Note on concurrency: the State(s) simulated must not be in use by other threads meanwhile, and the Dependency State Observer(s) must be notified immediately,
+ * as the Propagation Engine does, see {@link PropagationEngine#notifyStateChange}.
+ */
+public final class ScheduleSimulator {
+
+    private static final int COMPLETION = 0;
+
+    private static final int START = 1;
+
+    private final DependencyState[] states;
+
+    private final Map<DependencyState,Integer> positions;
+
+    /**
+     * The stamp of the last event of each State, any other event of the State is stale.
+     */
+    private final int[] stamps;
+
+    private final boolean[] suspended;
+
+    private int suspendedCount;
+
+    /**
+     * The events scheduled at the beginning, sorted once : the heap only keeps the events scheduled during the simulation, far fewer.
+     */
+    private final long[] initialTimes;
+
+    private final int[] initialEvents, initialStamps;
+
+    private int initialNext;
+
+    private long[] times = new long[16];
+
+    private int[] events = new int[16];
+
+    private int[] eventStamps = new int[16];
+
+    private int size;
+
+    private long time = Long.MIN_VALUE;
+
+    private long transitions, starts, completions, suspensions, delayedStarts, delay, maxDelay;
+
+
+    /**
+     * Creates a simulation of the given State(s), according to their current condition values and ranges.
+     * @param states the State(s) to simulate.
+     */
+    public ScheduleSimulator(Collection<? extends DependencyState> states){
+        this.states = states.toArray(new DependencyState[0]);
+        this.positions = new IdentityHashMap<>(this.states.length);
+        this.stamps = new int[this.states.length];
+        this.suspended = new boolean[this.states.length];
+        for(int i = 0; i < this.states.length; i++){
+            positions.put(this.states[i],i);
+        }
+        for(int i = 0; i < this.states.length; i++){
+            schedule(i);
+        }
+        initialTimes = Arrays.copyOf(times,size);
+        initialEvents = Arrays.copyOf(events,size);
+        initialStamps = Arrays.copyOf(eventStamps,size);
+        sort(initialTimes,initialEvents,initialStamps);
+        size = 0;
+        times = new long[16];
+        events = new int[16];
+        eventStamps = new int[16];
+    }
+
+
+    /**
+     * Performs every event until none is left.
+     * @return the summary of the simulation so far.
+     */
+    public Summary run(){
+        return run(Long.MAX_VALUE);
+    }
+
+    /**
+     * Performs every event up to the given time, included, the simulation can be resumed later.
+     * @param until the simulated time to reach.
+     * @return the summary of the simulation so far.
+     */
+    public Summary run(long until){
+        long started = System.nanoTime();
+        long performed = transitions;
+        while (true){
+            long eventTime;
+            int event, stamp;
+            if(initialNext < initialTimes.length && (size == 0 || precedes(initialTimes[initialNext],initialEvents[initialNext],times[0],events[0]))){
+                eventTime = initialTimes[initialNext];
+                if(eventTime > until){
+                    break;
+                }
+                event = initialEvents[initialNext];
+                stamp = initialStamps[initialNext++];
+            }else if(size > 0 && times[0] <= until){
+                eventTime = times[0];
+                event = events[0];
+                stamp = eventStamps[0];
+                poll();
+            }else {
+                break;
+            }
+            int position = event >> 1;
+            int kind = event & 1;
+            if(stamp != stamps[position]){
+                continue;
+            }
+            time = Math.max(time,eventTime);
+            if(kind == START){
+                start(position);
+            }else {
+                complete(position);
+            }
+        }
+        if(until != Long.MAX_VALUE){
+            time = Math.max(time,until);
+        }
+        return summary(transitions - performed,System.nanoTime() - started);
+    }
+
+    /**
+     * @return the simulated time reached.
+     */
+    public long getTime(){
+        return time;
+    }
+
+    /**
+     * @return the summary of the simulation so far.
+     */
+    public Summary getSummary(){
+        return summary(0,0);
+    }
+
+
+    private void start(int position){
+        DependencyState state = states[position];
+        if(state.getStateValue() || state.isExtinct()){
+            schedule(position);
+            return;
+        }
+        long start = state.getStart();
+        if(start > time){
+            // The range has been moved later meanwhile.
+            push(start,position,START);
+            return;
+        }
+        if(!state.isActiveAllowed()){
+            suspend(position);
+            return;
+        }
+        if(start < time){
+            long end = state.getEnd();
+            state.setTime(time,end == Long.MAX_VALUE ? end : time + (end - start));
+            if(state.getStart() > time){
+                push(state.getStart(),position,START);
+                return;
+            }
+            long late = time - start;
+            delayedStarts++;
+            delay += late;
+            maxDelay = Math.max(maxDelay,late);
+        }
+        transitions++;
+        if(!state.setStateValue(true)){
+            suspend(position);
+            return;
+        }
+        starts++;
+        if(state.getEnd() == Long.MAX_VALUE){
+            completions++;
+        }
+        schedule(position);
+        resume(state);
+    }
+
+    private void complete(int position){
+        DependencyState state = states[position];
+        if(!state.getStateValue()){
+            schedule(position);
+            return;
+        }
+        long end = state.getEnd();
+        if(end > time){
+            push(end,position,COMPLETION);
+            return;
+        }
+        transitions++;
+        if(state.setStateValue(false)){
+            completions++;
+            resume(state);
+        }
+        schedule(position);
+    }
+
+    private void suspend(int position){
+        if(!suspended[position]){
+            suspended[position] = true;
+            suspendedCount++;
+            suspensions++;
+        }
+    }
+
+    /**
+     * Tries again the start of the suspended dependents of the given State, which has just performed a transition.
+     */
+    private void resume(DependencyState state){
+        if(suspendedCount == 0){
+            return;
+        }
+        for(DependencyState dependent : state.getDependentIndex()){
+            Integer position = positions.get(dependent);
+            if(position != null && suspended[position] && dependent.isActiveAllowed()){
+                suspended[position] = false;
+                suspendedCount--;
+                push(time,position,START);
+            }
+        }
+    }
+
+    /**
+     * Schedules the next transition of the State at the given position, according to its current condition value and range.
+     */
+    private void schedule(int position){
+        DependencyState state = states[position];
+        if(state.getStateValue()){
+            if(state.getEnd() != Long.MAX_VALUE){
+                push(Math.max(time,state.getEnd()),position,COMPLETION);
+            }
+        }else if(!state.isExtinct()){
+            push(Math.max(time,state.getStart()),position,START);
+        }
+    }
+
+
+    /**
+     * Adds an event to the binary heap, replacing the previous event of the same State.
+     */
+    private void push(long eventTime, int position, int kind){
+        if(size == times.length){
+            times = Arrays.copyOf(times,size * 2);
+            events = Arrays.copyOf(events,size * 2);
+            eventStamps = Arrays.copyOf(eventStamps,size * 2);
+        }
+        int event = position << 1 | kind;
+        int stamp = ++stamps[position];
+        int i = size++;
+        while (i > 0){
+            int parent = (i - 1) >>> 1;
+            if(!precedes(eventTime,event,times[parent],events[parent])){
+                break;
+            }
+            times[i] = times[parent];
+            events[i] = events[parent];
+            eventStamps[i] = eventStamps[parent];
+            i = parent;
+        }
+        times[i] = eventTime;
+        events[i] = event;
+        eventStamps[i] = stamp;
+    }
+
+    /**
+     * Removes the first event from the binary heap.
+     */
+    private void poll(){
+        int last = --size;
+        long lastTime = times[last];
+        int lastEvent = events[last];
+        int lastStamp = eventStamps[last];
+        int i = 0;
+        int half = last >>> 1;
+        while (i < half){
+            int child = 2 * i + 1;
+            if(child + 1 < last && precedes(times[child + 1],events[child + 1],times[child],events[child])){
+                child++;
+            }
+            if(!precedes(times[child],events[child],lastTime,lastEvent)){
+                break;
+            }
+            times[i] = times[child];
+            events[i] = events[child];
+            eventStamps[i] = eventStamps[child];
+            i = child;
+        }
+        times[i] = lastTime;
+        events[i] = lastEvent;
+        eventStamps[i] = lastStamp;
+    }
+
+    /**
+     * Sorts the given events in order, see {@link #precedes(long, int, long, int)}, through a merge sort.
+     */
+    private static void sort(long[] times, int[] events, int[] stamps){
+        int length = times.length;
+        long[] sourceTimes = times, targetTimes = new long[length];
+        int[] sourceEvents = events, targetEvents = new int[length];
+        int[] sourceStamps = stamps, targetStamps = new int[length];
+        for(int width = 1; width < length; width *= 2){
+            for(int low = 0; low < length; low += 2 * width){
+                int middle = Math.min(low + width,length);
+                int high = Math.min(low + 2 * width,length);
+                int i = low, j = middle;
+                for(int k = low; k < high; k++){
+                    int from = j >= high || i < middle && !precedes(sourceTimes[j],sourceEvents[j],sourceTimes[i],sourceEvents[i]) ? i++ : j++;
+                    targetTimes[k] = sourceTimes[from];
+                    targetEvents[k] = sourceEvents[from];
+                    targetStamps[k] = sourceStamps[from];
+                }
+            }
+            long[] swapTimes = sourceTimes;
+            sourceTimes = targetTimes;
+            targetTimes = swapTimes;
+            int[] swapEvents = sourceEvents;
+            sourceEvents = targetEvents;
+            targetEvents = swapEvents;
+            int[] swapStamps = sourceStamps;
+            sourceStamps = targetStamps;
+            targetStamps = swapStamps;
+        }
+        if(sourceTimes != times){
+            System.arraycopy(sourceTimes,0,times,0,length);
+            System.arraycopy(sourceEvents,0,events,0,length);
+            System.arraycopy(sourceStamps,0,stamps,0,length);
+        }
+    }
+
+    /**
+     * Orders the events by time, then the completions before the starts, then by position.
+     */
+    private static boolean precedes(long time, int event, long otherTime, int otherEvent){
+        if(time != otherTime){
+            return time < otherTime;
+        }
+        if((event & 1) != (otherEvent & 1)){
+            return (event & 1) == COMPLETION;
+        }
+        return event < otherEvent;
+    }
+
+    private Summary summary(long performed, long elapsed){
+        int suspendedNow = 0;
+        int pending = 0;
+        for(int i = 0; i < states.length; i++){
+            if(suspended[i]){
+                suspendedNow++;
+            }else if(!states[i].isExtinct() || states[i].getStateValue() && states[i].getEnd() != Long.MAX_VALUE){
+                pending++;
+            }
+        }
+        return new Summary(time,transitions,starts,completions,suspensions,suspendedNow,pending,delayedStarts,delay,maxDelay,performed,elapsed);
+    }
+
+
+    /**
+     * The summary of a simulation.
+     */
+    public static final class Summary {
+
+        private final long time, transitions, starts, completions, suspensions, delayedStarts, totalDelay, maxDelay;
+
+        private final int suspended, pending;
+
+        private final long performed, elapsedNanos;
+
+        private Summary(long time, long transitions, long starts, long completions, long suspensions, int suspended, int pending,
+                        long delayedStarts, long totalDelay, long maxDelay, long performed, long elapsedNanos){
+            this.time = time;
+            this.transitions = transitions;
+            this.starts = starts;
+            this.completions = completions;
+            this.suspensions = suspensions;
+            this.suspended = suspended;
+            this.pending = pending;
+            this.delayedStarts = delayedStarts;
+            this.totalDelay = totalDelay;
+            this.maxDelay = maxDelay;
+            this.performed = performed;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * @return the simulated time reached.
+         */
+        public long getTime() {
+            return time;
+        }
+
+        /**
+         * @return the number of transitions tried, whether performed or refused.
+         */
+        public long getTransitions() {
+            return transitions;
+        }
+
+        /**
+         * @return the number of State(s) which have become "active".
+         */
+        public long getStarts() {
+            return starts;
+        }
+
+        /**
+         * @return the number of State(s) completed.
+         */
+        public long getCompletions() {
+            return completions;
+        }
+
+        /**
+         * @return the number of times a State has been suspended, its "constraint condition" not allowing it to start.
+         */
+        public long getSuspensions() {
+            return suspensions;
+        }
+
+        /**
+         * @return the number of State(s) still suspended.
+         */
+        public int getSuspended() {
+            return suspended;
+        }
+
+        /**
+         * @return the number of State(s) not completed nor suspended, having a transition left.
+         */
+        public int getPending() {
+            return pending;
+        }
+
+        /**
+         * @return the number of State(s) started after their start.
+         */
+        public long getDelayedStarts() {
+            return delayedStarts;
+        }
+
+        /**
+         * @return the sum of the delays of the starts delayed.
+         */
+        public long getTotalDelay() {
+            return totalDelay;
+        }
+
+        /**
+         * @return the greatest delay of a start.
+         */
+        public long getMaxDelay() {
+            return maxDelay;
+        }
+
+        /**
+         * @return the number of transitions tried by the last run per second of real time ; 0 if not measured.
+         */
+        public double getTransitionsPerSecond() {
+            return elapsedNanos == 0 ? 0 : performed * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "Summary{" +
+                    "time=" + time +
+                    ", transitions=" + transitions +
+                    ", starts=" + starts +
+                    ", completions=" + completions +
+                    ", suspensions=" + suspensions +
+                    ", suspended=" + suspended +
+                    ", pending=" + pending +
+                    ", delayedStarts=" + delayedStarts +
+                    ", totalDelay=" + totalDelay +
+                    ", maxDelay=" + maxDelay +
+                    ", transitionsPerSecond=" + (long) getTransitionsPerSecond() +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.core.model.impl.adjustable.dependent.states;
+
+import com.core.model.api.State;
+import com.core.model.impl.adjustable.dependent.exc.LoopDependencyException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The Topological Order keeps the Dependency State(s) ordered so that each State comes after every State it depends on,
+ * by assigning to each one a "topological index".
+ *<p></p>
+ * The order is maintained incrementally while dependencies are added (Pearce-Kelly algorithm) :
+ * a new dependency already consistent with the order costs a constant time,
+ * otherwise only the States whose index lies between the two involved are visited and re-indexed among themselves.
+ * The same visit detects whether the new dependency would close a loop.
+ * Removing a dependency never invalidates the order.
+ *<p></p>
+ * Only Dependency State(s) take part in the order, any other State can not depend on other States so it can not be part of a loop.
+ */
+public final class TopologicalOrder {
+
+    private static final AtomicLong NEXT_INDEX = new AtomicLong();
+
+    private static final Comparator<DependencyState> BY_INDEX = Comparator.comparingLong(DependencyState::getTopologicalIndex);
+
+    private TopologicalOrder(){
+    }
+
+    /**
+     * Returns a new index, greater than all the indexes assigned before.
+     * @return the index for a new State.
+     */
+    static long nextIndex(){
+        return NEXT_INDEX.incrementAndGet();
+    }
+
+    /**
+     * Makes sure the indexes assigned from now on will be greater than the given one, for States restored from a persisted form.
+     * @param index an index in use.
+     */
+    static void reserve(long index){
+        NEXT_INDEX.accumulateAndGet(index,Math::max);
+    }
+
+    /**
+     * Validates a new dependency from the given dependent to the given dependency, re-indexing the States involved if needed.
+     * @param dependent the State which is going to depend on the dependency.
+     * @param dependency the State to depend on.
+     * @throws LoopDependencyException if the dependency would close a loop ; or the two States are the same.
+     */
+    static void validateDependency(DependencyState dependent, State dependency) throws LoopDependencyException {
+        if(dependency.equals(dependent)){
+            throw new LoopDependencyException("State has a circular dependency");
+        }
+        if(!(dependency instanceof DependencyState)){
+            return;
+        }
+        DependencyState source = (DependencyState) dependency;
+        long lowerBound = dependent.getTopologicalIndex();
+        long upperBound = source.getTopologicalIndex();
+        if(upperBound < lowerBound){
+            return;
+        }
+
+        List<DependencyState> forward = visitDependents(dependent,source,upperBound);
+        List<DependencyState> backward = visitDependencies(source,lowerBound);
+        reorder(backward,forward);
+    }
+
+    /**
+     * Collects the dependents reachable from the given State having an index not greater than the upper bound.
+     * @throws LoopDependencyException if the target is reached.
+     */
+    private static List<DependencyState> visitDependents(DependencyState start, DependencyState target, long upperBound) throws LoopDependencyException {
+        List<DependencyState> visited = new ArrayList<>();
+        Set<DependencyState> seen = new HashSet<>();
+        Deque<DependencyState> toVisit = new ArrayDeque<>();
+        seen.add(start);
+        toVisit.push(start);
+        while (!toVisit.isEmpty()){
+            DependencyState state = toVisit.pop();
+            visited.add(state);
+            for(DependencyState dependent : state.getDependentIndex()){
+                if(dependent == target){
+                    throw new LoopDependencyException("State has a circular dependency");
+                }
+                if(dependent.getTopologicalIndex() < upperBound && seen.add(dependent)){
+                    toVisit.push(dependent);
+                }
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * Collects the dependencies reachable from the given State having an index greater than the lower bound.
+     */
+    private static List<DependencyState> visitDependencies(DependencyState start, long lowerBound){
+        List<DependencyState> visited = new ArrayList<>();
+        Set<DependencyState> seen = new HashSet<>();
+        Deque<DependencyState> toVisit = new ArrayDeque<>();
+        seen.add(start);
+        toVisit.push(start);
+        while (!toVisit.isEmpty()){
+            DependencyState state = toVisit.pop();
+            visited.add(state);
+            pushDependencies(state.getStartTimeDepedencySet(),lowerBound,seen,toVisit);
+            pushDependencies(state.getEndTimeDepedencySet(),lowerBound,seen,toVisit);
+        }
+        return visited;
+    }
+
+    private static void pushDependencies(State[] dependencies, long lowerBound, Set<DependencyState> seen, Deque<DependencyState> toVisit){
+        for(State dependency : dependencies){
+            if(dependency instanceof DependencyState){
+                DependencyState state = (DependencyState) dependency;
+                if(state.getTopologicalIndex() > lowerBound && seen.add(state)){
+                    toVisit.push(state);
+                }
+            }
+        }
+    }
+
+    /**
+     * Re-assigns the indexes of the visited States among themselves : the dependencies visited first, then the dependents, each group in its previous order.
+     */
+    private static void reorder(List<DependencyState> backward, List<DependencyState> forward){
+        backward.sort(BY_INDEX);
+        forward.sort(BY_INDEX);
+        long[] indexes = new long[backward.size() + forward.size()];
+        int i = 0;
+        for(DependencyState state : backward){
+            indexes[i++] = state.getTopologicalIndex();
+        }
+        for(DependencyState state : forward){
+            indexes[i++] = state.getTopologicalIndex();
+        }
+        Arrays.sort(indexes);
+        i = 0;
+        for(DependencyState state : backward){
+            state.setTopologicalIndex(indexes[i++]);
+        }
+        for(DependencyState state : forward){
+            state.setTopologicalIndex(indexes[i++]);
+        }
+    }
+}
@@ -68,16 +68,29 @@ public class NoEndState extends DependencyState implements ReversibleState {
 
     @Override
     public TimeRange getRange() {
+        if(stateRange.getEnd() == Long.MAX_VALUE){
+            return stateRange;
+        }
         return new TimeRange(stateRange.getStart(),Long.MAX_VALUE);
     }
 
+    @Override
+    public long getEnd() {
+        return Long.MAX_VALUE;
+    }
+
     @Override
     public State getLeft() {
-        return NoStartState.getEndTimeRange(getRange().getStart(),false);
+        return NoStartState.getEndTimeRange(getStart(),false);
     }
 
     @Override
     public State getRight() {
         return null;
     }
+
+    @Override
+    public boolean hasRight() {
+        return false;
+    }
 }
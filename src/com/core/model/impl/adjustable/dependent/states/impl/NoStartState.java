@@ -75,7 +75,12 @@ public class NoStartState extends DependencyState implements ReversibleState {
 
     @Override
     public TimeRange getRange() {
-        return new TimeRange(Long.MAX_VALUE,getRange().getEnd());
+        return new TimeRange(Long.MAX_VALUE,stateRange.getEnd());
+    }
+
+    @Override
+    public long getStart() {
+        return Long.MAX_VALUE;
     }
 
     @Override
@@ -85,7 +90,17 @@ public class NoStartState extends DependencyState implements ReversibleState {
 
     @Override
     public State getRight() {
-        return NoEndState.getStartTimeRange(getRange().getStart(),false);
+        return NoEndState.getStartTimeRange(getStart(),false);
+    }
+
+    @Override
+    public boolean hasRight() {
+        return true;
+    }
+
+    @Override
+    public long getRightStart() {
+        return getStart();
     }
 
 }
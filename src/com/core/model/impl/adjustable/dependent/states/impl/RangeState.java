@@ -36,4 +36,14 @@ public class RangeState extends DependencyState implements ReversibleState {
     public State getRight() {
         return NoEndState.getStartTimeRange(stateRange.getEnd(),false);
     }
+
+    @Override
+    public boolean hasRight() {
+        return true;
+    }
+
+    @Override
+    public long getRightStart() {
+        return getEnd();
+    }
 }
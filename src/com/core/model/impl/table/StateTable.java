@@ -0,0 +1,261 @@
+package com.core.model.impl.table;
+
+import com.core.model.TimeRange;
+import com.core.model.api.StateObserver;
+import com.core.model.impl.adjustable.dependent.states.PropagationEngine;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A State Table stores a large number of states by columns, each state is a row addressed by an int "handle".
+ *<p></p>
+ * The start, the end, and the condition flags ("active" ; "extinct" ; "undefined") of each state are kept in primitive arrays,
+ * so a state costs a few bytes instead of the objects graph of a Dependency State.
+ * The rows can be accessed through the handle, or through a Table State which is a thin State view of a row, created on demand.
+ *<p></p>
+ * A row behaves as a Mutable State : its range can be changed until it becomes "extinct", and its variations are delivered to the observers subscribed
+ * through the Propagation Engine, so a Table State can be a dependency of a Dependency State.
+ * The observers are kept only for the rows having any.
+ *<p></p>
+ * Note on concurrency: a State Table is not thread-safe.
+ */
+public class StateTable implements Serializable {
+
+    private static final byte ACTIVE = 1;
+
+    private static final byte EXTINCT = 1 << 1;
+
+    private static final byte UNDEFINED = 1 << 2;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private Long id;
+
+    private long[] starts;
+
+    private long[] ends;
+
+    private byte[] flags;
+
+    private int size;
+
+    private Map<Integer,List<StateObserver>> observers;
+
+    public StateTable(){
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param initialCapacity number of rows allocated in advance.
+     */
+    public StateTable(int initialCapacity){
+        if(initialCapacity < 0){
+            throw new IllegalArgumentException();
+        }
+        starts = new long[initialCapacity];
+        ends = new long[initialCapacity];
+        flags = new byte[initialCapacity];
+    }
+
+    /**
+     * Adds a new row, with the same validation of a Fixed State.
+     * @param start the start of the state range.
+     * @param end the end of the state range.
+     * @param isUndefined true if the state is "undefined".
+     * @return the handle of the row.
+     * @throws IllegalArgumentException if end < start ; or end < 0.
+     */
+    public int add(long start, long end, boolean isUndefined){
+        if(end < start || end < 0){
+            throw new IllegalArgumentException();
+        }
+        if(size == starts.length){
+            grow();
+        }
+        int handle = size++;
+        starts[handle] = start;
+        ends[handle] = end;
+        flags[handle] = isUndefined ? UNDEFINED : 0;
+        return handle;
+    }
+
+    private void grow(){
+        int capacity = starts.length + (starts.length >> 1) + 1;
+        starts = Arrays.copyOf(starts,capacity);
+        ends = Arrays.copyOf(ends,capacity);
+        flags = Arrays.copyOf(flags,capacity);
+    }
+
+    /**
+     * @return the number of rows.
+     */
+    public int size(){
+        return size;
+    }
+
+    /**
+     * Returns a State view of the given row, views of the same row are equal.
+     * @param handle the row handle.
+     * @return the view.
+     */
+    public TableState getState(int handle){
+        checkHandle(handle);
+        return new TableState(this,handle);
+    }
+
+    public long getStart(int handle){
+        checkHandle(handle);
+        return starts[handle];
+    }
+
+    public long getEnd(int handle){
+        checkHandle(handle);
+        return ends[handle];
+    }
+
+    public TimeRange getRange(int handle){
+        checkHandle(handle);
+        return new TimeRange(starts[handle],ends[handle]);
+    }
+
+    public boolean getStateValue(int handle){
+        return hasFlag(handle,ACTIVE);
+    }
+
+    public boolean isExtinct(int handle){
+        return hasFlag(handle,EXTINCT);
+    }
+
+    public boolean isUndefined(int handle){
+        return hasFlag(handle,UNDEFINED);
+    }
+
+    /**
+     * Sets the range of the given row, as a Mutable State does.
+     * @param handle the row handle.
+     * @param start The start parameter value to set.
+     * @param end The end parameter value to set.
+     * @return true if the range has been changed successfully ; false if the state is "extinct".
+     * @throws IllegalArgumentException if end < start.
+     */
+    public boolean setTime(int handle, long start, long end){
+        if(isExtinct(handle)){
+            return false;
+        }
+        if(end < start){
+            throw new IllegalArgumentException();
+        }
+        journal(handle);
+        starts[handle] = start;
+        ends[handle] = end;
+        List<StateObserver> rowObservers = getObservers(handle);
+        if(rowObservers != null){
+            PropagationEngine.notifyRangeChange(new TimeRange(start,end),new TableState(this,handle),rowObservers);
+        }
+        return true;
+    }
+
+    /**
+     * Assigns the condition value of the given row, as a Fixed State does : once "active" the state becomes "extinct".
+     * @param handle the row handle.
+     * @param value value to be assigned to state condition property.
+     * @return true if the value is changed ; false if the row has already the given value.
+     */
+    public boolean setStateValue(int handle, boolean value){
+        if(getStateValue(handle) == value){
+            return false;
+        }
+        journal(handle);
+        if(value){
+            flags[handle] |= ACTIVE | EXTINCT;
+        }else {
+            flags[handle] &= ~ACTIVE;
+        }
+        List<StateObserver> rowObservers = getObservers(handle);
+        if(rowObservers != null){
+            PropagationEngine.notifyStateChange(value,new TableState(this,handle),rowObservers);
+        }
+        return true;
+    }
+
+    public void addStateObserver(int handle, StateObserver listener){
+        checkHandle(handle);
+        if(observers == null){
+            observers = new HashMap<>();
+        }
+        List<StateObserver> rowObservers = observers.computeIfAbsent(handle,row -> new CopyOnWriteArrayList<>());
+        journalObservers(handle,rowObservers);
+        rowObservers.add(listener);
+    }
+
+    public void removeStateObserver(int handle, StateObserver listener){
+        List<StateObserver> rowObservers = getObservers(handle);
+        if(rowObservers != null){
+            journalObservers(handle,rowObservers);
+            rowObservers.remove(listener);
+            if(rowObservers.isEmpty()){
+                observers.remove(handle);
+            }
+        }
+    }
+
+    private List<StateObserver> getObservers(int handle){
+        checkHandle(handle);
+        return observers == null ? null : observers.get(handle);
+    }
+
+    /**
+     * Saves the values of the given row within a batch, in order to restore them on rollback.
+     */
+    private void journal(int handle){
+        if(PropagationEngine.isBatching()){
+            long savedStart = starts[handle];
+            long savedEnd = ends[handle];
+            byte savedFlags = flags[handle];
+            PropagationEngine.onRollback(() -> {
+                starts[handle] = savedStart;
+                ends[handle] = savedEnd;
+                flags[handle] = savedFlags;
+                List<StateObserver> rowObservers = getObservers(handle);
+                if(rowObservers != null){
+                    TableState state = new TableState(this,handle);
+                    for(StateObserver observer : rowObservers){
+                        observer.onRangeInvalidated(state);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Saves the observers of the given row within a batch, in order to restore them on rollback.
+     */
+    private void journalObservers(int handle, List<StateObserver> rowObservers){
+        if(PropagationEngine.isBatching()){
+            StateObserver[] savedObservers = rowObservers.toArray(new StateObserver[0]);
+            PropagationEngine.onRollback(() -> {
+                if(savedObservers.length == 0){
+                    observers.remove(handle);
+                }else {
+                    observers.put(handle,new CopyOnWriteArrayList<>(savedObservers));
+                }
+            });
+        }
+    }
+
+    private boolean hasFlag(int handle, byte flag){
+        checkHandle(handle);
+        return (flags[handle] & flag) != 0;
+    }
+
+    private void checkHandle(int handle){
+        if(handle < 0 || handle >= size){
+            throw new IndexOutOfBoundsException("Handle: " + handle + ", Size: " + size);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.core.model.impl.table;
+
+import com.core.model.TimeRange;
+import com.core.model.api.MutableState;
+import com.core.model.api.ObservableState;
+import com.core.model.api.State;
+import com.core.model.api.StateObserver;
+
+import java.io.Serializable;
+
+/**
+ * A Table State is a thin State view of a State Table row, it holds only the table and the row handle.
+ *<p></p>
+ * Views are created on demand and are not retained by the table : two views of the same row are equal and share every value.
+ */
+public final class TableState implements MutableState, ObservableState, Comparable<State>, Serializable {
+
+    private final StateTable table;
+
+    private final int handle;
+
+    TableState(StateTable table, int handle) {
+        this.table = table;
+        this.handle = handle;
+    }
+
+    public StateTable getTable(){
+        return table;
+    }
+
+    public int getHandle(){
+        return handle;
+    }
+
+    @Override
+    public boolean getStateValue() {
+        return table.getStateValue(handle);
+    }
+
+    @Override
+    public TimeRange getRange() {
+        return table.getRange(handle);
+    }
+
+    @Override
+    public long getStart() {
+        return table.getStart(handle);
+    }
+
+    @Override
+    public long getEnd() {
+        return table.getEnd(handle);
+    }
+
+    @Override
+    public boolean isUndefined() {
+        return table.isUndefined(handle);
+    }
+
+    @Override
+    public boolean setStateValue(boolean value) {
+        return table.setStateValue(handle,value);
+    }
+
+    @Override
+    public boolean isExtinct() {
+        return table.isExtinct(handle);
+    }
+
+    /**
+     * Sets the row range with the given side parameters (start ; end).
+     * @param start The start parameter value to set.
+     * @param end The end parameter value to set.
+     * @return true if the range has been changed successfully ; false if the state is "extinct".
+     */
+    public boolean setTime(long start, long end){
+        return table.setTime(handle,start,end);
+    }
+
+    @Override
+    public void addStateObserver(StateObserver listener) {
+        table.addStateObserver(handle,listener);
+    }
+
+    @Override
+    public void removeStateObserver(StateObserver listener) {
+        table.removeStateObserver(handle,listener);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TableState that = (TableState) o;
+        return handle == that.handle && table == that.table;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(table) + handle;
+    }
+
+    @Override
+    public int compareTo(State o) {
+        return this.getRange().compareTo(o.getRange());
+    }
+
+    @Override
+    public String toString() {
+        return "TableState{" +
+                "handle=" + handle +
+                ", state=" + getStateValue() +
+                ", stateRange=" + getRange() +
+                ", extinct=" + isExtinct() +
+                '}';
+    }
+}
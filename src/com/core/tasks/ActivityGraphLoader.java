@@ -0,0 +1,130 @@
+package com.core.tasks;
+
+import com.core.model.api.State;
+import com.core.model.impl.Side;
+import com.core.model.impl.adjustable.dependent.constraint.api.Constraint;
+import com.core.model.impl.adjustable.dependent.constraint.impl.ExactSideConstraint;
+import com.core.model.impl.adjustable.dependent.constraint.impl.NoEndConstraint;
+import com.core.model.impl.adjustable.dependent.exc.NotSupportedDependency;
+import com.core.model.impl.adjustable.dependent.exc.StateException;
+import com.core.model.impl.adjustable.dependent.states.GraphLoader;
+
+/**
+ * The Activity Graph Loader creates at once the relationships of many Activity Task(s), as the relationship methods of {@link ActivityTask} would do one at a time,
+ * through a {@link GraphLoader} : in a time linear in the number of activities and relationships, validating the whole graph before changing any activity.
+ *<p></p>
+ * The relationship k means that the activity at position {@code dependents[k]} depends on the activity at position {@code dependencies[k]} as {@code relationships[k]} states.
+ * The activities having a relationship to load must not have any yet, see {@link GraphLoader}.
+ */
+public final class ActivityGraphLoader {
+
+    /**
+     * The relationships between two Activity Task(s).
+     */
+    public enum Relationship {
+        /**
+         * See {@link ActivityTask#progressIfCompleted(ActivityTask)}.
+         */
+        PROGRESS_IF_COMPLETED,
+        /**
+         * See {@link ActivityTask#progressIfProgress(ActivityTask)}.
+         */
+        PROGRESS_IF_PROGRESS,
+        /**
+         * See {@link ActivityTask#completedIfCompleted(ActivityTask)}.
+         */
+        COMPLETED_IF_COMPLETED,
+        /**
+         * See {@link ParentActivityTask#addSubActivityTask(ActivityTask)}.
+         */
+        SUB_ACTIVITY
+    }
+
+    private ActivityGraphLoader(){
+    }
+
+
+    /**
+     * Creates the given relationships between the given activities.
+     * @param activities the activities.
+     * @param dependents the position of the dependent activity of each relationship.
+     * @param dependencies the position of the activity depended on by each relationship.
+     * @param relationships the kind of each relationship.
+     * @throws NotSupportedDependency if a Parent Activity Task depends on other activities than its sub activities ; if a sub activity is added to an activity which is not a Parent Activity Task.
+     * @throws StateException if the relationships form a loop ; if the range of an activity can not be adjusted for its relationships.
+     * @throws IllegalArgumentException if the arrays have different lengths ; if a position is out of bounds ; if a dependent activity has relationships already.
+     */
+    public static void load(ActivityTask[] activities, int[] dependents, int[] dependencies, Relationship[] relationships) throws StateException {
+        int edges = dependents.length;
+        if(dependencies.length != edges || relationships.length != edges){
+            throw new IllegalArgumentException("The relationship arrays have different lengths");
+        }
+        int subActivities = 0;
+        for(int k = 0; k < edges; k++){
+            if(dependents[k] < 0 || dependents[k] >= activities.length){
+                throw new IllegalArgumentException("Relationship position out of bounds");
+            }
+            boolean parent = activities[dependents[k]] instanceof ParentActivityTask;
+            if(relationships[k] == Relationship.SUB_ACTIVITY){
+                if(!parent){
+                    throw new NotSupportedDependency("Only a Parent Activity Task can have sub activities");
+                }
+                subActivities++;
+            }else if(parent){
+                throw new NotSupportedDependency("Parent Activity Task can depend only on sub activities");
+            }
+        }
+
+        State[] states = new State[activities.length];
+        for(int i = 0; i < activities.length; i++){
+            states[i] = activities[i].progressState;
+        }
+
+        // A sub activity is a dependency of both sides of its parent, each side with its own "constraint function" already set.
+        int size = edges + subActivities;
+        int[] stateDependents = new int[size];
+        int[] stateDependencies = new int[size];
+        Side[] sides = new Side[size];
+        Constraint[] constraints = new Constraint[size];
+        Constraint[] startConstraints = new Constraint[activities.length];
+        Constraint[] endConstraints = new Constraint[activities.length];
+        int position = 0;
+        for(int k = 0; k < edges; k++){
+            int dependent = dependents[k];
+            stateDependents[position] = dependent;
+            stateDependencies[position] = dependencies[k];
+            switch (relationships[k]){
+                case PROGRESS_IF_COMPLETED:
+                    if(startConstraints[dependent] == null){
+                        startConstraints[dependent] = new NoEndConstraint();
+                    }
+                    sides[position] = Side.START;
+                    constraints[position] = startConstraints[dependent];
+                    break;
+                case PROGRESS_IF_PROGRESS:
+                    if(startConstraints[dependent] == null){
+                        startConstraints[dependent] = new ExactSideConstraint(Side.START,true);
+                    }
+                    sides[position] = Side.START;
+                    constraints[position] = startConstraints[dependent];
+                    break;
+                case COMPLETED_IF_COMPLETED:
+                    if(endConstraints[dependent] == null){
+                        endConstraints[dependent] = new ExactSideConstraint(Side.END,true);
+                    }
+                    sides[position] = Side.END;
+                    constraints[position] = endConstraints[dependent];
+                    break;
+                case SUB_ACTIVITY:
+                    sides[position] = Side.START;
+                    position++;
+                    stateDependents[position] = dependent;
+                    stateDependencies[position] = dependencies[k];
+                    sides[position] = Side.END;
+                    break;
+            }
+            position++;
+        }
+        GraphLoader.load(states,stateDependents,stateDependencies,sides,constraints);
+    }
+}
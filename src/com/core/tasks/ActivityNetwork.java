@@ -0,0 +1,174 @@
+package com.core.tasks;
+
+import com.core.model.api.State;
+import com.core.model.impl.adjustable.dependent.constraint.api.Constraint;
+import com.core.model.impl.adjustable.dependent.constraint.impl.NoEndConstraint;
+import com.core.model.impl.adjustable.dependent.states.DependencyState;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * The Activity Network is a copy of the links between a set of Activity Task(s), read from their dependencies, with the activities in topological order.
+ *<p></p>
+ * {@link ActivityTask#progressIfCompleted(ActivityTask)} is a "Finish to Start" link, {@link ActivityTask#progressIfProgress(ActivityTask)} a "Start to Start" link,
+ * {@link ActivityTask#completedIfCompleted(ActivityTask)} a "Finish to Finish" link, and a {@link ParentActivityTask} is linked to each of its sub activities once.
+ * The dependencies on States which are not the activities given are ignored.
+ *<p></p>
+ * The copy is not kept current : a dependency added or removed afterwards requires to read the network again.
+ */
+final class ActivityNetwork {
+
+    static final byte FINISH_TO_START = 0, START_TO_START = 1, FINISH_TO_FINISH = 2, SUB_ACTIVITY = 3;
+
+    private static final int[] NONE = new int[0];
+
+    /**
+     * The activities in topological order, and their position in it.
+     */
+    final ActivityTask[] ordered;
+
+    final Map<ActivityTask,Integer> positions;
+
+    final int[][] predecessors, successors;
+
+    final byte[][] predecessorLinks, successorLinks;
+
+    /**
+     * Reads the links of the given activities and sorts them in topological order.
+     * @param activities the activities.
+     * @throws IllegalArgumentException if the dependencies of the activities form a loop.
+     */
+    ActivityNetwork(Collection<? extends ActivityTask> activities){
+        Map<State,Integer> indexes = new IdentityHashMap<>();
+        for(ActivityTask activity : activities){
+            indexes.putIfAbsent(activity.progressState,indexes.size());
+        }
+        ActivityTask[] tasks = new ActivityTask[indexes.size()];
+        for(ActivityTask activity : activities){
+            tasks[indexes.get(activity.progressState)] = activity;
+        }
+        int size = tasks.length;
+
+        List<List<int[]>> links = new ArrayList<>(size);
+        int[] pending = new int[size];
+        for(int i = 0; i < size; i++){
+            links.add(new ArrayList<>());
+        }
+        for(int i = 0; i < size; i++){
+            DependencyState state = tasks[i].progressState;
+            boolean parent = tasks[i] instanceof ParentActivityTask;
+            byte startLink = parent ? SUB_ACTIVITY : linkOf(state.getStartTimeConstraint());
+            byte endLink = parent ? SUB_ACTIVITY : FINISH_TO_FINISH;
+            for(State dependency : state.getStartTimeDepedencySet()){
+                Integer predecessor = indexes.get(dependency);
+                if(predecessor != null){
+                    links.get(predecessor).add(new int[]{i,startLink});
+                    pending[i]++;
+                }
+            }
+            for(State dependency : state.getEndTimeDepedencySet()){
+                Integer predecessor = indexes.get(dependency);
+                if(predecessor != null && !(parent && contains(links.get(predecessor),i))){
+                    links.get(predecessor).add(new int[]{i,endLink});
+                    pending[i]++;
+                }
+            }
+        }
+
+        int[] order = new int[size];
+        int[] position = new int[size];
+        int head = 0, tail = 0;
+        for(int i = 0; i < size; i++){
+            if(pending[i] == 0){
+                order[tail++] = i;
+            }
+        }
+        while (head < tail){
+            int i = order[head++];
+            for(int[] link : links.get(i)){
+                if(--pending[link[0]] == 0){
+                    order[tail++] = link[0];
+                }
+            }
+        }
+        if(tail < size){
+            throw new IllegalArgumentException("The dependencies of the activities form a loop");
+        }
+        for(int k = 0; k < size; k++){
+            position[order[k]] = k;
+        }
+
+        ordered = new ActivityTask[size];
+        positions = new IdentityHashMap<>();
+        successors = new int[size][];
+        successorLinks = new byte[size][];
+        int[] predecessorCounts = new int[size];
+        for(int k = 0; k < size; k++){
+            int i = order[k];
+            ordered[k] = tasks[i];
+            List<int[]> out = links.get(i);
+            successors[k] = out.isEmpty() ? NONE : new int[out.size()];
+            successorLinks[k] = new byte[out.size()];
+            for(int l = 0; l < out.size(); l++){
+                successors[k][l] = position[out.get(l)[0]];
+                successorLinks[k][l] = (byte) out.get(l)[1];
+                predecessorCounts[successors[k][l]]++;
+            }
+        }
+        for(ActivityTask activity : activities){
+            positions.put(activity,position[indexes.get(activity.progressState)]);
+        }
+        predecessors = new int[size][];
+        predecessorLinks = new byte[size][];
+        for(int k = 0; k < size; k++){
+            predecessors[k] = predecessorCounts[k] == 0 ? NONE : new int[predecessorCounts[k]];
+            predecessorLinks[k] = new byte[predecessorCounts[k]];
+            predecessorCounts[k] = 0;
+        }
+        for(int k = 0; k < size; k++){
+            for(int l = 0; l < successors[k].length; l++){
+                int successor = successors[k][l];
+                predecessors[successor][predecessorCounts[successor]] = k;
+                predecessorLinks[successor][predecessorCounts[successor]++] = successorLinks[k][l];
+            }
+        }
+    }
+
+    /**
+     * @return the number of activities.
+     */
+    int size(){
+        return ordered.length;
+    }
+
+    /**
+     * @param activity an activity.
+     * @return the position of the activity in topological order.
+     * @throws NoSuchElementException if the activity is not part of the network.
+     */
+    int position(ActivityTask activity){
+        Integer position = positions.get(activity);
+        if(position == null){
+            throw new NoSuchElementException("The activity is not part of the graph");
+        }
+        return position;
+    }
+
+    private static boolean contains(List<int[]> links, int successor){
+        for(int[] link : links){
+            if(link[0] == successor){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte linkOf(Constraint startConstraint){
+        return startConstraint instanceof NoEndConstraint ? FINISH_TO_START : START_TO_START;
+    }
+}
@@ -6,6 +6,7 @@ import com.core.model.api.State;
 import com.core.model.api.StateObject;
 import com.core.model.TimeRange;
 import com.core.model.impl.Side;
+import com.core.model.impl.Snapshot;
 import com.core.model.impl.adjustable.dependent.states.DependencyState;
 import com.core.model.impl.adjustable.dependent.states.impl.RangeState;
 import com.core.model.impl.adjustable.dependent.constraint.impl.ExactSideConstraint;
@@ -59,13 +60,22 @@ public class ActivityTask implements StateObject {
     }
 
 
+    /**
+     * Gets the progress range this Activity Task had in the given Snapshot.
+     * @param snapshot the Snapshot to read.
+     * @return the progress range.
+     */
+    public TimeRange getProgressRange(Snapshot snapshot){
+        return snapshot.getRange(progressState);
+    }
+
+
     /**
      *
      * @return
      */
     public long getDuration(){
-        TimeRange range = getProgressRange();
-        return range.getEnd() - range.getStart();
+        return progressState.getEnd() - progressState.getStart();
     }
 
     public boolean setTime(long start,long end){
@@ -76,7 +86,7 @@ public class ActivityTask implements StateObject {
         if(move){
             return setTime(start,start + getDuration());
         }else {
-            return setTime(start,progressState.getRange().getEnd());
+            return setTime(start,progressState.getEnd());
         }
     }
 
@@ -91,7 +101,7 @@ public class ActivityTask implements StateObject {
         if(move){
             return setTime(end - getDuration(),end);
         }else {
-            return setTime(progressState.getRange().getStart(), end);
+            return setTime(progressState.getStart(), end);
         }
     }
 
@@ -188,6 +198,24 @@ public class ActivityTask implements StateObject {
         return (!progressState.getStateValue() && progressState.isExtinct());
     }
 
+    /**
+     * Test if this Activity Task was in progress state in the given Snapshot.
+     * @param snapshot the Snapshot to read.
+     * @return true if it was in progress; false if it was completed, or not already in progress.
+     */
+    public boolean isInProgress(Snapshot snapshot){
+        return snapshot.getStateValue(progressState);
+    }
+
+    /**
+     * Test if this Activity Task was completed in the given Snapshot.
+     * @param snapshot the Snapshot to read.
+     * @return true if it was completed; false if not.
+     */
+    public boolean isCompleted(Snapshot snapshot){
+        return (!snapshot.getStateValue(progressState) && snapshot.isExtinct(progressState));
+    }
+
 
 
 }
@@ -0,0 +1,440 @@
+package com.core.tasks;
+
+import com.core.model.impl.adjustable.dependent.states.DependencyState;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * The Critical Path Engine computes the schedule of a set of Activity Task(s) by the critical path method :
+ * a forward pass gives the earliest start and finish of each activity, a backward pass from the project finish gives the latest ones,
+ * both in linear time over the activities taken in topological order.
+ *<p></p>
+ * The graph is read from the dependencies of the activities :
+ * {@link ActivityTask#progressIfCompleted(ActivityTask)} is a "Finish to Start" link, {@link ActivityTask#progressIfProgress(ActivityTask)} a "Start to Start" link,
+ * {@link ActivityTask#completedIfCompleted(ActivityTask)} a "Finish to Finish" link, and a {@link ParentActivityTask} spans its sub activities :
+ * it starts with the first one and finishes with the last one, and none of them can slip more than the parent itself.
+ * The dependencies on States which are not the activities given are ignored.
+ *<p></p>
+ * The duration of each activity is its current progress range duration, an activity without predecessors starts at its current start.
+ * The total float of an activity is the delay it can take without delaying the project finish, the free float the one without delaying any successor,
+ * the critical chain is made of the activities with no total float.
+ *<p></p>
+ * Note on updates :
+ *<p></p>
+ * [Once the range of a single activity is changed, {@link #update(ActivityTask)} recomputes only the activities reached by the variation,
+ * forward from the activity in topological order and then backward from the ones changed, stopping where the values are unchanged :
+ * its cost is proportional to the activities recomputed, times a logarithmic factor, not to the size of the graph.
+ * The latest dates are kept relative to the project finish, so a move of the project finish changes none of them, and the project bounds are kept
+ * along with the number of activities reaching them. Only once every activity reaching a bound moves away from it, the bound is searched again among all the activities.
+ * A dependency added or removed requires {@link #refresh()}.]
+ *<p></p>
+ * Note on concurrency: a Critical Path Engine is not thread-safe.
+ */
+public final class CriticalPathEngine {
+
+    private static final byte FINISH_TO_START = ActivityNetwork.FINISH_TO_START, START_TO_START = ActivityNetwork.START_TO_START,
+            FINISH_TO_FINISH = ActivityNetwork.FINISH_TO_FINISH;
+
+    private final List<ActivityTask> activities;
+
+    /**
+     * The activities in topological order, and their position in it.
+     */
+    private ActivityTask[] ordered;
+
+    private Map<ActivityTask,Integer> positions;
+
+    private int[][] predecessors, successors;
+
+    private byte[][] predecessorLinks, successorLinks;
+
+    private long[] durations, anchors, earliestStarts, earliestFinishes;
+
+    /**
+     * The latest dates, relative to the project finish.
+     */
+    private long[] latestStarts, latestFinishes;
+
+    private long projectStart, projectFinish;
+
+    /**
+     * The number of activities starting at the project start, and finishing at the project finish.
+     */
+    private int projectStartCount, projectFinishCount;
+
+    /**
+     * The activities reached by the pass in progress, and the ones to visit, reused by every update.
+     */
+    private boolean[] reached;
+
+    private final List<Integer> visited = new ArrayList<>();
+
+    private final PriorityQueue<Integer> toVisit = new PriorityQueue<>();
+
+    private final PriorityQueue<Integer> toVisitBackward = new PriorityQueue<>(Comparator.reverseOrder());
+
+    /**
+     * Computes the schedule of the given activities.
+     * @param activities the activities.
+     * @throws IllegalArgumentException if the dependencies of the activities form a loop.
+     */
+    public CriticalPathEngine(Collection<? extends ActivityTask> activities){
+        this.activities = new ArrayList<>(activities);
+        refresh();
+    }
+
+    /**
+     * Reads again the graph of the activities and computes the whole schedule.
+     * @throws IllegalArgumentException if the dependencies of the activities form a loop.
+     */
+    public void refresh(){
+        build();
+        for(int i = 0; i < ordered.length; i++){
+            readActivity(i);
+        }
+        for(int i = 0; i < ordered.length; i++){
+            forward(i);
+        }
+        searchProjectStart();
+        searchProjectFinish();
+        for(int i = ordered.length - 1; i >= 0; i--){
+            backward(i);
+        }
+    }
+
+    /**
+     * Recomputes the schedule once the range of the given activity is changed : its duration, and its start if it has no predecessors.
+     * @param activity the activity changed.
+     * @return true if the schedule of any activity is changed ; false if not.
+     * @throws NoSuchElementException if the activity is not part of the graph.
+     */
+    public boolean update(ActivityTask activity){
+        int changed = position(activity);
+        long previousDuration = durations[changed];
+        long previousAnchor = anchors[changed];
+        readActivity(changed);
+        if(previousDuration == durations[changed] && previousAnchor == anchors[changed]){
+            return false;
+        }
+
+        long previousStart = projectStart;
+        List<Integer> forwardChanged = new ArrayList<>();
+        toVisit.add(changed);
+        reach(changed);
+        while (!toVisit.isEmpty()){
+            int i = toVisit.poll();
+            long start = earliestStarts[i];
+            long finish = earliestFinishes[i];
+            forward(i);
+            if(i != changed && start == earliestStarts[i] && finish == earliestFinishes[i]){
+                continue;
+            }
+            forwardChanged.add(i);
+            moveProjectBounds(start,finish,earliestStarts[i],earliestFinishes[i]);
+            for(int successor : successors[i]){
+                if(!reached[successor]){
+                    reach(successor);
+                    toVisit.add(successor);
+                }
+            }
+        }
+        clearReached();
+        if(projectStartCount == 0){
+            searchProjectStart();
+        }
+        if(projectFinishCount == 0){
+            searchProjectFinish();
+        }
+
+        for(int i : forwardChanged){
+            if(!reached[i]){
+                reach(i);
+                toVisitBackward.add(i);
+            }
+            for(int predecessor : predecessors[i]){
+                if(!reached[predecessor]){
+                    reach(predecessor);
+                    toVisitBackward.add(predecessor);
+                }
+            }
+        }
+        while (!toVisitBackward.isEmpty()){
+            int i = toVisitBackward.poll();
+            long start = latestStarts[i];
+            long finish = latestFinishes[i];
+            backward(i);
+            if(start == latestStarts[i] && finish == latestFinishes[i]){
+                continue;
+            }
+            for(int predecessor : predecessors[i]){
+                if(!reached[predecessor]){
+                    reach(predecessor);
+                    toVisitBackward.add(predecessor);
+                }
+            }
+        }
+        clearReached();
+        return !forwardChanged.isEmpty() || previousStart != projectStart;
+    }
+
+    public long getProjectStart(){
+        return projectStart;
+    }
+
+    public long getProjectFinish(){
+        return projectFinish;
+    }
+
+    public long getEarliestStart(ActivityTask activity){
+        return earliestStarts[position(activity)];
+    }
+
+    public long getEarliestFinish(ActivityTask activity){
+        return earliestFinishes[position(activity)];
+    }
+
+    public long getLatestStart(ActivityTask activity){
+        return projectFinish + latestStarts[position(activity)];
+    }
+
+    public long getLatestFinish(ActivityTask activity){
+        return projectFinish + latestFinishes[position(activity)];
+    }
+
+    /**
+     * @param activity the activity.
+     * @return the delay the activity can take without delaying the project finish.
+     */
+    public long getTotalFloat(ActivityTask activity){
+        int i = position(activity);
+        return projectFinish + latestStarts[i] - earliestStarts[i];
+    }
+
+    /**
+     * @param activity the activity.
+     * @return the delay the activity can take without delaying the earliest start of any successor, nor the project finish.
+     */
+    public long getFreeFloat(ActivityTask activity){
+        int i = position(activity);
+        long free = successors[i].length == 0 ? projectFinish - earliestFinishes[i] : Long.MAX_VALUE;
+        for(int k = 0; k < successors[i].length; k++){
+            int successor = successors[i][k];
+            switch (successorLinks[i][k]){
+                case FINISH_TO_START:
+                    free = Math.min(free,earliestStarts[successor] - earliestFinishes[i]);
+                    break;
+                case START_TO_START:
+                    free = Math.min(free,earliestStarts[successor] - earliestStarts[i]);
+                    break;
+                default:
+                    free = Math.min(free,earliestFinishes[successor] - earliestFinishes[i]);
+                    break;
+            }
+        }
+        return Math.max(0,Math.min(free,projectFinish + latestStarts[i] - earliestStarts[i]));
+    }
+
+    /**
+     * @param activity the activity.
+     * @return true if the activity has no total float.
+     */
+    public boolean isCritical(ActivityTask activity){
+        return getTotalFloat(activity) <= 0;
+    }
+
+    /**
+     * @return the activities with no total float, by earliest start and then in topological order.
+     */
+    public List<ActivityTask> getCriticalChain(){
+        List<Integer> critical = new ArrayList<>();
+        for(int i = 0; i < ordered.length; i++){
+            if(projectFinish + latestStarts[i] - earliestStarts[i] <= 0){
+                critical.add(i);
+            }
+        }
+        critical.sort(Comparator.<Integer>comparingLong(i -> earliestStarts[i]).thenComparingInt(i -> i));
+        List<ActivityTask> chain = new ArrayList<>(critical.size());
+        for(int i : critical){
+            chain.add(ordered[i]);
+        }
+        return Collections.unmodifiableList(chain);
+    }
+
+
+    /**
+     * Reads the links of the activities and sorts them in topological order.
+     */
+    private void build(){
+        ActivityNetwork network = new ActivityNetwork(activities);
+        ordered = network.ordered;
+        positions = network.positions;
+        predecessors = network.predecessors;
+        successors = network.successors;
+        predecessorLinks = network.predecessorLinks;
+        successorLinks = network.successorLinks;
+
+        int size = ordered.length;
+        durations = new long[size];
+        anchors = new long[size];
+        earliestStarts = new long[size];
+        earliestFinishes = new long[size];
+        latestStarts = new long[size];
+        latestFinishes = new long[size];
+        reached = new boolean[size];
+    }
+
+    private void readActivity(int i){
+        DependencyState state = ordered[i].progressState;
+        durations[i] = state.getEnd() - state.getStart();
+        anchors[i] = state.getStart();
+    }
+
+    /**
+     * Computes the earliest start and finish of an activity, from the ones of its predecessors.
+     */
+    private void forward(int i){
+        int[] links = predecessors[i];
+        if(links.length == 0){
+            earliestStarts[i] = anchors[i];
+            earliestFinishes[i] = anchors[i] + durations[i];
+            return;
+        }
+        if(ordered[i] instanceof ParentActivityTask){
+            long start = Long.MAX_VALUE;
+            long finish = Long.MIN_VALUE;
+            for(int predecessor : links){
+                start = Math.min(start,earliestStarts[predecessor]);
+                finish = Math.max(finish,earliestFinishes[predecessor]);
+            }
+            earliestStarts[i] = start;
+            earliestFinishes[i] = finish;
+            return;
+        }
+        long start = Long.MIN_VALUE;
+        for(int k = 0; k < links.length; k++){
+            int predecessor = links[k];
+            switch (predecessorLinks[i][k]){
+                case FINISH_TO_START:
+                    start = Math.max(start,earliestFinishes[predecessor]);
+                    break;
+                case START_TO_START:
+                    start = Math.max(start,earliestStarts[predecessor]);
+                    break;
+                default:
+                    start = Math.max(start,earliestFinishes[predecessor] - durations[i]);
+                    break;
+            }
+        }
+        earliestStarts[i] = start;
+        earliestFinishes[i] = start + durations[i];
+    }
+
+    /**
+     * Computes the latest start and finish of an activity relative to the project finish, from the ones of its successors.
+     */
+    private void backward(int i){
+        long duration = earliestFinishes[i] - earliestStarts[i];
+        long finish = successors[i].length == 0 ? 0 : Long.MAX_VALUE;
+        for(int k = 0; k < successors[i].length; k++){
+            int successor = successors[i][k];
+            switch (successorLinks[i][k]){
+                case FINISH_TO_START:
+                    finish = Math.min(finish,latestStarts[successor]);
+                    break;
+                case START_TO_START:
+                    finish = Math.min(finish,latestStarts[successor] + duration);
+                    break;
+                case FINISH_TO_FINISH:
+                    finish = Math.min(finish,latestFinishes[successor]);
+                    break;
+                default:
+                    finish = Math.min(finish,Math.min(latestFinishes[successor],
+                            latestStarts[successor] + earliestStarts[i] - earliestStarts[successor] + duration));
+                    break;
+            }
+        }
+        latestFinishes[i] = finish;
+        latestStarts[i] = finish - duration;
+    }
+
+    /**
+     * Accounts an activity moving from the given earliest dates to the new ones in the project bounds,
+     * a bound no longer reached by any activity being left to search again.
+     */
+    private void moveProjectBounds(long start, long finish, long newStart, long newFinish){
+        if(start == projectStart){
+            projectStartCount--;
+        }
+        if(newStart < projectStart){
+            projectStart = newStart;
+            projectStartCount = 1;
+        }else if(newStart == projectStart){
+            projectStartCount++;
+        }
+        if(finish == projectFinish){
+            projectFinishCount--;
+        }
+        if(newFinish > projectFinish){
+            projectFinish = newFinish;
+            projectFinishCount = 1;
+        }else if(newFinish == projectFinish){
+            projectFinishCount++;
+        }
+    }
+
+    private void searchProjectStart(){
+        projectStart = Long.MAX_VALUE;
+        projectStartCount = 0;
+        for(int i = 0; i < ordered.length; i++){
+            if(earliestStarts[i] < projectStart){
+                projectStart = earliestStarts[i];
+                projectStartCount = 1;
+            }else if(earliestStarts[i] == projectStart){
+                projectStartCount++;
+            }
+        }
+    }
+
+    private void searchProjectFinish(){
+        projectFinish = Long.MIN_VALUE;
+        projectFinishCount = 0;
+        for(int i = 0; i < ordered.length; i++){
+            if(earliestFinishes[i] > projectFinish){
+                projectFinish = earliestFinishes[i];
+                projectFinishCount = 1;
+            }else if(earliestFinishes[i] == projectFinish){
+                projectFinishCount++;
+            }
+        }
+    }
+
+    private void reach(int i){
+        reached[i] = true;
+        visited.add(i);
+    }
+
+    /**
+     * Clears the activities reached by the last pass, and only them.
+     */
+    private void clearReached(){
+        for(int i : visited){
+            reached[i] = false;
+        }
+        visited.clear();
+    }
+
+    private int position(ActivityTask activity){
+        Integer position = positions.get(activity);
+        if(position == null){
+            throw new NoSuchElementException("The activity is not part of the graph");
+        }
+        return position;
+    }
+}
@@ -0,0 +1,223 @@
+package com.core.tasks;
+
+/**
+ * A Duration Distribution describes the uncertain duration of an Activity Task, through its quantile function : the duration not exceeded with a given probability.
+ *<p></p>
+ * A "three point estimate" (optimistic, most likely, pessimistic) is described either by a triangular distribution,
+ * or by a PERT distribution : a Beta distribution with the same bounds and mode, whose mean is (optimistic + 4 * most likely + pessimistic) / 6,
+ * giving less weight to the extremes.
+ *<p></p>
+ * Note on the PERT quantiles :
+ *<p></p>
+ * [The quantile function of a Beta distribution has no closed form. The one of each PERT shape is tabulated once, the PERT shapes being a family of a single parameter,
+ * the position of the mode between the bounds, and then interpolated : a PERT duration is drawn about as fast as a triangular one, the probabilities being off by less than 1e-3.]
+ */
+public final class DurationDistribution {
+
+    private static final int FIXED = 0, UNIFORM = 1, TRIANGULAR = 2, PERT = 3;
+
+    private final int kind;
+
+    private final double min, mode, max;
+
+    /**
+     * The position of the PERT shape in the table of the quantiles, see {@link PertQuantiles}.
+     */
+    private final int row;
+
+    private final double rowWeight;
+
+    /**
+     * The probability of the durations below the mode, and the factors of the triangular quantile function on each side of it.
+     */
+    private final double split, lowerArea, upperArea;
+
+    private DurationDistribution(int kind, long min, long mode, long max){
+        if(min < 0 || mode < min || max < mode){
+            throw new IllegalArgumentException("The durations must be such that 0 <= min <= mode <= max");
+        }
+        this.kind = kind;
+        this.min = min;
+        this.mode = mode;
+        this.max = max;
+        this.split = max == min ? 1 : (double) (mode - min) / (max - min);
+        this.lowerArea = (double) (max - min) * (mode - min);
+        this.upperArea = (double) (max - min) * (max - mode);
+        if(kind == PERT && max > min){
+            double shape = (double) (mode - min) / (max - min) * (PertQuantiles.ROWS - 1);
+            int row = Math.min((int) shape,PertQuantiles.ROWS - 2);
+            this.row = row;
+            this.rowWeight = shape - row;
+        }else {
+            this.row = 0;
+            this.rowWeight = 0;
+        }
+    }
+
+
+    /**
+     * @param duration the duration.
+     * @return a distribution always giving the given duration.
+     * @throws IllegalArgumentException if the duration is negative.
+     */
+    public static DurationDistribution fixed(long duration){
+        return new DurationDistribution(FIXED,duration,duration,duration);
+    }
+
+    /**
+     * @param min the lowest duration.
+     * @param max the greatest duration.
+     * @return a distribution giving any duration between the given ones with the same probability.
+     * @throws IllegalArgumentException if not 0 <= min <= max.
+     */
+    public static DurationDistribution uniform(long min, long max){
+        return new DurationDistribution(UNIFORM,min,min,max);
+    }
+
+    /**
+     * @param min the optimistic duration.
+     * @param mode the most likely duration.
+     * @param max the pessimistic duration.
+     * @return the triangular distribution of the given "three point estimate".
+     * @throws IllegalArgumentException if not 0 <= min <= mode <= max.
+     */
+    public static DurationDistribution triangular(long min, long mode, long max){
+        return new DurationDistribution(TRIANGULAR,min,mode,max);
+    }
+
+    /**
+     * @param min the optimistic duration.
+     * @param mode the most likely duration.
+     * @param max the pessimistic duration.
+     * @return the PERT distribution of the given "three point estimate".
+     * @throws IllegalArgumentException if not 0 <= min <= mode <= max.
+     */
+    public static DurationDistribution pert(long min, long mode, long max){
+        return new DurationDistribution(PERT,min,mode,max);
+    }
+
+
+    /**
+     * @param probability a probability, between 0 and 1.
+     * @return the duration not exceeded with the given probability.
+     */
+    public double quantile(double probability){
+        double range = max - min;
+        switch (kind){
+            case FIXED:
+                return min;
+            case UNIFORM:
+                return min + probability * range;
+            case TRIANGULAR:
+                // A single square root, its side selected without branching : the side drawn is unpredictable.
+                boolean lower = probability < split;
+                double root = Math.sqrt(lower ? probability * lowerArea : (1 - probability) * upperArea);
+                return lower ? min + root : max - root;
+            default:
+                return min + range * PertQuantiles.quantile(row,rowWeight,probability);
+        }
+    }
+
+    public double getMin(){
+        return min;
+    }
+
+    public double getMax(){
+        return max;
+    }
+
+    /**
+     * @return the mean duration.
+     */
+    public double getMean(){
+        switch (kind){
+            case FIXED:
+                return min;
+            case UNIFORM:
+                return (min + max) / 2;
+            case TRIANGULAR:
+                return (min + mode + max) / 3;
+            default:
+                return (min + 4 * mode + max) / 6;
+        }
+    }
+
+    /**
+     * @return true if the duration is always the same.
+     */
+    boolean isFixed(){
+        return kind == FIXED || min == max;
+    }
+
+    @Override
+    public String toString() {
+        return "DurationDistribution{" +
+                "kind=" + new String[]{"fixed","uniform","triangular","pert"}[kind] +
+                ", min=" + min +
+                ", mode=" + mode +
+                ", max=" + max +
+                '}';
+    }
+
+
+    /**
+     * The quantiles of the standard PERT shapes : the Beta(1 + 4 * s, 5 - 4 * s) distributions, for the mode positions s between 0 and 1.
+     * Each row is a shape, each column a probability, both evenly spaced, the quantiles are kept in single precision to fit the processor caches.
+     */
+    private static final class PertQuantiles {
+
+        private static final int ROWS = 65;
+
+        private static final int COLUMNS = 1025;
+
+        private static final int STEPS = 1 << 14;
+
+        private static final float[][] TABLE = new float[ROWS][];
+
+        static {
+            double[] cumulative = new double[STEPS + 1];
+            for(int row = 0; row < ROWS; row++){
+                double shape = (double) row / (ROWS - 1);
+                double alpha = 1 + 4 * shape;
+                double beta = 5 - 4 * shape;
+                // The cumulative distribution on an even grid, by the trapezoidal rule.
+                double previous = density(0,alpha,beta);
+                cumulative[0] = 0;
+                for(int i = 1; i <= STEPS; i++){
+                    double current = density((double) i / STEPS,alpha,beta);
+                    cumulative[i] = cumulative[i - 1] + (previous + current) / 2;
+                    previous = current;
+                }
+                float[] quantiles = new float[COLUMNS];
+                int i = 0;
+                for(int column = 0; column < COLUMNS; column++){
+                    double target = cumulative[STEPS] * column / (COLUMNS - 1);
+                    while (i < STEPS - 1 && cumulative[i + 1] < target){
+                        i++;
+                    }
+                    double cell = cumulative[i + 1] - cumulative[i];
+                    double offset = cell == 0 ? 0 : Math.min(1,Math.max(0,(target - cumulative[i]) / cell));
+                    quantiles[column] = (float) ((i + offset) / STEPS);
+                }
+                quantiles[0] = 0;
+                quantiles[COLUMNS - 1] = 1;
+                TABLE[row] = quantiles;
+            }
+        }
+
+        private static double density(double x, double alpha, double beta){
+            return Math.pow(x,alpha - 1) * Math.pow(1 - x,beta - 1);
+        }
+
+        private static double quantile(int row, double rowWeight, double probability){
+            double position = probability * (COLUMNS - 1);
+            int column = Math.min((int) position,COLUMNS - 2);
+            double weight = position - column;
+            float[] lower = TABLE[row];
+            float[] upper = TABLE[row + 1];
+            double low = lower[column] + weight * (lower[column + 1] - lower[column]);
+            double high = upper[column] + weight * (upper[column + 1] - upper[column]);
+            return low + rowWeight * (high - low);
+        }
+    }
+}
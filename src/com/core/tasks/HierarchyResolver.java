@@ -0,0 +1,199 @@
+package com.core.tasks;
+
+import com.core.model.api.State;
+import com.core.model.impl.Side;
+import com.core.model.impl.adjustable.dependent.constraint.api.Constraint;
+import com.core.model.impl.adjustable.dependent.constraint.impl.ExactSideConstraint;
+import com.core.model.impl.adjustable.dependent.exc.NotAdjustableException;
+import com.core.model.impl.adjustable.dependent.exc.StateException;
+import com.core.model.impl.adjustable.dependent.states.DependencyState;
+import com.core.model.impl.adjustable.dependent.states.PropagationEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The Hierarchy Resolver settles at once the ranges of a hierarchy of Parent Activity Task(s) : each parent spans from the lowest start to the greatest end of its sub activities.
+ *<p></p>
+ * The sub activities notify their parent one variation at a time, so a parent having many sub activities changed performs a "resolution" for each of them,
+ * and so does every parent above it. The Hierarchy Resolver instead computes the range of every parent bottom-up, the sibling sub hierarchies in parallel on a Fork Join Pool,
+ * then applies the ranges changed in a single pass, from the sub activities to the root, within a batch : the parents notified are only marked as "dirty",
+ * and once the batch is committed each one performs a single "resolution", against sub activities already settled.
+ *<p></p>
+ * A parent is recognized by its "constraint functions", the ones of a Parent Activity Task : an Exact Side Constraint on each side, supporting many States.
+ * A parent "extinct" is not changed, so it is handled as any other sub activity, and a parent without sub activities keeps its range.
+ * A sub hierarchy shared by many parents is computed once.
+ *<p></p>
+ * Note on batches :
+ *<p></p>
+ * [If a batch is already in progress on the current thread, the ranges are applied within it : the sub activities changed within the batch can be settled before the commit.
+ * Otherwise the ranges are applied within a batch of their own, rolled back if a "resolution" fails, see {@link PropagationEngine#commit()}.]
+ *<p></p>
+ * Note on concurrency: the hierarchy must be left unchanged by other threads meanwhile, e.g. by holding its components through a Component Executor.
+ */
+public final class HierarchyResolver {
+
+    private HierarchyResolver(){
+    }
+
+
+    /**
+     * Settles the ranges of the given hierarchy, using the common Fork Join Pool.
+     * @param root the root of the hierarchy.
+     * @return the number of parents whose range has been changed.
+     * @throws StateException if the "resolution" of a parent fails.
+     */
+    public static int recompute(ParentActivityTask root) throws StateException {
+        return recompute(root,ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Settles the ranges of the given hierarchy.
+     * @param root the root of the hierarchy.
+     * @param pool the pool computing the ranges of the sibling sub hierarchies in parallel.
+     * @return the number of parents whose range has been changed.
+     * @throws StateException if the "resolution" of a parent fails.
+     */
+    public static int recompute(ParentActivityTask root, ForkJoinPool pool) throws StateException {
+        if(!isParent(root.progressState)){
+            return 0;
+        }
+        Map<DependencyState,Node> nodes = new ConcurrentHashMap<>();
+        Queue<Node> computed = new ConcurrentLinkedQueue<>();
+        Node top = new Node(root.progressState,nodes,computed);
+        nodes.put(root.progressState,top);
+        pool.invoke(top);
+
+        if(PropagationEngine.isBatching()){
+            return apply(computed);
+        }
+        int changed;
+        PropagationEngine.beginBatch();
+        try {
+            changed = apply(computed);
+        }catch (RuntimeException e){
+            PropagationEngine.rollback();
+            throw e;
+        }
+        if(!PropagationEngine.commit()){
+            throw new NotAdjustableException("State range can not be adjusted for its sub activities");
+        }
+        return changed;
+    }
+
+    /**
+     * Applies the ranges computed, in the order they have been computed : each parent after its sub activities.
+     */
+    private static int apply(Queue<Node> computed){
+        int changed = 0;
+        for(Node node : computed){
+            DependencyState state = node.state;
+            if(node.start != state.getStart() || node.end != state.getEnd()){
+                if(state.setTime(node.start,node.end)){
+                    changed++;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Tests whether the given State has the "constraint functions" of a Parent Activity Task.
+     */
+    private static boolean isParent(State state){
+        if(!(state instanceof DependencyState)){
+            return false;
+        }
+        DependencyState dependencyState = (DependencyState) state;
+        return isAggregate(dependencyState.getStartTimeConstraint(),Side.START)
+                && isAggregate(dependencyState.getEndTimeConstraint(),Side.END)
+                && !dependencyState.isExtinct();
+    }
+
+    private static boolean isAggregate(Constraint constraint, Side side){
+        if(!(constraint instanceof ExactSideConstraint)){
+            return false;
+        }
+        Object[] args = ((ExactSideConstraint) constraint).getArgs();
+        return args[0] == side && Boolean.FALSE.equals(args[1]);
+    }
+
+    /**
+     * The computation of a parent range : the sub activities which are parents are computed in parallel, then their ranges are merged with the other ones.
+     *<p></p>
+     * The States are named in full : within a ForkJoinTask, State is the inherited Future.State since Java 19.
+     */
+    private static final class Node extends RecursiveAction {
+
+        private static final int SURPLUS_THRESHOLD = 3;
+
+        private final DependencyState state;
+
+        private final Map<DependencyState,Node> nodes;
+
+        private final Queue<Node> computed;
+
+        private long start, end;
+
+        private Node(DependencyState state, Map<DependencyState,Node> nodes, Queue<Node> computed){
+            this.state = state;
+            this.nodes = nodes;
+            this.computed = computed;
+        }
+
+        @Override
+        protected void compute() {
+            com.core.model.api.State[] subActivities = state.getStartTimeDepedencySet();
+            if(subActivities.length == 0){
+                start = state.getStart();
+                end = state.getEnd();
+                computed.add(this);
+                return;
+            }
+            List<Node> forked = new ArrayList<>();
+            List<Node> shared = new ArrayList<>();
+            long start = Long.MAX_VALUE;
+            long end = Long.MIN_VALUE;
+            for(com.core.model.api.State subActivity : subActivities){
+                if(!isParent(subActivity)){
+                    start = Math.min(start,subActivity.getStart());
+                    end = Math.max(end,subActivity.getEnd());
+                    continue;
+                }
+                Node node = new Node((DependencyState) subActivity,nodes,computed);
+                Node present = nodes.putIfAbsent(node.state,node);
+                if(present != null){
+                    shared.add(present);
+                }else if(getSurplusQueuedTaskCount() > SURPLUS_THRESHOLD){
+                    // Enough tasks are waiting to be stolen, the sub hierarchy is computed by this thread.
+                    node.invoke();
+                    start = Math.min(start,node.start);
+                    end = Math.max(end,node.end);
+                }else {
+                    node.fork();
+                    forked.add(node);
+                }
+            }
+            for(int i = forked.size() - 1; i >= 0; i--){
+                Node node = forked.get(i);
+                node.join();
+                start = Math.min(start,node.start);
+                end = Math.max(end,node.end);
+            }
+            for(Node node : shared){
+                node.join();
+                start = Math.min(start,node.start);
+                end = Math.max(end,node.end);
+            }
+            this.start = start;
+            this.end = end;
+            computed.add(this);
+        }
+    }
+}
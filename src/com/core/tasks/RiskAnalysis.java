@@ -0,0 +1,624 @@
+package com.core.tasks;
+
+import com.core.model.impl.adjustable.adjuster.api.AdjusterType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The Risk Analysis estimates the finish dates of a set of Activity Task(s) whose durations are uncertain, by Monte Carlo simulation :
+ * each trial draws the duration of every activity from its {@link DurationDistribution}, then resolves each activity against the constraint ranges of its links
+ * as its Range Adjuster does in the dependency graph, and the finish dates of the project and of the milestones chosen are collected in histograms.
+ *<p></p>
+ * The links of the activities are read once, see {@link ActivityNetwork}, into arrays in topological order : the trials never read nor change the activities,
+ * which stay free to be changed meanwhile, such changes being ignored. Each activity starts from its current start with the duration drawn,
+ * the ones without a distribution keep their current duration, and a Parent Activity Task spans its sub activities whatever its distribution.
+ * As the dependency graph propagates a change, an activity is resolved again only once its duration or the dates of one of its predecessors differ from the current ones,
+ * and it is moved only if its start or its end falls out of the constraint ranges of its links : a run whose durations are all fixed gives the current ranges.
+ *<p></p>
+ * Note on adjusters :
+ *<p></p>
+ * [Only the Range Adjusters provided by the library are supported, see {@link AdjusterType}, and they are reproduced on the dates of the trial instead of being invoked.
+ * A trial in which the resolution of an activity fails, e.g. the move required by a Static Adjuster or a Fail Adjuster, is rejected :
+ * it is counted in {@link Result#getRejectedTrials()} and none of its dates is collected.]
+ *<p></p>
+ * The trials are run in parallel on a Fork Join Pool, each group of trials with its own histograms, merged once the groups are completed.
+ * Each trial draws its durations from a generator of its own, seeded from the seed given and from its number :
+ * the results depend on the seed only, not on the number of threads nor on the way the trials are shared among them.
+ *<p></p>
+ * Note on histograms: the range of each histogram is computed beforehand from the bounds of the distributions, so the bins of every group are the same and are merged by sum.
+ */
+public final class RiskAnalysis {
+
+    private static final int BINS = 1024;
+
+    /**
+     * The least number of trials of a group, and the greatest number of groups.
+     */
+    private static final int GROUP_TRIALS = 16, GROUPS = 256;
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final ActivityNetwork network;
+
+    /**
+     * The predecessors of each activity, at positions [offsets(i) ; offsets(i+1)), and the kind of each link.
+     */
+    private final int[] offsets, links;
+
+    private final byte[] kinds;
+
+    private final boolean[] parents;
+
+    private final double[] anchors, durations;
+
+    /**
+     * The type of the Range Adjuster of each activity resolved against its links, null for the other ones.
+     */
+    private final AdjusterType[] adjusters;
+
+    private final DurationDistribution[] distributions;
+
+    private final boolean[] fixed;
+
+    private final List<ActivityTask> milestones;
+
+    private final int[] milestonePositions;
+
+    /**
+     * The range of the finish dates of the project, then of each milestone.
+     */
+    private final double[] lowerBounds, upperBounds;
+
+
+    /**
+     * Prepares the analysis of the given activities.
+     * @param activities the activities.
+     * @param distributions the distribution of the duration of each activity, the ones missing keep their current duration.
+     * @param milestones the activities whose finish dates are collected, along with the project finish.
+     * @throws IllegalArgumentException if the dependencies of the activities form a loop, or if an activity with predecessors has a Range Adjuster
+     * which is not provided by the library.
+     * @throws NoSuchElementException if a milestone is not one of the activities.
+     */
+    public RiskAnalysis(Collection<? extends ActivityTask> activities, Map<? extends ActivityTask,DurationDistribution> distributions,
+                        Collection<? extends ActivityTask> milestones){
+        network = new ActivityNetwork(activities);
+        int size = network.size();
+        offsets = new int[size + 1];
+        for(int i = 0; i < size; i++){
+            offsets[i + 1] = offsets[i] + network.predecessors[i].length;
+        }
+        links = new int[offsets[size]];
+        kinds = new byte[offsets[size]];
+        parents = new boolean[size];
+        anchors = new double[size];
+        durations = new double[size];
+        adjusters = new AdjusterType[size];
+        this.distributions = new DurationDistribution[size];
+        fixed = new boolean[size];
+        for(int i = 0; i < size; i++){
+            System.arraycopy(network.predecessors[i],0,links,offsets[i],network.predecessors[i].length);
+            System.arraycopy(network.predecessorLinks[i],0,kinds,offsets[i],network.predecessorLinks[i].length);
+            ActivityTask activity = network.ordered[i];
+            parents[i] = activity instanceof ParentActivityTask;
+            anchors[i] = activity.progressState.getStart();
+            durations[i] = activity.getDuration();
+            if(!parents[i] && offsets[i] < offsets[i + 1]){
+                adjusters[i] = AdjusterType.typeOf(activity.progressState.getAdjuster());
+                if(adjusters[i] == null){
+                    throw new IllegalArgumentException("Range Adjuster not supported : " + activity.progressState.getAdjuster());
+                }
+            }
+            DurationDistribution distribution = distributions.get(activity);
+            this.distributions[i] = distribution != null ? distribution : DurationDistribution.fixed(activity.getDuration());
+            fixed[i] = this.distributions[i].isFixed();
+        }
+
+        this.milestones = Collections.unmodifiableList(new ArrayList<>(milestones));
+        milestonePositions = new int[this.milestones.size()];
+        for(int m = 0; m < milestonePositions.length; m++){
+            milestonePositions[m] = network.position(this.milestones.get(m));
+        }
+        lowerBounds = new double[milestonePositions.length + 1];
+        upperBounds = new double[milestonePositions.length + 1];
+        bound();
+    }
+
+
+    /**
+     * Runs the given number of trials on the common Fork Join Pool.
+     * @param trials the number of trials.
+     * @param seed the seed of the durations drawn.
+     * @return the finish dates collected.
+     * @throws IllegalArgumentException if the number of trials is not positive.
+     */
+    public Result run(int trials, long seed){
+        return run(trials,seed,ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Runs the given number of trials.
+     * @param trials the number of trials.
+     * @param seed the seed of the durations drawn.
+     * @param pool the pool running the trials in parallel.
+     * @return the finish dates collected.
+     * @throws IllegalArgumentException if the number of trials is not positive.
+     */
+    public Result run(int trials, long seed, ForkJoinPool pool){
+        if(trials <= 0){
+            throw new IllegalArgumentException();
+        }
+        // The groups depend on the number of trials only, so the histograms are merged the same way whatever the pool.
+        int threshold = Math.max(GROUP_TRIALS,trials / GROUPS);
+        return new Result(pool.invoke(new Trials(seed,0,trials,threshold)));
+    }
+
+
+    /**
+     * Computes the range of the finish dates, through a forward pass over the intervals of the dates : the lowest and the greatest duration of each activity
+     * are bounds whatever the links, and an activity either keeps its current range or ends up at its own start, or at the start or the end of a constraint range,
+     * so its dates are within the hull of these cases.
+     */
+    private void bound(){
+        int size = anchors.length;
+        double[] startLows = new double[size], startHighs = new double[size];
+        double[] finishLows = new double[size], finishHighs = new double[size];
+        double projectLow = Double.NEGATIVE_INFINITY, projectHigh = Double.NEGATIVE_INFINITY;
+        for(int i = 0; i < size; i++){
+            double durationLow = distributions[i].getMin();
+            double durationHigh = distributions[i].getMax();
+            // The current range is kept by an activity not resolved again.
+            double current = anchors[i] + durations[i];
+            startLows[i] = anchors[i];
+            startHighs[i] = anchors[i];
+            finishLows[i] = Math.min(current,anchors[i] + durationLow);
+            finishHighs[i] = Math.max(current,anchors[i] + durationHigh);
+            if(offsets[i] == offsets[i + 1]){
+                // Neither link nor constraint range.
+            }else if(parents[i]){
+                double startLow = Double.POSITIVE_INFINITY, startHigh = Double.POSITIVE_INFINITY;
+                double finishLow = Double.NEGATIVE_INFINITY, finishHigh = Double.NEGATIVE_INFINITY;
+                for(int k = offsets[i]; k < offsets[i + 1]; k++){
+                    int predecessor = links[k];
+                    startLow = Math.min(startLow,startLows[predecessor]);
+                    startHigh = Math.min(startHigh,startHighs[predecessor]);
+                    finishLow = Math.max(finishLow,finishLows[predecessor]);
+                    finishHigh = Math.max(finishHigh,finishHighs[predecessor]);
+                }
+                startLows[i] = Math.min(anchors[i],startLow);
+                startHighs[i] = Math.max(anchors[i],startHigh);
+                finishLows[i] = Math.min(current,finishLow);
+                finishHighs[i] = Math.max(current,finishHigh);
+            }else {
+                // The start of the start side constraint range, and the end of the end side one.
+                double startLow = Double.NEGATIVE_INFINITY, startHigh = Double.NEGATIVE_INFINITY;
+                double endLow = Double.NEGATIVE_INFINITY, endHigh = Double.NEGATIVE_INFINITY;
+                double exactLow = Double.POSITIVE_INFINITY, exactHigh = Double.POSITIVE_INFINITY;
+                for(int k = offsets[i]; k < offsets[i + 1]; k++){
+                    int predecessor = links[k];
+                    switch (kinds[k]){
+                        case ActivityNetwork.FINISH_TO_START:
+                            startLow = Math.max(startLow,finishLows[predecessor]);
+                            startHigh = Math.max(startHigh,finishHighs[predecessor]);
+                            break;
+                        case ActivityNetwork.START_TO_START:
+                            exactLow = Math.min(exactLow,startLows[predecessor]);
+                            exactHigh = Math.min(exactHigh,startHighs[predecessor]);
+                            break;
+                        default:
+                            endLow = Math.max(endLow,finishLows[predecessor]);
+                            endHigh = Math.max(endHigh,finishHighs[predecessor]);
+                            break;
+                    }
+                }
+                if(exactLow != Double.POSITIVE_INFINITY){
+                    startLow = exactLow;
+                    startHigh = exactHigh;
+                }
+                if(startLow != Double.NEGATIVE_INFINITY){
+                    startLows[i] = Math.min(startLows[i],startLow);
+                    startHighs[i] = Math.max(startHighs[i],startHigh);
+                    finishLows[i] = Math.min(finishLows[i],startLow + durationLow);
+                    finishHighs[i] = Math.max(finishHighs[i],startHigh + durationHigh);
+                }
+                if(endLow != Double.NEGATIVE_INFINITY){
+                    startLows[i] = Math.min(startLows[i],endLow - durationHigh);
+                    startHighs[i] = Math.max(startHighs[i],endHigh - durationLow);
+                    finishLows[i] = Math.min(finishLows[i],endLow);
+                    finishHighs[i] = Math.max(finishHighs[i],endHigh);
+                }
+            }
+            projectLow = Math.max(projectLow,finishLows[i]);
+            projectHigh = Math.max(projectHigh,finishHighs[i]);
+        }
+        lowerBounds[0] = projectLow;
+        upperBounds[0] = projectHigh;
+        for(int m = 0; m < milestonePositions.length; m++){
+            lowerBounds[m + 1] = finishLows[milestonePositions[m]];
+            upperBounds[m + 1] = finishHighs[milestonePositions[m]];
+        }
+    }
+
+    /**
+     * Runs a single trial : draws the durations and resolves the start and finish of each activity, in topological order.
+     * @return the project finish ; NaN if the resolution of an activity fails.
+     */
+    private double trial(SplittableRandom random, double[] starts, double[] finishes, boolean[] moved){
+        double projectFinish = Double.NEGATIVE_INFINITY;
+        for(int i = 0; i < anchors.length; i++){
+            double duration = fixed[i] ? distributions[i].getMin() : distributions[i].quantile(random.nextDouble());
+            int from = offsets[i];
+            int to = offsets[i + 1];
+            if(from == to){
+                starts[i] = anchors[i];
+                finishes[i] = anchors[i] + duration;
+            }else if(parents[i]){
+                double start = Double.POSITIVE_INFINITY;
+                double finish = Double.NEGATIVE_INFINITY;
+                boolean changed = false;
+                for(int k = from; k < to; k++){
+                    start = Math.min(start,starts[links[k]]);
+                    finish = Math.max(finish,finishes[links[k]]);
+                    changed |= moved[links[k]];
+                }
+                starts[i] = changed ? start : anchors[i];
+                finishes[i] = changed ? finish : anchors[i] + durations[i];
+            }else {
+                // The constraint ranges of the links : [greatest finish ; +inf) for "Finish to Start", the lowest start for "Start to Start",
+                // the greatest finish for "Finish to Finish".
+                double startLow = Double.NEGATIVE_INFINITY, startHigh = Double.POSITIVE_INFINITY;
+                double endLow = Double.NEGATIVE_INFINITY, endHigh = Double.POSITIVE_INFINITY;
+                double exact = Double.POSITIVE_INFINITY, exactEnd = Double.NEGATIVE_INFINITY;
+                boolean changed = duration != durations[i];
+                for(int k = from; k < to; k++){
+                    int predecessor = links[k];
+                    switch (kinds[k]){
+                        case ActivityNetwork.FINISH_TO_START:
+                            startLow = Math.max(startLow,finishes[predecessor]);
+                            break;
+                        case ActivityNetwork.START_TO_START:
+                            exact = Math.min(exact,starts[predecessor]);
+                            break;
+                        default:
+                            exactEnd = Math.max(exactEnd,finishes[predecessor]);
+                            break;
+                    }
+                    changed |= moved[predecessor];
+                }
+                if(exact != Double.POSITIVE_INFINITY){
+                    startLow = exact;
+                    startHigh = exact;
+                }
+                if(exactEnd != Double.NEGATIVE_INFINITY){
+                    endLow = exactEnd;
+                    endHigh = exactEnd;
+                }
+                if(!changed){
+                    starts[i] = anchors[i];
+                    finishes[i] = anchors[i] + duration;
+                }else if(!resolve(adjusters[i],anchors[i],anchors[i] + duration,startLow,startHigh,endLow,endHigh,starts,finishes,i)){
+                    return Double.NaN;
+                }
+            }
+            moved[i] = starts[i] != anchors[i] || finishes[i] != anchors[i] + durations[i];
+            projectFinish = Math.max(projectFinish,finishes[i]);
+        }
+        return projectFinish;
+    }
+
+    /**
+     * Resolves an activity against the constraint ranges of its links, as the Range Adjuster of the given type does :
+     * the range is kept if both sides are within their constraint range, otherwise the sides out of range are moved to the first date available,
+     * by the "static" or the "dynamic" behavior, see {@link com.core.model.impl.adjustable.adjuster.impl.DynamicAdjuster}.
+     * @return true if the resolution succeeds, the dates being stored at the given position ; false if it fails.
+     */
+    private static boolean resolve(AdjusterType adjuster, double start, double finish, double startLow, double startHigh, double endLow, double endHigh,
+                                   double[] starts, double[] finishes, int i){
+        if(endHigh < startLow){
+            return false;
+        }
+        boolean startValid = start >= startLow && start <= startHigh;
+        boolean endValid = finish >= endLow && finish <= endHigh;
+        double duration = finish - start;
+        if(startValid && endValid){
+            // Nothing to adjust.
+        }else if(!startValid && !endValid){
+            if(adjuster != AdjusterType.DYNAMIC){
+                return false;
+            }
+            start = startLow;
+            finish = endHigh;
+        }else if(!startValid){
+            if(adjuster == AdjusterType.STATIC || (start < startLow && finish <= startLow)){
+                // Moved with its duration unchanged.
+                finish = startLow + duration;
+                if(finish < 1){
+                    return false;
+                }
+                // The Static Adjuster validates the start moved against the end side constraint range.
+                if(adjuster == AdjusterType.STATIC && (startLow < endLow || startLow > endHigh)){
+                    return false;
+                }
+            }
+            start = startLow;
+            if(adjuster != AdjusterType.STATIC && (finish < endLow || finish > endHigh)){
+                return false;
+            }
+        }else {
+            if(adjuster == AdjusterType.FAIL){
+                return false;
+            }
+            if(adjuster == AdjusterType.STATIC || (finish < endLow && start >= endHigh)){
+                start = endHigh - duration;
+                if(start < 1){
+                    return false;
+                }
+                if(adjuster == AdjusterType.STATIC && (endHigh < startLow || endHigh > startHigh)){
+                    return false;
+                }
+            }
+            finish = endHigh;
+            if(adjuster != AdjusterType.STATIC && (start < startLow || start > startHigh)){
+                return false;
+            }
+        }
+        if(finish < start){
+            return false;
+        }
+        starts[i] = start;
+        finishes[i] = finish;
+        return true;
+    }
+
+    private Histogram[] histograms(){
+        Histogram[] histograms = new Histogram[lowerBounds.length];
+        for(int h = 0; h < histograms.length; h++){
+            histograms[h] = new Histogram(lowerBounds[h],upperBounds[h]);
+        }
+        return histograms;
+    }
+
+
+    /**
+     * A group of trials, split in halves run in parallel until small enough.
+     */
+    private final class Trials extends RecursiveTask<Tally> {
+
+        private final long seed;
+
+        private final int from, to, threshold;
+
+        private Trials(long seed, int from, int to, int threshold){
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected Tally compute() {
+            if(to - from > threshold){
+                int middle = (from + to) >>> 1;
+                Trials second = new Trials(seed,middle,to,threshold);
+                second.fork();
+                Tally tally = new Trials(seed,from,middle,threshold).compute();
+                tally.merge(second.join());
+                return tally;
+            }
+            Tally tally = new Tally(histograms());
+            Histogram[] histograms = tally.histograms;
+            double[] starts = new double[anchors.length];
+            double[] finishes = new double[anchors.length];
+            boolean[] moved = new boolean[anchors.length];
+            for(int trial = from; trial < to; trial++){
+                // Each trial has a generator of its own, its seed mixed from the seed given and the trial number.
+                SplittableRandom random = new SplittableRandom(new SplittableRandom(seed + trial * GOLDEN_GAMMA).nextLong());
+                double projectFinish = trial(random,starts,finishes,moved);
+                if(Double.isNaN(projectFinish)){
+                    tally.rejected++;
+                    continue;
+                }
+                histograms[0].add(projectFinish);
+                for(int m = 0; m < milestonePositions.length; m++){
+                    histograms[m + 1].add(finishes[milestonePositions[m]]);
+                }
+            }
+            return tally;
+        }
+    }
+
+    /**
+     * The histograms of a group of trials, along with the number of trials rejected.
+     */
+    private static final class Tally {
+
+        private final Histogram[] histograms;
+
+        private long rejected;
+
+        private Tally(Histogram[] histograms){
+            this.histograms = histograms;
+        }
+
+        private void merge(Tally other){
+            for(int h = 0; h < histograms.length; h++){
+                histograms[h].merge(other.histograms[h]);
+            }
+            rejected += other.rejected;
+        }
+    }
+
+    /**
+     * The finish dates collected by a Risk Analysis.
+     */
+    public final class Result {
+
+        private final Histogram[] histograms;
+
+        private final long rejected;
+
+        private Result(Tally tally){
+            this.histograms = tally.histograms;
+            this.rejected = tally.rejected;
+        }
+
+        /**
+         * @return the number of trials rejected, in which the resolution of an activity fails : none of their dates is collected.
+         */
+        public long getRejectedTrials(){
+            return rejected;
+        }
+
+        /**
+         * @return the distribution of the project finish : the greatest finish of the activities.
+         */
+        public Histogram getProjectFinish(){
+            return histograms[0];
+        }
+
+        /**
+         * @param milestone a milestone given to the Risk Analysis.
+         * @return the distribution of the finish of the given milestone.
+         * @throws NoSuchElementException if the activity is not a milestone.
+         */
+        public Histogram getFinish(ActivityTask milestone){
+            for(int m = 0; m < milestones.size(); m++){
+                if(milestones.get(m) == milestone){
+                    return histograms[m + 1];
+                }
+            }
+            throw new NoSuchElementException("The activity is not a milestone");
+        }
+
+        /**
+         * @return the distribution of the finish of each milestone.
+         */
+        public Map<ActivityTask,Histogram> getFinishes(){
+            Map<ActivityTask,Histogram> finishes = new IdentityHashMap<>();
+            for(int m = 0; m < milestones.size(); m++){
+                finishes.put(milestones.get(m),histograms[m + 1]);
+            }
+            return finishes;
+        }
+    }
+
+    /**
+     * The distribution of a date over the trials : evenly spaced bins counting the dates, along with their exact lowest, greatest and mean values.
+     */
+    public static final class Histogram {
+
+        private final double lower, width;
+
+        private final long[] counts = new long[BINS];
+
+        private long trials;
+
+        private double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY, sum, sumOfSquares;
+
+        private Histogram(double lower, double upper){
+            this.lower = lower;
+            this.width = upper > lower ? (upper - lower) / BINS : 1;
+        }
+
+        private void add(double value){
+            int bin = (int) ((value - lower) / width);
+            counts[Math.max(0,Math.min(BINS - 1,bin))]++;
+            trials++;
+            min = Math.min(min,value);
+            max = Math.max(max,value);
+            sum += value;
+            sumOfSquares += value * value;
+        }
+
+        private void merge(Histogram other){
+            for(int bin = 0; bin < BINS; bin++){
+                counts[bin] += other.counts[bin];
+            }
+            trials += other.trials;
+            min = Math.min(min,other.min);
+            max = Math.max(max,other.max);
+            sum += other.sum;
+            sumOfSquares += other.sumOfSquares;
+        }
+
+        public long getTrials(){
+            return trials;
+        }
+
+        public double getMin(){
+            return min;
+        }
+
+        public double getMax(){
+            return max;
+        }
+
+        public double getMean(){
+            return sum / trials;
+        }
+
+        public double getStandardDeviation(){
+            double mean = getMean();
+            return Math.sqrt(Math.max(0,sumOfSquares / trials - mean * mean));
+        }
+
+        /**
+         * @param probability a probability, between 0 and 1, e.g. 0.8 for the "P80" date.
+         * @return the date not exceeded in the given share of the trials, interpolated within its bin.
+         */
+        public double getPercentile(double probability){
+            double target = probability * trials;
+            long cumulative = 0;
+            for(int bin = 0; bin < BINS; bin++){
+                if(counts[bin] > 0 && cumulative + counts[bin] >= target){
+                    double date = lower + width * (bin + (target - cumulative) / counts[bin]);
+                    return Math.max(min,Math.min(max,date));
+                }
+                cumulative += counts[bin];
+            }
+            return max;
+        }
+
+        /**
+         * @param date a date.
+         * @return the share of the trials finishing by the given date, interpolated within its bin.
+         */
+        public double getProbability(double date){
+            if(date < min){
+                return 0;
+            }
+            if(date >= max){
+                return 1;
+            }
+            double position = (date - lower) / width;
+            int last = Math.max(0,Math.min(BINS - 1,(int) position));
+            long cumulative = 0;
+            for(int bin = 0; bin < last; bin++){
+                cumulative += counts[bin];
+            }
+            double partial = counts[last] * Math.max(0,Math.min(1,position - last));
+            return (cumulative + partial) / trials;
+        }
+
+        @Override
+        public String toString() {
+            return "Histogram{" +
+                    "trials=" + trials +
+                    ", min=" + min +
+                    ", mean=" + getMean() +
+                    ", p50=" + getPercentile(0.5) +
+                    ", p80=" + getPercentile(0.8) +
+                    ", p95=" + getPercentile(0.95) +
+                    ", max=" + max +
+                    '}';
+        }
+    }
+}
@@ -8,6 +8,8 @@ import com.core.model.impl.adjustable.dependent.states.DependencyState;
 import com.core.model.impl.adjustable.dependent.states.impl.NoEndState;
 import com.core.model.impl.adjustable.dependent.ReversibleState;
 import com.core.model.impl.adjustable.dependent.constraint.impl.NoEndConstraint;
+import com.core.model.impl.Side;
+import com.core.util.States;
 
 public class Task implements StateObject {
 
@@ -27,10 +29,10 @@ public class Task implements StateObject {
 
 
     private boolean completedIf(State task) throws StateException {
-        if(completedState.setStartTimeConstraint(new NoEndConstraint())) {
-            return completedState.addStartTimeDependency(task);
+        if(completedState.getStartTimeConstraint() == null) {
+            return States.setConstraintAndDepend(completedState,new NoEndConstraint(),Side.START,task);
         }else {
-            return false;
+            return States.setConstraintAndDepend(completedState,null,Side.START,task);
         }
     }
 
@@ -95,7 +97,7 @@ public class Task implements StateObject {
 
 
     public long getStartRange(){
-        return completedState.getRange().getStart();
+        return completedState.getStart();
     }
 
 }
@@ -1,50 +1,53 @@
 package com.core.util;
 
+import com.core.model.IntervalSet;
 import com.core.model.TimeRange;
 import com.core.model.api.MutableState;
 import com.core.model.api.State;
 import com.core.model.impl.adjustable.dependent.ReversibleState;
-import com.google.common.base.Predicates;
-import com.google.common.collect.Iterables;
-
-import java.util.Arrays;
-
-import static java.lang.Boolean.FALSE;
-import static java.lang.Boolean.TRUE;
-
 public class Constraints {
 
     public static boolean applyAll(State[] states){
-        Boolean[] stateValues = new Boolean[states.length];
-        for(int i = 0; i<stateValues.length;i++){
-            stateValues[i] = states[i].getStateValue();
+        for(int i = 0; i<states.length;i++){
+            if(!states[i].getStateValue()){
+                return false;
+            }
         }
-        Iterable<Boolean> iterable = Arrays.asList(stateValues);
-        return Iterables.all(iterable, Predicates.equalTo(TRUE));
+        return true;
     }
 
     public static boolean applyAllNoEnd(State[] states){
-        Boolean[] stateValues = new Boolean[states.length];
-        for(int i = 0; i<stateValues.length;i++){
-            if(states[i] instanceof ReversibleState) {
-                if (((ReversibleState) states[i]).getRight() != null) {
-                    stateValues[i] = ((MutableState) states[i]).isExtinct();
-                } else {
-                    stateValues[i] = states[i].getStateValue();
-                }
+        for(int i = 0; i<states.length;i++){
+            if(!applyNoEnd(states[i])){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tests whether a single State is considered "extinct" (or "active" if it has no "right" side), only Reversible State(s) can be.
+     * @param state the State to test.
+     * @return true if the State is "extinct" ; false if not.
+     */
+    public static boolean applyNoEnd(State state){
+        if(state instanceof ReversibleState) {
+            if (((ReversibleState) state).hasRight()) {
+                return ((MutableState) state).isExtinct();
+            } else {
+                return state.getStateValue();
             }
         }
-        Iterable<Boolean> iterable = Arrays.asList(stateValues);
-        return Iterables.all(iterable, Predicates.equalTo(TRUE));
+        return false;
     }
 
     public static boolean applyAllNonMatch(State[] states){
-        Boolean[] stateValues = new Boolean[states.length];
-        for(int i = 0; i<stateValues.length;i++){
-            stateValues[i] = states[i].getStateValue();
+        for(int i = 0; i<states.length;i++){
+            if(states[i].getStateValue()){
+                return false;
+            }
         }
-        Iterable<Boolean> iterable = Arrays.asList(stateValues);
-        return Iterables.all(iterable, Predicates.equalTo(FALSE));
+        return true;
     }
 
 
@@ -60,4 +63,12 @@ public class Constraints {
     public static boolean noneMatch(long n,TimeRange[] ranges){
         return !anyMatch(n,ranges);
     }
+
+    public static boolean anyMatch(long n, IntervalSet ranges){
+        return ranges.contains(n);
+    }
+
+    public static boolean noneMatch(long n,IntervalSet ranges){
+        return !ranges.contains(n);
+    }
 }
@@ -61,8 +61,12 @@ public class States {
      * @return  max end-time.
      */
     public static long maxEndTime(State[] states){
-        List l = Arrays.asList(states);
-        return Collections.max(l,(State x,State y)-> Long.compare(x.getRange().getEnd(),y.getRange().getEnd())).getRange().getEnd();
+        checkNotEmpty(states);
+        long max = states[0].getEnd();
+        for(int i = 1;i<states.length;i++){
+            max = Math.max(max,states[i].getEnd());
+        }
+        return max;
     }
 
 
@@ -72,8 +76,12 @@ public class States {
      * @return maximum start-time; if the set contains only one State, returns just its start-time.
      */
     public static long maxStartTime(State[] states){
-        List l = Arrays.asList(states);
-        return Collections.max(l,(State x,State y)-> Long.compare(x.getRange().getStart(),y.getRange().getStart())).getRange().getStart();
+        checkNotEmpty(states);
+        long max = states[0].getStart();
+        for(int i = 1;i<states.length;i++){
+            max = Math.max(max,states[i].getStart());
+        }
+        return max;
     }
 
 
@@ -83,8 +91,19 @@ public class States {
      * @return
      */
     public static long minStartTime(State[] states){
-        List l = Arrays.asList(states);
-        return Collections.min(l,(State x,State y)-> Long.compare(x.getRange().getStart(),y.getRange().getStart())).getRange().getStart();
+        checkNotEmpty(states);
+        long min = states[0].getStart();
+        for(int i = 1;i<states.length;i++){
+            min = Math.min(min,states[i].getStart());
+        }
+        return min;
+    }
+
+
+    private static void checkNotEmpty(State[] states){
+        if(states.length == 0){
+            throw new NoSuchElementException();
+        }
     }
 
     /**
@@ -95,7 +114,7 @@ public class States {
     public static State minStartTimeState(State[] states){
         long minKey = minStartTime(states);
         for(int i = 0;i<states.length;i++){
-            if(states[i].getRange().getStart() == minKey){
+            if(states[i].getStart() == minKey){
                 return states[i];
             }
         }
@@ -111,7 +130,7 @@ public class States {
     public static State maxEndTimeState(State[] states){
         long minKey = maxEndTime(states);
         for(int i = 0;i<states.length;i++){
-            if(states[i].getRange().getEnd() == minKey){
+            if(states[i].getEnd() == minKey){
                 return states[i];
             }
         }